@@ -0,0 +1,180 @@
+package gui;
+
+import manager.InMemoryReservationRepository;
+import manager.ReservationManager;
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.Student;
+import model.User;
+
+import javax.swing.JButton;
+import javax.swing.SwingUtilities;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Medição da navegação entre meses e da seleção de dias no {@link CalendarPanel}.
+ *
+ * Cria o painel na thread de eventos, sem janela (em modo headless, a menos que
+ * {@code java.awt.headless} seja informado), sobre um repositório em memória com reservas
+ * sorteadas ao longo de um ano. Cada rodada aciona 100 vezes os botões de mês anterior e
+ * seguinte e seleciona 300 dias pelos próprios botões do calendário, chamando os
+ * ouvintes dos botões diretamente e {@code validate()} após cada ação, e mostra o tempo
+ * médio de cada ação. Com o argumento {@code paint}, também desenha o painel inteiro em
+ * uma imagem após cada ação.
+ *
+ * Uso, a partir do diretório bench:
+ * {@code ./run.sh gui.CalendarBenchmark [paint] [reservas]}, com o padrão de 20.000 reservas.
+ */
+public class CalendarBenchmark {
+    private static final int ROUNDS = 6;
+    private static final int NAVIGATIONS = 100;
+    private static final int SELECTIONS = 300;
+
+    /**
+     * Executa a medição.
+     * @param args {@code paint} para desenhar o painel após cada ação e o número de
+     *             reservas, opcionais.
+     * @throws Exception Se a execução na thread de eventos falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        boolean paint = args.length > 0 && args[0].equals("paint");
+        int count = args.length > (paint ? 1 : 0) ? Integer.parseInt(args[paint ? 1 : 0]) : 20_000;
+
+        InMemoryReservationRepository repository = new InMemoryReservationRepository();
+        List<Classroom> classrooms = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Classroom classroom = new Classroom("R" + i, 30, "B", true);
+            classrooms.add(classroom);
+            repository.addClassroom(classroom);
+        }
+        User user = new Student("u", "p", "n", "e", "r");
+        repository.addUser(user);
+        Random random = new Random(5);
+        LocalDate base = LocalDate.now().minusMonths(6).withDayOfMonth(1);
+        for (int i = 0; i < count; i++) {
+            LocalTime start = LocalTime.of(7, 0).plusMinutes(random.nextInt(14 * 60));
+            ReservationStatus status = random.nextInt(3) > 0 ? ReservationStatus.CONFIRMED : ReservationStatus.PENDING;
+            repository.addReservation(new Reservation(i + 1, classrooms.get(random.nextInt(classrooms.size())), user,
+                    base.plusDays(random.nextInt(365)), start, start.plusMinutes(30), "p", status, ""));
+        }
+        ReservationManager manager = new ReservationManager(repository);
+        try {
+            SwingUtilities.invokeAndWait(() -> run(manager, paint));
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    /**
+     * Cria o painel e executa as rodadas de medição; deve ser chamado na thread de eventos.
+     * @param manager O gerenciador de reservas.
+     * @param paint true para desenhar o painel após cada ação.
+     */
+    private static void run(ReservationManager manager, boolean paint) {
+        CalendarPanel panel = new CalendarPanel(manager);
+        panel.setSize(900, 700);
+        panel.validate();
+        JButton previous = findButton(panel, "<<");
+        JButton next = findButton(panel, ">>");
+        BufferedImage image = new BufferedImage(900, 700, BufferedImage.TYPE_INT_RGB);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < NAVIGATIONS; i++) {
+                press(i % 2 == 0 ? next : previous);
+                refresh(panel, paint ? image : null);
+            }
+            long navigationTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < SELECTIONS; i++) {
+                List<JButton> days = new ArrayList<>();
+                collectDayButtons(panel, days);
+                press(days.get(i % days.size()));
+                refresh(panel, paint ? image : null);
+            }
+            long selectionTime = System.nanoTime() - start;
+
+            System.out.printf("Rodada %d%s: navegação %.3f ms, seleção de dia %.3f ms%n", round,
+                    paint ? " (com desenho)" : "", navigationTime / 1e6 / NAVIGATIONS, selectionTime / 1e6 / SELECTIONS);
+        }
+    }
+
+    /**
+     * Aciona os ouvintes de um botão, como um clique, sem a animação de pressionar.
+     * @param button O botão.
+     */
+    private static void press(JButton button) {
+        ActionEvent event = new ActionEvent(button, ActionEvent.ACTION_PERFORMED, button.getActionCommand());
+        for (ActionListener listener : button.getActionListeners()) {
+            listener.actionPerformed(event);
+        }
+    }
+
+    /**
+     * Refaz o layout do painel e, se houver imagem, desenha o painel nela.
+     * @param panel O painel.
+     * @param image A imagem, ou null para não desenhar.
+     */
+    private static void refresh(CalendarPanel panel, BufferedImage image) {
+        panel.validate();
+        if (image != null) {
+            Graphics graphics = image.getGraphics();
+            panel.paint(graphics);
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Procura um botão pelo texto.
+     * @param container O contêiner pesquisado.
+     * @param text O texto do botão.
+     * @return O botão, ou null se não for encontrado.
+     */
+    private static JButton findButton(Container container, String text) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JButton && text.equals(((JButton) component).getText())) {
+                return (JButton) component;
+            }
+            if (component instanceof Container) {
+                JButton button = findButton((Container) component, text);
+                if (button != null) {
+                    return button;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reúne os botões visíveis dos dias do mês.
+     * @param container O contêiner pesquisado.
+     * @param days A lista que recebe os botões.
+     */
+    private static void collectDayButtons(Container container, List<JButton> days) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof JButton) {
+                JButton button = (JButton) component;
+                if (button.isVisible() && button.getText().matches("\\d+")) {
+                    days.add(button);
+                }
+            } else if (component instanceof Container) {
+                collectDayButtons((Container) component, days);
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package manager;
+
+import exception.ReservationConflictException;
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.Student;
+import model.User;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Medição da geração de IDs de reserva com um contador sincronizado (como o antigo
+ * contador estático de {@link Reservation}) e com o {@link AtomicInteger} usado pelo
+ * {@link ReservationManager}.
+ *
+ * Para 1, 4, 16 e 64 threads, gera o total de IDs repartido entre as threads com cada
+ * contador e mostra o tempo médio por ID. Em seguida, 64 escritores fazem reservas com
+ * conflitos no gerenciador e verifica que os IDs gravados são únicos e contíguos.
+ *
+ * Uso, a partir do diretório bench:
+ * {@code ./run.sh manager.IdAllocationBenchmark [IDs] [rodadas]}, com os padrões
+ * 20.000.000 de IDs e 2 rodadas. Termina com código 1 se a verificação falhar.
+ */
+public class IdAllocationBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+    private static final int WRITERS = 64;
+    private static final int OPERATIONS = 300;
+    private static final int CLASSROOMS = 8;
+
+    private static int counter;
+    private static final AtomicInteger atomicCounter = new AtomicInteger();
+
+    /**
+     * Executa a medição e a verificação.
+     * @param args Número de IDs por medição e número de rodadas, opcionais.
+     * @throws Exception Se uma thread falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+        for (int round = 1; round <= rounds; round++) {
+            System.out.println("Rodada " + round);
+            for (int threads : THREAD_COUNTS) {
+                double synchronizedTime = measure(threads, total, IdAllocationBenchmark::nextSynchronized);
+                double atomicTime = measure(threads, total, atomicCounter::incrementAndGet);
+                System.out.printf("  %2d threads: synchronized %.2f ns/ID, AtomicInteger %.2f ns/ID%n",
+                        threads, synchronizedTime, atomicTime);
+            }
+        }
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ReservationManager manager = new ReservationManager(new InMemoryReservationRepository());
+        List<Reservation> reservations;
+        AtomicInteger conflicts = new AtomicInteger();
+        try {
+            reservations = book(manager, conflicts);
+        } finally {
+            manager.shutdown();
+            System.setOut(out);
+        }
+
+        int maxId = reservations.stream().mapToInt(Reservation::getId).max().orElse(0);
+        long distinct = reservations.stream().mapToInt(Reservation::getId).distinct().count();
+        System.out.printf("%d escritores: %d reservas, %d IDs distintos, maior ID %d, %d conflitos.%n",
+                WRITERS, reservations.size(), distinct, maxId, conflicts.get());
+        if (distinct != reservations.size() || maxId != reservations.size()) {
+            System.out.println("FALHOU");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /**
+     * Gera o próximo ID com o contador sincronizado.
+     * @return O ID gerado.
+     */
+    private static synchronized int nextSynchronized() {
+        return ++counter;
+    }
+
+    /**
+     * Mede a geração de IDs com várias threads ao mesmo tempo.
+     * @param threads O número de threads.
+     * @param total O total de IDs gerados.
+     * @param allocator O gerador de IDs.
+     * @return O tempo médio por ID, em nanossegundos.
+     * @throws Exception Se uma thread falhar.
+     */
+    private static double measure(int threads, int total, Runnable allocator) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // O relógio é disparado pela própria barreira: com poucos processadores, as threads
+            // podem terminar antes que a thread principal volte da espera.
+            AtomicLong start = new AtomicLong();
+            CyclicBarrier barrier = new CyclicBarrier(threads + 1, () -> start.set(System.nanoTime()));
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < total / threads; i++) {
+                        allocator.run();
+                    }
+                    return null;
+                }));
+            }
+            barrier.await();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return (System.nanoTime() - start.get()) / (double) total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Faz reservas com vários escritores concorrentes, confirmando ou rejeitando cada uma.
+     * @param manager O gerenciador de reservas.
+     * @param conflicts O contador de reservas recusadas por conflito.
+     * @return Todas as reservas gravadas.
+     * @throws Exception Se um escritor falhar.
+     */
+    private static List<Reservation> book(ReservationManager manager, AtomicInteger conflicts) throws Exception {
+        for (int i = 0; i < CLASSROOMS; i++) {
+            manager.addClassroom(new Classroom("R" + i, 30, "B", true));
+        }
+        User user = new Student("u", "p", "n", "e", "r");
+        manager.addUser(user);
+        List<Classroom> classrooms = manager.getAllClassrooms();
+        LocalDate date = LocalDate.now().plusDays(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                Random random = new Random(w);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        Classroom classroom = classrooms.get(random.nextInt(CLASSROOMS));
+                        LocalTime start = LocalTime.of(8 + random.nextInt(10), 0);
+                        try {
+                            Reservation reservation = manager.makeReservation(classroom, user, date, start,
+                                    start.plusHours(1), "Aula");
+                            confirmOrReject(manager, reservation);
+                        } catch (ReservationConflictException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return manager.getAllReservations();
+    }
+
+    /**
+     * Tenta confirmar uma reserva pendente e a rejeita se houver conflito.
+     * @param manager O gerenciador de reservas.
+     * @param reservation A reserva.
+     */
+    private static void confirmOrReject(ReservationManager manager, Reservation reservation) {
+        try {
+            manager.confirmReservation(reservation);
+        } catch (ReservationConflictException e) {
+            if (reservation.getStatus() == ReservationStatus.PENDING) {
+                manager.rejectReservation(reservation, "Conflito");
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.Student;
+import model.User;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Medição das buscas de usuário por nome de usuário, de sala por nome e de reserva por ID
+ * no {@link ReservationManager}, comparadas com a busca sequencial nas listas.
+ *
+ * Cadastra usuários e salas em um repositório em memória e faz reservas; para cada tipo
+ * de busca, mede o tempo da busca sequencial (filtrando a lista como antes dos índices) e
+ * o da busca pelo gerenciador, conferindo que as duas devolvem o mesmo objeto. Mede
+ * também a reconstrução dos índices após {@link ReservationManager#loadData()}.
+ *
+ * Uso, a partir do diretório bench:
+ * {@code ./run.sh manager.LookupBenchmark [usuários] [salas] [reservas]}, com os padrões
+ * 100.000 usuários, 2000 salas e 20.000 reservas. Termina com código 1 se houver
+ * divergência.
+ */
+public class LookupBenchmark {
+    private static final int QUERIES = 20_000;
+    private static final int SEQUENTIAL_QUERIES = 500;
+
+    /**
+     * Executa a medição.
+     * @param args Número de usuários, de salas e de reservas, opcionais.
+     * @throws Exception Se uma reserva não puder ser feita.
+     */
+    public static void main(String[] args) throws Exception {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int classroomCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int reservationCount = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+        InMemoryReservationRepository repository = new InMemoryReservationRepository();
+        for (int i = 0; i < userCount; i++) {
+            repository.addUser(new Student("User" + i, "p", "Nome " + i, "e" + i + "@x", "RA" + i));
+        }
+        for (int i = 0; i < classroomCount; i++) {
+            repository.addClassroom(new Classroom("Sala" + i, 30, "B", true));
+        }
+        ReservationManager manager = new ReservationManager(repository);
+        int mismatches = 0;
+        try {
+            Random random = new Random(1);
+            String[] usernames = new String[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                usernames[i] = (i % 2 == 0 ? "user" : "USER") + random.nextInt(userCount + userCount / 100 + 1);
+            }
+            List<User> users = manager.getAllUsers();
+            long start = System.nanoTime();
+            for (int i = 0; i < SEQUENTIAL_QUERIES; i++) {
+                String username = usernames[i];
+                User expected = users.stream().filter(u -> u.getUsername().equalsIgnoreCase(username))
+                        .findFirst().orElse(null);
+                if (expected != manager.getUserByUsername(username)) {
+                    mismatches++;
+                }
+            }
+            long sequentialTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (String username : usernames) {
+                manager.getUserByUsername(username);
+            }
+            long indexTime = System.nanoTime() - start;
+            print("Usuários", users.size(), sequentialTime, indexTime);
+
+            String[] names = new String[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                names[i] = (i % 2 == 0 ? "sala" : "SALA") + random.nextInt(classroomCount + classroomCount / 20 + 1);
+            }
+            List<Classroom> classrooms = manager.getAllClassrooms();
+            start = System.nanoTime();
+            for (int i = 0; i < SEQUENTIAL_QUERIES; i++) {
+                String name = names[i];
+                Classroom expected = classrooms.stream().filter(c -> c.getName().equalsIgnoreCase(name))
+                        .findFirst().orElse(null);
+                if (expected != manager.getClassroomByName(name)) {
+                    mismatches++;
+                }
+            }
+            sequentialTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (String name : names) {
+                manager.getClassroomByName(name);
+            }
+            indexTime = System.nanoTime() - start;
+            print("Salas", classrooms.size(), sequentialTime, indexTime);
+
+            User user = users.get(0);
+            LocalDate date = LocalDate.now().plusDays(1);
+            for (int i = 0; i < reservationCount; i++) {
+                manager.makeReservation(classrooms.get(i % classrooms.size()), user,
+                        date.plusDays(i / classrooms.size()), LocalTime.of(8, 0), LocalTime.of(9, 0), "Aula");
+            }
+            List<Reservation> reservations = manager.getAllReservations();
+            int[] ids = new int[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                ids[i] = reservations.get(random.nextInt(reservations.size())).getId();
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < SEQUENTIAL_QUERIES; i++) {
+                int id = ids[i];
+                Reservation expected = manager.getAllReservations().stream().filter(r -> r.getId() == id)
+                        .findFirst().orElse(null);
+                if (expected != manager.getReservationById(id)) {
+                    mismatches++;
+                }
+            }
+            sequentialTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : ids) {
+                manager.getReservationById(id);
+            }
+            indexTime = System.nanoTime() - start;
+            print("Reservas", reservations.size(), sequentialTime, indexTime);
+
+            start = System.nanoTime();
+            manager.loadData();
+            manager.getUserByUsername(usernames[0]);
+            manager.getClassroomByName(names[0]);
+            manager.getReservationById(ids[0]);
+            System.out.printf("Reconstrução dos índices após recarregar: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        } finally {
+            manager.shutdown();
+        }
+
+        System.out.println("Divergências: " + mismatches + ".");
+        if (mismatches > 0) {
+            System.out.println("FALHOU");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /**
+     * Mostra o tempo médio por busca nos dois casos.
+     * @param label O tipo de busca.
+     * @param size O tamanho da lista pesquisada.
+     * @param sequentialTime O tempo total das buscas sequenciais, em nanossegundos.
+     * @param indexTime O tempo total das buscas pelo gerenciador, em nanossegundos.
+     */
+    private static void print(String label, int size, long sequentialTime, long indexTime) {
+        double sequential = sequentialTime / 1e6 / SEQUENTIAL_QUERIES;
+        double indexed = indexTime / 1e6 / QUERIES;
+        System.out.printf("%s (%d): busca sequencial %.4f ms, índice %.5f ms por busca, %.0fx mais rápido%n",
+                label, size, sequential, indexed, sequential / indexed);
+    }
+}
@@ -0,0 +1,247 @@
+package manager;
+
+import exception.ReservationConflictException;
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.Student;
+import model.User;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Teste de estresse do {@link ReservationManager} com vários escritores concorrentes.
+ *
+ * Cada escritor, em uma thread própria, faz reservas em salas e horários sorteados
+ * (com horários que se sobrepõem de propósito) e tenta confirmá-las, rejeitando as que
+ * conflitam; alguns escritores também cancelam reservas confirmadas. Ao mesmo tempo,
+ * leitores consultam as salas disponíveis, o resumo do mês e as reservas do dia. Ao
+ * final, verifica que nenhum par de reservas confirmadas da mesma sala e do mesmo dia
+ * se sobrepõe, que os IDs são únicos e que nenhuma operação falhou com erro inesperado.
+ *
+ * Uso, a partir do diretório bench:
+ * {@code ./run.sh manager.ReservationStressTest [escritores] [operações] [salas]}, com os
+ * padrões 64 escritores, 300 operações por escritor e 8 salas. Termina com código 1 se
+ * alguma verificação falhar.
+ */
+public class ReservationStressTest {
+    private static final int READERS = 4;
+
+    /**
+     * Executa o teste.
+     * @param args Número de escritores, operações por escritor e salas.
+     * @throws InterruptedException Se a espera pelas threads for interrompida.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        int rooms = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        PrintStream out = System.out;
+        // O gerenciador registra cada operação na saída padrão.
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ReservationManager manager = new ReservationManager(new InMemoryReservationRepository());
+        List<Classroom> classrooms = new ArrayList<>();
+        for (int i = 0; i < rooms; i++) {
+            Classroom classroom = new Classroom("Sala " + (i + 1), 30, "Prédio " + (i % 3), i % 2 == 0);
+            manager.addClassroom(classroom);
+            classrooms.add(classroom);
+        }
+        User student = new Student("estresse", "estresse", "Teste de Estresse", "estresse@unicamp.br", "RA000000");
+        try {
+            manager.addUser(student);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            int seed = w;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                await(start);
+                for (int i = 0; i < operations; i++) {
+                    Classroom classroom = classrooms.get(random.nextInt(rooms));
+                    LocalDate date = firstDay.plusDays(random.nextInt(3));
+                    LocalTime begin = LocalTime.of(8 + random.nextInt(10), 10 * random.nextInt(6));
+                    LocalTime end = begin.plusMinutes(20 + 10 * random.nextInt(9));
+                    try {
+                        Reservation reservation = manager.makeReservation(classroom, student, date, begin, end, "Estresse");
+                        try {
+                            manager.confirmReservation(reservation);
+                            confirmed.incrementAndGet();
+                            if (seed % 8 == 0 && random.nextInt(4) == 0) {
+                                manager.cancelReservation(reservation, "Cancelada no teste");
+                            }
+                        } catch (ReservationConflictException e) {
+                            conflicts.incrementAndGet();
+                            manager.rejectReservation(reservation, "Conflito");
+                        }
+                    } catch (ReservationConflictException e) {
+                        conflicts.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        report(errors, e);
+                    }
+                }
+            }, "stress-writer-" + w));
+        }
+        for (int r = 0; r < READERS; r++) {
+            int seed = -1 - r;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                await(start);
+                while (writing.get()) {
+                    LocalDate date = firstDay.plusDays(random.nextInt(3));
+                    LocalTime begin = LocalTime.of(8 + random.nextInt(10), 0);
+                    try {
+                        manager.findAvailableClassrooms(date, begin, begin.plusHours(1), 0, random.nextBoolean(), null, null);
+                        manager.getMonthSummary(YearMonth.from(date));
+                        manager.getConfirmedReservationsByDate(date);
+                    } catch (RuntimeException e) {
+                        report(errors, e);
+                    }
+                }
+            }, "stress-reader-" + r));
+        }
+
+        long begin = System.nanoTime();
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (int i = 0; i < writers; i++) {
+            threads.get(i).join();
+        }
+        writing.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedMillis = (System.nanoTime() - begin) / 1_000_000;
+        System.setOut(out);
+
+        List<Reservation> all = manager.getAllReservations();
+        int overlaps = countOverlaps(all);
+        int duplicateIds = all.size() - countDistinctIds(all);
+        int indexMismatches = countIndexMismatches(manager, all);
+        System.out.printf("%d escritores x %d operações em %d salas: %d ms, %d reservas, %d confirmações, %d conflitos.%n",
+                writers, operations, rooms, elapsedMillis, all.size(), confirmed.get(), conflicts.get());
+        System.out.printf("Sobreposições confirmadas: %d, IDs duplicados: %d, divergências do índice: %d, erros: %d.%n",
+                overlaps, duplicateIds, indexMismatches, errors.get());
+        manager.shutdown();
+        if (overlaps > 0 || duplicateIds > 0 || indexMismatches > 0 || errors.get() > 0) {
+            System.out.println("FALHOU");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /**
+     * Conta os pares de reservas confirmadas da mesma sala e do mesmo dia cujos horários
+     * se sobrepõem estritamente.
+     * @param reservations As reservas.
+     * @return O número de pares.
+     */
+    private static int countOverlaps(List<Reservation> reservations) {
+        Map<String, List<Reservation>> byRoomAndDay = new HashMap<>();
+        for (Reservation reservation : reservations) {
+            if (reservation.getStatus() == ReservationStatus.CONFIRMED) {
+                byRoomAndDay.computeIfAbsent(reservation.getClassroom().getName() + "|" + reservation.getDate(),
+                        key -> new ArrayList<>()).add(reservation);
+            }
+        }
+        int overlaps = 0;
+        for (List<Reservation> sameRoomAndDay : byRoomAndDay.values()) {
+            for (int i = 0; i < sameRoomAndDay.size(); i++) {
+                for (int j = i + 1; j < sameRoomAndDay.size(); j++) {
+                    Reservation a = sameRoomAndDay.get(i);
+                    Reservation b = sameRoomAndDay.get(j);
+                    if (a.getStartTime().isBefore(b.getEndTime()) && b.getStartTime().isBefore(a.getEndTime())) {
+                        System.out.println("Sobreposição: reservas " + a.getId() + " e " + b.getId());
+                        overlaps++;
+                    }
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Conta os IDs distintos.
+     * @param reservations As reservas.
+     * @return O número de IDs distintos.
+     */
+    private static int countDistinctIds(List<Reservation> reservations) {
+        Set<Integer> ids = new HashSet<>();
+        for (Reservation reservation : reservations) {
+            ids.add(reservation.getId());
+        }
+        return ids.size();
+    }
+
+    /**
+     * Conta as reservas cujo status diverge do índice de horários: confirmadas ausentes das
+     * reservas do dia, ou presentes sem estar confirmadas.
+     * @param manager O gerenciador.
+     * @param reservations As reservas.
+     * @return O número de divergências.
+     */
+    private static int countIndexMismatches(ReservationManager manager, List<Reservation> reservations) {
+        Map<LocalDate, Set<Integer>> indexedByDate = new HashMap<>();
+        int mismatches = 0;
+        for (Reservation reservation : reservations) {
+            Set<Integer> indexed = indexedByDate.computeIfAbsent(reservation.getDate(), date -> {
+                Set<Integer> ids = new HashSet<>();
+                for (Reservation confirmed : manager.getConfirmedReservationsByDate(date)) {
+                    ids.add(confirmed.getId());
+                }
+                return ids;
+            });
+            if (indexed.contains(reservation.getId()) != (reservation.getStatus() == ReservationStatus.CONFIRMED)) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Registra um erro inesperado, mostrando apenas o primeiro.
+     * @param errors O contador de erros.
+     * @param e O erro.
+     */
+    private static void report(AtomicInteger errors, RuntimeException e) {
+        if (errors.getAndIncrement() == 0) {
+            System.err.println("Erro inesperado: " + e);
+        }
+    }
+
+    /**
+     * Espera o sinal de início.
+     * @param start O sinal.
+     */
+    private static void await(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.Student;
+import model.User;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Medição da verificação de conflito pelo {@link ScheduleIndex}, comparada com a
+ * varredura linear de todas as reservas com {@link Reservation#conflictsWith}.
+ *
+ * Gera reservas em 50 salas, 500 por dia, das quais cerca de 70% confirmadas; algumas
+ * têm horários longos que se sobrepõem, como nos dados antigos. Mede o tempo por
+ * verificação nos dois casos (a varredura linear só com as primeiras 200 consultas) e
+ * confere, para todas as consultas, que o índice dá o mesmo resultado que a varredura
+ * das reservas do dia, tanto no conflito quanto nas salas ocupadas.
+ *
+ * Uso, a partir do diretório bench:
+ * {@code ./run.sh manager.ScheduleIndexBenchmark [reservas] [consultas]}, com os padrões
+ * 1.000.000 de reservas e 20.000 consultas. Termina com código 1 se houver divergência.
+ */
+public class ScheduleIndexBenchmark {
+    private static final int CLASSROOMS = 50;
+    private static final int RESERVATIONS_PER_DAY = 500;
+    private static final int LINEAR_QUERIES = 200;
+
+    /**
+     * Executa a medição.
+     * @param args Número de reservas e número de consultas, opcionais.
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        Random random = new Random(42);
+        List<Classroom> classrooms = new ArrayList<>();
+        for (int i = 0; i < CLASSROOMS; i++) {
+            classrooms.add(new Classroom("S" + i, 30, "A", false));
+        }
+        User user = new Student("u", "p", "U", "e", "ra");
+        LocalDate base = LocalDate.of(2020, 1, 1);
+
+        List<Reservation> confirmed = new ArrayList<>();
+        Map<LocalDate, List<Reservation>> confirmedByDate = new HashMap<>();
+        ScheduleIndex index = new ScheduleIndex();
+        for (int i = 0; i < count; i++) {
+            int slot = i % 10;
+            LocalTime start = LocalTime.of(7 + slot, 0);
+            LocalTime end = i % 9973 == 0 ? LocalTime.of(9 + slot, 30) : LocalTime.of(7 + slot, 50);
+            if (random.nextInt(10) >= 7) {
+                continue;
+            }
+            Reservation reservation = new Reservation(i + 1, classrooms.get((i / 10) % CLASSROOMS), user,
+                    base.plusDays(i / RESERVATIONS_PER_DAY), start, end, "p", ReservationStatus.CONFIRMED, "");
+            confirmed.add(reservation);
+            confirmedByDate.computeIfAbsent(reservation.getDate(), d -> new ArrayList<>()).add(reservation);
+            index.add(reservation);
+        }
+
+        List<Reservation> queries = new ArrayList<>(queryCount);
+        for (int i = 0; i < queryCount; i++) {
+            LocalTime start = LocalTime.of(6 + random.nextInt(14), random.nextInt(6) * 10);
+            queries.add(new Reservation(-1, classrooms.get(random.nextInt(CLASSROOMS)), user,
+                    base.plusDays(random.nextInt(count / RESERVATIONS_PER_DAY + 1)), start,
+                    start.plusMinutes(random.nextInt(8) * 10), "", ReservationStatus.PENDING, ""));
+        }
+
+        int linearQueries = Math.min(queryCount, LINEAR_QUERIES);
+        boolean[] linear = new boolean[linearQueries];
+        long start = System.nanoTime();
+        for (int i = 0; i < linearQueries; i++) {
+            for (Reservation reservation : confirmed) {
+                if (queries.get(i).conflictsWith(reservation)) {
+                    linear[i] = true;
+                    break;
+                }
+            }
+        }
+        long linearTime = System.nanoTime() - start;
+
+        boolean[] indexed = new boolean[queryCount];
+        start = System.nanoTime();
+        for (int i = 0; i < queryCount; i++) {
+            Reservation query = queries.get(i);
+            indexed[i] = index.findConflict(query.getClassroom(), query.getDate(),
+                    query.getStartTime(), query.getEndTime()) != null;
+        }
+        long indexTime = System.nanoTime() - start;
+
+        int conflicts = 0;
+        int mismatches = 0;
+        int occupiedMismatches = 0;
+        for (int i = 0; i < queryCount; i++) {
+            Reservation query = queries.get(i);
+            boolean expected = false;
+            Set<Classroom> occupied = new HashSet<>();
+            for (Reservation reservation : confirmedByDate.getOrDefault(query.getDate(), List.of())) {
+                if (query.conflictsWith(reservation)) {
+                    expected = true;
+                }
+                Reservation probe = new Reservation(-1, reservation.getClassroom(), user, query.getDate(),
+                        query.getStartTime(), query.getEndTime(), "", ReservationStatus.PENDING, "");
+                if (probe.conflictsWith(reservation)) {
+                    occupied.add(reservation.getClassroom());
+                }
+            }
+            if (expected) {
+                conflicts++;
+            }
+            if (expected != indexed[i] || (i < linearQueries && linear[i] != indexed[i])) {
+                mismatches++;
+            }
+            if (!occupied.equals(new HashSet<>(index.findOccupiedClassrooms(query.getDate(),
+                    query.getStartTime(), query.getEndTime())))) {
+                occupiedMismatches++;
+            }
+        }
+
+        double linearPerCheck = linearTime / 1e6 / linearQueries;
+        double indexPerCheck = indexTime / 1e6 / queryCount;
+        System.out.printf("%d reservas, %d confirmadas, %d salas%n", count, confirmed.size(), CLASSROOMS);
+        System.out.printf("  Varredura linear: %.3f ms por verificação (%d verificações)%n", linearPerCheck, linearQueries);
+        System.out.printf("  Índice:           %.4f ms por verificação (%d verificações), %.0fx mais rápido%n",
+                indexPerCheck, queryCount, linearPerCheck / indexPerCheck);
+        System.out.printf("Conflitos: %d, divergências: %d, divergências nas salas ocupadas: %d.%n",
+                conflicts, mismatches, occupiedMismatches);
+        if (mismatches > 0 || occupiedMismatches > 0) {
+            System.out.println("FALHOU");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+}
@@ -0,0 +1,34 @@
+#!/bin/bash
+
+# Compila os fontes do sistema (../src) junto com os de medição (este diretório)
+# e executa a classe indicada. As classes de medição não fazem parte da aplicação:
+# o run.sh de src/ não as compila.
+# Uso: ./run.sh <classe> [argumentos...]
+# Exemplo: ./run.sh manager.ReservationStressTest 64 300 8
+
+cd "$(dirname "$0")"
+
+SRC_DIR="../src"
+LIB_DIR="$SRC_DIR/libs"
+
+if [ $# -eq 0 ]; then
+    echo "Uso: $0 <classe> [argumentos...]"
+    exit 2
+fi
+
+# Limpa a pasta de saída e a recria
+rm -rf out
+mkdir -p out
+
+# Adiciona todos os JARs do diretório de bibliotecas ao classpath
+CP_LIBS=$(JARS=("$LIB_DIR"/*.jar); IFS=:; echo "${JARS[*]}")
+
+# Compila os fontes do sistema e os de medição
+find "$SRC_DIR" . -name "*.java" -not -path "*/out/*" | xargs javac -encoding UTF-8 -d out -cp "$CP_LIBS" || exit 1
+
+# Copia os arquivos de recursos para a pasta de saída
+if [ -d "$SRC_DIR/resources" ]; then
+    cp -r "$SRC_DIR/resources" out/
+fi
+
+java -cp "out:$CP_LIBS" "$@"
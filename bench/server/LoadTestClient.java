@@ -0,0 +1,208 @@
+package server;
+
+import util.Json;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cliente de teste de carga da API HTTP ({@link ReservationServer}).
+ *
+ * Cada cliente, em uma thread virtual, faz login e repete: busca as salas disponíveis em
+ * um horário sorteado, reserva a primeira sala encontrada e, se o usuário for
+ * administrador, confirma a reserva; por fim, faz logout. Ao final, mostra o número de
+ * requisições por status, a vazão e as latências.
+ *
+ * Uso, a partir do diretório bench, com o servidor já iniciado:
+ * {@code ./run.sh server.LoadTestClient [url] [clientes] [iterações] [usuário] [senha]},
+ * com os padrões {@code http://localhost:8080}, 1000 clientes, 10 iterações e o usuário
+ * {@code admin}.
+ */
+public class LoadTestClient {
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor do cliente.
+     * @param baseUrl O endereço do servidor.
+     * @param executor O executor das requisições assíncronas do cliente HTTP.
+     */
+    private LoadTestClient(String baseUrl, ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Executa o teste de carga.
+     * @param args Endereço, número de clientes, iterações por cliente, usuário e senha.
+     * @throws InterruptedException Se a espera pelos clientes for interrompida.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:" + ReservationServer.DEFAULT_PORT;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        String username = args.length > 3 ? args[3] : "admin";
+        String password = args.length > 4 ? args[4] : "admin123";
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            LoadTestClient test = new LoadTestClient(baseUrl, executor);
+            CountDownLatch done = new CountDownLatch(clients);
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            for (int i = 0; i < clients; i++) {
+                int seed = i;
+                executor.execute(() -> {
+                    try {
+                        test.runClient(new Random(seed), iterations, username, password);
+                    } catch (Exception e) {
+                        if (failures.getAndIncrement() == 0) {
+                            System.err.println("Erro em um cliente: " + e);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            test.report(clients, failures.get(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executa um cliente: login, as iterações de busca, reserva e confirmação, e logout.
+     * @param random O gerador dos horários.
+     * @param iterations O número de iterações.
+     * @param username O usuário.
+     * @param password A senha.
+     * @throws Exception Se uma requisição falhar sem resposta.
+     */
+    @SuppressWarnings("unchecked")
+    private void runClient(Random random, int iterations, String username, String password) throws Exception {
+        Map<String, Object> credentials = new LinkedHashMap<>();
+        credentials.put("username", username);
+        credentials.put("password", password);
+        HttpResponse<String> login = send(post("/api/login", null, credentials));
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login recusado: " + login.body());
+        }
+        Map<String, Object> session = Json.parseObject(login.body());
+        String token = (String) session.get("token");
+        boolean admin = "Administrator".equals(session.get("role"));
+
+        for (int i = 0; i < iterations; i++) {
+            LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(60));
+            LocalTime start = LocalTime.of(7 + random.nextInt(14), 15 * random.nextInt(4));
+            LocalTime end = start.plusMinutes(30 + 30 * random.nextInt(3));
+            HttpResponse<String> search = send(HttpRequest.newBuilder(URI.create(baseUrl
+                    + "/api/classrooms/available?date=" + date + "&start=" + start + "&end=" + end))
+                    .header("Authorization", "Bearer " + token).GET().build());
+            if (search.statusCode() != 200) {
+                continue;
+            }
+            List<Object> rooms = (List<Object>) Json.parse(search.body());
+            if (rooms.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> booking = new LinkedHashMap<>();
+            booking.put("classroom", ((Map<String, Object>) rooms.get(0)).get("name"));
+            booking.put("date", date.toString());
+            booking.put("start", start.toString());
+            booking.put("end", end.toString());
+            booking.put("purpose", "Teste de carga");
+            HttpResponse<String> created = send(post("/api/reservations", token, booking));
+            if (admin && created.statusCode() == 201) {
+                Object id = Json.parseObject(created.body()).get("id");
+                send(post("/api/reservations/" + id + "/confirm", token, new LinkedHashMap<>()));
+            }
+        }
+        send(post("/api/logout", token, new LinkedHashMap<>()));
+    }
+
+    /**
+     * Monta uma requisição POST com corpo JSON.
+     * @param path O caminho.
+     * @param token O token da sessão, ou null.
+     * @param body O corpo.
+     * @return A requisição.
+     */
+    private HttpRequest post(String path, String token, Map<String, Object> body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(Json.write(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    /**
+     * Envia uma requisição e registra o status e a latência.
+     * @param request A requisição.
+     * @return A resposta.
+     * @throws Exception Se a requisição falhar sem resposta.
+     */
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        latencies.add(System.nanoTime() - start);
+        statusCounts.computeIfAbsent(response.statusCode(), status -> new AtomicInteger()).incrementAndGet();
+        return response;
+    }
+
+    /**
+     * Mostra o resultado do teste.
+     * @param clients O número de clientes.
+     * @param failures O número de clientes interrompidos por erro.
+     * @param elapsedNanos O tempo total, em nanossegundos.
+     */
+    private void report(int clients, int failures, long elapsedNanos) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%d clientes, %d requisições em %.2f s (%.0f req/s), %d clientes com erro.%n",
+                clients, sorted.length, seconds, sorted.length / seconds, failures);
+        List<Integer> statuses = new ArrayList<>(statusCounts.keySet());
+        statuses.sort(null);
+        for (int status : statuses) {
+            System.out.println("  HTTP " + status + ": " + statusCounts.get(status).get());
+        }
+        if (sorted.length > 0) {
+            System.out.printf("  latência p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, máx %.1f ms%n",
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                    sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    /**
+     * Obtém um percentil das latências.
+     * @param sorted As latências ordenadas, em nanossegundos.
+     * @param percent O percentil.
+     * @return A latência, em milissegundos.
+     */
+    private static double percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)] / 1e6;
+    }
+}
@@ -0,0 +1,120 @@
+package util;
+
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.Student;
+import model.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Medição da gravação e da leitura das reservas com o {@link BinaryCodec}, comparadas
+ * com a serialização Java usada antes pelo {@link FileUtil}.
+ *
+ * Gera reservas sorteadas entre 200 salas e 5000 usuários, grava e lê a lista inteira
+ * nos dois formatos, em um diretório temporário, e mostra o tempo e o tamanho do arquivo
+ * de cada um. A primeira rodada inclui o aquecimento da JVM.
+ *
+ * Uso, a partir do diretório bench:
+ * {@code ./run.sh util.BinaryCodecBenchmark [reservas] [rodadas]}, com os padrões
+ * 1.000.000 de reservas e 2 rodadas.
+ */
+public class BinaryCodecBenchmark {
+
+    /**
+     * Executa a medição.
+     * @param args Número de reservas e número de rodadas, opcionais.
+     * @throws Exception Se a gravação ou a leitura falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+        List<Classroom> classrooms = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            classrooms.add(new Classroom("Sala " + i, 30 + i, "Prédio " + (i % 5), i % 2 == 0));
+        }
+        Map<String, User> users = new HashMap<>();
+        List<User> userList = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            User user = new Student("u" + i, "p", "Nome " + i, "e" + i + "@x", "RA" + i);
+            users.put(user.getUsername(), user);
+            userList.add(user);
+        }
+        List<Reservation> reservations = createReservations(count, classrooms, userList);
+
+        Path directory = Files.createTempDirectory("codec-bench");
+        String serializedFile = directory.resolve("reservas.ser").toString();
+        String binaryFile = directory.resolve("reservas.dat").toString();
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                long start = System.nanoTime();
+                FileUtil.writeObjectToFile(reservations, serializedFile);
+                long serializedWrite = System.nanoTime() - start;
+                start = System.nanoTime();
+                List<Reservation> serialized = FileUtil.readObjectFromFile(serializedFile);
+                long serializedRead = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                long binarySize = BinaryCodec.writeReservations(reservations, binaryFile);
+                long binaryWrite = System.nanoTime() - start;
+                start = System.nanoTime();
+                List<Reservation> binary = BinaryCodec.readReservations(binaryFile, users::get);
+                long binaryRead = System.nanoTime() - start;
+
+                check(serialized.size() == count && binary.size() == count,
+                        "A leitura devolveu " + serialized.size() + " e " + binary.size() + " reservas.");
+                System.out.printf("Rodada %d, %d reservas%n", round, count);
+                System.out.printf("  Serialização Java: gravação %d ms, leitura %d ms, %d bytes%n",
+                        serializedWrite / 1_000_000, serializedRead / 1_000_000, Files.size(Path.of(serializedFile)));
+                System.out.printf("  Formato binário:   gravação %d ms, leitura %d ms, %d bytes%n",
+                        binaryWrite / 1_000_000, binaryRead / 1_000_000, binarySize);
+            }
+        } finally {
+            FileUtil.deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Gera as reservas sorteadas, sempre com a mesma semente.
+     * @param count Número de reservas.
+     * @param classrooms As salas.
+     * @param users Os usuários.
+     * @return As reservas geradas.
+     */
+    private static List<Reservation> createReservations(int count, List<Classroom> classrooms, List<User> users) {
+        Random random = new Random(1);
+        LocalDate base = LocalDate.of(2020, 1, 1);
+        ReservationStatus[] statuses = ReservationStatus.values();
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            reservations.add(new Reservation(i, classrooms.get(random.nextInt(classrooms.size())),
+                    users.get(random.nextInt(users.size())), base.plusDays(random.nextInt(2000)),
+                    LocalTime.of(8 + random.nextInt(8), 0), LocalTime.of(17, 30), "Aula " + (i % 50),
+                    statuses[random.nextInt(statuses.length)], ""));
+        }
+        return reservations;
+    }
+
+    /**
+     * Interrompe a medição se a condição for falsa.
+     * @param condition A condição verificada.
+     * @param message A mensagem de erro.
+     * @throws IOException Se a condição for falsa.
+     */
+    private static void check(boolean condition, String message) throws IOException {
+        if (!condition) {
+            throw new IOException(message);
+        }
+    }
+}
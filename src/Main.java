@@ -1,18 +1,30 @@
 import com.formdev.flatlaf.FlatLightLaf;
 import gui.MainFrame;
+import server.ReservationServer;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import java.awt.Font;
+import java.io.IOException;
 
 /**
  * Classe principal da aplicação.
  */
 public class Main {
     /**
-     * Método principal.
+     * Método principal. Com {@code --server [porta]}, inicia apenas a API HTTP (ver
+     * {@link ReservationServer}), sem interface gráfica.
      * @param args Argumentos da linha de comando.
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--server")) {
+            try {
+                ReservationServer.runHeadless(args.length > 1 ? Integer.parseInt(args[1]) : ReservationServer.DEFAULT_PORT);
+            } catch (IOException | NumberFormatException e) {
+                System.err.println("Erro ao iniciar a API HTTP: " + e.getMessage());
+            }
+            return;
+        }
+
         try {
             UIManager.setLookAndFeel(new FlatLightLaf());
 
@@ -1,12 +1,13 @@
 package gui;
 
+import manager.ReservationEvent;
 import manager.ReservationManager;
+import manager.Snapshot;
 import model.Classroom;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
 
 /**
  * Painel de administração para salas de aula.
@@ -15,6 +16,7 @@ public class AdminClassroomPanel extends JPanel {
     protected ReservationManager manager;
     private JTable classroomTable;
     private DefaultTableModel classroomTableModel;
+    private long shownVersion = -1;
     private JButton addButton;
     private JButton removeButton;
     private Frame mainFrame;
@@ -30,20 +32,67 @@ public class AdminClassroomPanel extends JPanel {
         setLayout(new BorderLayout());
         initComponents();
         refreshClassroomList();
+        ReservationEventBinding.bind(this, manager, this::applyEvent, this::refreshClassroomList);
     }
 
     /**
-     * Atualiza a lista de salas de aula.
+     * Atualiza a lista de salas de aula, se as salas mudaram desde a última atualização.
      */
     public void refreshClassroomList() {
+        Snapshot<Classroom> classrooms = manager.getClassroomsSnapshot();
+        if (classrooms.getVersion() == shownVersion) {
+            return;
+        }
+        shownVersion = classrooms.getVersion();
         classroomTableModel.setRowCount(0);
-        List<Classroom> classrooms = manager.getAllClassrooms();
         for (Classroom classroom : classrooms) {
-            classroomTableModel.addRow(new Object[]{
-                    classroom.getName(), classroom.getCapacity(), classroom.getLocation(),
-                    classroom.hasProjector() ? "Sim" : "Não", String.join(", ", classroom.getFeatures())
-            });
+            classroomTableModel.addRow(toRow(classroom));
+        }
+    }
+
+    /**
+     * Monta a linha da tabela de uma sala.
+     * @param classroom A sala.
+     * @return Os valores das colunas.
+     */
+    private Object[] toRow(Classroom classroom) {
+        return new Object[]{
+                classroom.getName(), classroom.getCapacity(), classroom.getLocation(),
+                classroom.hasProjector() ? "Sim" : "Não", String.join(", ", classroom.getFeatures())
+        };
+    }
+
+    /**
+     * Aplica à tabela a adição ou a remoção de uma sala.
+     * @param event O evento do gerenciador.
+     */
+    private void applyEvent(ReservationEvent event) {
+        if (event.getType() != ReservationEvent.Type.CLASSROOM_ADDED
+                && event.getType() != ReservationEvent.Type.CLASSROOM_REMOVED) {
+            return;
+        }
+        int row = findRow(event.getClassroom().getName());
+        if (event.getType() == ReservationEvent.Type.CLASSROOM_ADDED) {
+            if (row == -1) {
+                classroomTableModel.addRow(toRow(event.getClassroom()));
+            }
+        } else if (row != -1) {
+            classroomTableModel.removeRow(row);
+        }
+    }
+
+    /**
+     * Procura a linha de uma sala na tabela.
+     * @param name O nome da sala.
+     * @return O índice da linha, ou -1 se a sala não estiver na tabela.
+     */
+    private int findRow(String name) {
+        for (int row = 0; row < classroomTableModel.getRowCount(); row++) {
+            if (name.equals(classroomTableModel.getValueAt(row, 0))) {
+                return row;
+            }
         }
+        return -1;
     }
     
     /**
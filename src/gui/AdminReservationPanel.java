@@ -1,16 +1,14 @@
 package gui;
 
+import manager.ReservationEvent;
 import manager.ReservationManager;
 import model.Reservation;
 import exception.ReservationConflictException;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumnModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.util.Comparator;
-import java.util.List;
 
 /**
  * Painel de administração para gerenciamento de reservas.
@@ -18,35 +16,27 @@ import java.util.List;
 public class AdminReservationPanel extends JPanel {
     private ReservationManager manager;
     private JTable reservationsTable;
-    private DefaultTableModel reservationsTableModel;
-    private TableRowSorter<DefaultTableModel> sorter;
-    private Runnable onDataChangedCallback; // Adicionado
+    private ReservationTableModel reservationsTableModel;
+    private TableRowSorter<ReservationTableModel> sorter;
 
     /**
-     * Construtor do painel de administração de reservas.
+     * Construtor do painel de administração de reservas. O painel se atualiza pelos eventos do gerenciador.
      * @param manager O gerenciador de reservas.
-     * @param onDataChangedCallback Callback a ser chamado quando os dados mudam.
      */
-    public AdminReservationPanel(ReservationManager manager, Runnable onDataChangedCallback) { // Modificado
+    public AdminReservationPanel(ReservationManager manager) {
         this.manager = manager;
-        this.onDataChangedCallback = onDataChangedCallback; // Adicionado
         setLayout(new BorderLayout(10, 10));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         initComponents();
         refreshReservationsList();
+        ReservationEventBinding.bind(this, manager, this::applyEvent, this::refreshReservationsList);
     }
 
     /**
      * Inicializa os componentes da interface gráfica.
      */
     private void initComponents() {
-        String[] columnNames = {"ID", "Sala", "Usuário", "Data", "Início", "Término", "Propósito", "Status", "Observações"};
-        reservationsTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        reservationsTableModel = new ReservationTableModel();
 
         reservationsTable = new JTable(reservationsTableModel);
         reservationsTable.setFillsViewportHeight(true);
@@ -109,31 +99,40 @@ public class AdminReservationPanel extends JPanel {
      */
     public void refreshReservationsList() {
         int selectedRow = getSelectedModelRow();
-        
-        reservationsTableModel.setRowCount(0);
-        List<Reservation> allReservations = manager.getAllReservations();
-        allReservations.sort(Comparator.comparing(Reservation::getDate).thenComparing(Reservation::getStartTime).reversed());
+        Reservation selectedReservation = selectedRow != -1 ? reservationsTableModel.getReservationAt(selectedRow) : null;
 
-        for (Reservation reservation : allReservations) {
-            reservationsTableModel.addRow(new Object[]{
-                    reservation.getId(),
-                    reservation.getClassroom().getName(),
-                    reservation.getReservedBy().getUsername(),
-                    reservation.getDate(),
-                    reservation.getStartTime(),
-                    reservation.getEndTime(),
-                    reservation.getPurpose(),
-                    reservation.getStatus().getName(),
-                    reservation.getObservation()
-            });
-        }
-        
-        if (selectedRow != -1 && selectedRow < reservationsTableModel.getRowCount()) {
-             int viewRow = reservationsTable.convertRowIndexToView(selectedRow);
-             reservationsTable.setRowSelectionInterval(viewRow, viewRow);
+        reservationsTableModel.setReservations(manager.getReservationsNewestFirst());
+
+        if (selectedReservation != null) {
+            int modelRow = reservationsTableModel.indexOf(selectedReservation);
+            if (modelRow != -1) {
+                int viewRow = reservationsTable.convertRowIndexToView(modelRow);
+                reservationsTable.setRowSelectionInterval(viewRow, viewRow);
+                reservationsTable.scrollRectToVisible(reservationsTable.getCellRect(viewRow, 0, true));
+            }
         }
     }
     
+    /**
+     * Aplica à tabela uma alteração nas reservas, atualizando apenas a linha afetada.
+     * @param event O evento do gerenciador.
+     */
+    private void applyEvent(ReservationEvent event) {
+        switch (event.getType()) {
+            case RESERVATION_ADDED:
+                reservationsTableModel.reservationAdded(event.getReservation());
+                break;
+            case RESERVATION_STATUS_CHANGED:
+                reservationsTableModel.reservationChanged(event.getReservation());
+                break;
+            case RESERVATION_DELETED:
+                reservationsTableModel.reservationRemoved(event.getReservation());
+                break;
+            default:
+                break;
+        }
+    }
+
     /**
      * Obtém a linha do modelo selecionada na tabela.
      * @return O índice da linha do modelo selecionada, ou -1 se nenhuma linha estiver selecionada.
@@ -156,11 +155,7 @@ public class AdminReservationPanel extends JPanel {
             JOptionPane.showMessageDialog(this, "Selecione uma reserva na tabela.", "Nenhuma Seleção", JOptionPane.WARNING_MESSAGE);
             return null;
         }
-        int reservationId = (int) reservationsTableModel.getValueAt(selectedRow, 0);
-        return manager.getAllReservations().stream()
-                .filter(r -> r.getId() == reservationId)
-                .findFirst()
-                .orElse(null);
+        return reservationsTableModel.getReservationAt(selectedRow);
     }
 
     /**
@@ -173,9 +168,6 @@ public class AdminReservationPanel extends JPanel {
         try {
             manager.confirmReservation(reservationToConfirm);
             JOptionPane.showMessageDialog(this, "Reserva confirmada com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
-            if (onDataChangedCallback != null) { // Adicionado
-                onDataChangedCallback.run();
-            }
         } catch (IllegalArgumentException | ReservationConflictException ex) {
             JOptionPane.showMessageDialog(this, ex.getMessage(), "Erro ao Confirmar", JOptionPane.ERROR_MESSAGE);
         } catch (Exception ex) {
@@ -200,9 +192,6 @@ public class AdminReservationPanel extends JPanel {
         try {
             manager.rejectReservation(reservationToReject, observation);
             JOptionPane.showMessageDialog(this, "Reserva rejeitada com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
-            if (onDataChangedCallback != null) { // Adicionado
-                onDataChangedCallback.run();
-            }
         } catch (IllegalArgumentException ex) {
             JOptionPane.showMessageDialog(this, ex.getMessage(), "Erro ao Rejeitar", JOptionPane.ERROR_MESSAGE);
         } catch (Exception ex) {
@@ -227,9 +216,6 @@ public class AdminReservationPanel extends JPanel {
         try {
             manager.cancelReservation(reservationToCancel, observation);
             JOptionPane.showMessageDialog(this, "Reserva cancelada com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
-            if (onDataChangedCallback != null) { // Adicionado
-                onDataChangedCallback.run();
-            }
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Ocorreu um erro ao cancelar: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
             ex.printStackTrace();
@@ -249,9 +235,6 @@ public class AdminReservationPanel extends JPanel {
         try {
             manager.deleteReservation(reservationToDelete);
             JOptionPane.showMessageDialog(this, "Reserva deletada com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
-            if (onDataChangedCallback != null) { // Adicionado
-                onDataChangedCallback.run();
-            }
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Ocorreu um erro inesperado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
             ex.printStackTrace();
@@ -1,10 +1,12 @@
 package gui;
 
+import manager.MonthSummary;
+import manager.ReservationEvent;
 import manager.ReservationManager;
 import model.Reservation;
-import model.ReservationStatus;
 
 import javax.swing.*;
+import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder; 
 import javax.swing.table.DefaultTableModel;
@@ -16,8 +18,6 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
-import java.util.Comparator;
 
 /**
  * Painel que exibe um calendário com as reservas.
@@ -31,8 +31,12 @@ public class CalendarPanel extends JPanel {
     private JTable reservationsForDayTable;
     private DefaultTableModel reservationsForDayTableModel;
 
+    private final JButton[] dayButtons = new JButton[DAY_CELLS];
+
     private YearMonth currentMonth;
     private LocalDate selectedDate;
+    private LocalDate today;
+    private MonthSummary monthSummary;
 
     private static final Locale BRAZIL_LOCALE = Locale.of("pt", "BR");
 
@@ -43,6 +47,17 @@ public class CalendarPanel extends JPanel {
     private static final Color TODAY_COLOR = new Color(255, 223, 186);
     private static final Color RESERVATION_DAY_BORDER_COLOR = new Color(0, 100, 0);
 
+    /** Número de células de dia: seis semanas, o bastante para qualquer mês. */
+    private static final int DAY_CELLS = 42;
+    private static final Font WEEKDAY_FONT = new Font("SansSerif", Font.BOLD, 12);
+    private static final Font DAY_FONT = new Font("SansSerif", Font.BOLD, 18);
+    private static final Border SELECTED_DAY_BORDER = new LineBorder(Color.DARK_GRAY, 2);
+    private static final Border TODAY_BORDER = new LineBorder(Color.ORANGE, 2);
+    private static final Border DAY_BORDER = new LineBorder(Color.LIGHT_GRAY, 1);
+    private static final Border SELECTED_DAY_RESERVED_BORDER = reservedBorder(SELECTED_DAY_BORDER);
+    private static final Border TODAY_RESERVED_BORDER = reservedBorder(TODAY_BORDER);
+    private static final Border DAY_RESERVED_BORDER = reservedBorder(DAY_BORDER);
+
     /**
      * Construtor do painel do calendário.
      * @param manager O gerenciador de reservas.
@@ -59,6 +74,16 @@ public class CalendarPanel extends JPanel {
         initComponents();
         updateCalendar();
         displayReservationsForSelectedDay();
+        ReservationEventBinding.bind(this, manager, this::applyEvent, this::refreshCalendarAndReservations);
+    }
+
+    /**
+     * Cria a borda de um dia com reservas confirmadas.
+     * @param dayBorder A borda do dia sem reservas.
+     * @return A borda.
+     */
+    private static Border reservedBorder(Border dayBorder) {
+        return BorderFactory.createCompoundBorder(new LineBorder(RESERVATION_DAY_BORDER_COLOR, 2), dayBorder);
     }
 
     /**
@@ -100,6 +125,22 @@ public class CalendarPanel extends JPanel {
             new EmptyBorder(1, 5, 1, 5),
             new LineBorder(Color.LIGHT_GRAY, 1)
         ));
+        String[] dayNames = {"Dom", "Seg", "Ter", "Qua", "Qui", "Sex", "Sáb"};
+        for (String dayName : dayNames) {
+            JLabel label = new JLabel(dayName, SwingConstants.CENTER);
+            label.setFont(WEEKDAY_FONT);
+            label.setForeground(WEEKDAY_COLOR);
+            calendarGridPanel.add(label);
+        }
+        for (int cell = 0; cell < DAY_CELLS; cell++) {
+            JButton dayButton = new JButton();
+            dayButton.setFont(DAY_FONT);
+            dayButton.setFocusPainted(false);
+            final int clickedCell = cell;
+            dayButton.addActionListener(e -> selectDayCell(clickedCell));
+            dayButtons[cell] = dayButton;
+            calendarGridPanel.add(dayButton);
+        }
         add(calendarGridPanel, BorderLayout.CENTER);
 
         JPanel reservationsPanel = new JPanel(new BorderLayout(5, 1));
@@ -141,92 +182,119 @@ public class CalendarPanel extends JPanel {
      */
     private void navigateMonth(int months) {
         currentMonth = currentMonth.plusMonths(months);
-        updateCalendar();
         try {
             selectedDate = currentMonth.atDay(selectedDate.getDayOfMonth());
         } catch (java.time.DateTimeException e) {
             selectedDate = currentMonth.atEndOfMonth();
         }
+        updateCalendar();
         displayReservationsForSelectedDay();
     }
 
     /**
-     * Atualiza o calendário.
+     * Atualiza o calendário, redesenhando todas as células com o resumo do mês atual.
      */
     private void updateCalendar() {
-        calendarGridPanel.removeAll();
-
         monthYearLabel.setText(currentMonth.getMonth().getDisplayName(TextStyle.FULL, BRAZIL_LOCALE) + " " + currentMonth.getYear());
-
-        String[] dayNames = {"Dom", "Seg", "Ter", "Qua", "Qui", "Sex", "Sáb"};
-        for (String dayName : dayNames) {
-            JLabel label = new JLabel(dayName, SwingConstants.CENTER);
-            label.setFont(new Font("SansSerif", Font.BOLD, 12));
-            label.setForeground(WEEKDAY_COLOR);
-            calendarGridPanel.add(label);
+        monthSummary = manager.getMonthSummary(currentMonth);
+        today = LocalDate.now();
+        for (int cell = 0; cell < DAY_CELLS; cell++) {
+            renderDayCell(cell);
         }
+    }
 
-        LocalDate firstDayOfMonth = currentMonth.atDay(1);
-        int firstDayOfWeekValue = firstDayOfMonth.getDayOfWeek().getValue();
-        int offset = firstDayOfWeekValue;
+    /**
+     * Obtém a data exibida em uma célula do calendário.
+     * @param cell O índice da célula.
+     * @return A data, ou null se a célula estiver fora do mês atual.
+     */
+    private LocalDate dateOfCell(int cell) {
+        int firstDayOfWeekValue = currentMonth.atDay(1).getDayOfWeek().getValue();
+        int offset = firstDayOfWeekValue == DayOfWeek.SUNDAY.getValue() ? 0 : firstDayOfWeekValue;
+        int day = cell - offset + 1;
+        return day >= 1 && day <= currentMonth.lengthOfMonth() ? currentMonth.atDay(day) : null;
+    }
 
-        if (firstDayOfWeekValue == DayOfWeek.SUNDAY.getValue()) {
-            offset = 0;
-        } else {
-            offset = firstDayOfWeekValue;
+    /**
+     * Obtém a célula do calendário que exibe uma data.
+     * @param date A data.
+     * @return O índice da célula, ou -1 se a data não estiver no mês atual.
+     */
+    private int cellOfDate(LocalDate date) {
+        if (date == null || !YearMonth.from(date).equals(currentMonth)) {
+            return -1;
         }
+        int firstDayOfWeekValue = currentMonth.atDay(1).getDayOfWeek().getValue();
+        int offset = firstDayOfWeekValue == DayOfWeek.SUNDAY.getValue() ? 0 : firstDayOfWeekValue;
+        return offset + date.getDayOfMonth() - 1;
+    }
 
-        for (int i = 0; i < offset; i++) {
-            calendarGridPanel.add(new JLabel(""));
+    /**
+     * Atualiza o texto, as cores, a borda e a dica de uma célula do calendário.
+     * @param cell O índice da célula.
+     */
+    private void renderDayCell(int cell) {
+        JButton dayButton = dayButtons[cell];
+        LocalDate date = dateOfCell(cell);
+        if (date == null) {
+            dayButton.setVisible(false);
+            return;
         }
-
-        for (int day = 1; day <= currentMonth.lengthOfMonth(); day++) {
-            LocalDate date = currentMonth.atDay(day);
-            JButton dayButton = new JButton(String.valueOf(day));
-            dayButton.setFont(new Font("SansSerif", Font.BOLD, 18));
-            dayButton.setFocusPainted(false);
+        boolean hasConfirmedReservations = monthSummary.getConfirmedCount(date) > 0;
+        dayButton.setText(String.valueOf(date.getDayOfMonth()));
+        if (date.equals(selectedDate)) {
+            dayButton.setBackground(SELECTED_DAY_COLOR);
+            dayButton.setBorder(hasConfirmedReservations ? SELECTED_DAY_RESERVED_BORDER : SELECTED_DAY_BORDER);
+        } else if (date.equals(today)) {
+            dayButton.setBackground(TODAY_COLOR);
+            dayButton.setBorder(hasConfirmedReservations ? TODAY_RESERVED_BORDER : TODAY_BORDER);
+        } else {
             dayButton.setBackground(Color.WHITE);
-            dayButton.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-            if (date.equals(selectedDate)) {
-                dayButton.setBackground(SELECTED_DAY_COLOR);
-                dayButton.setBorder(new LineBorder(Color.DARK_GRAY, 2));
-            } else if (date.equals(LocalDate.now())) {
-                dayButton.setBackground(TODAY_COLOR);
-                dayButton.setBorder(new LineBorder(Color.ORANGE, 2));
-            } else {
-                dayButton.setBackground(Color.WHITE);
-                dayButton.setBorder(new LineBorder(Color.LIGHT_GRAY, 1));
-            }
-
-            boolean hasConfirmedReservations = manager.getAllReservations().stream()
-                .filter(r -> r.getStatus().equals(ReservationStatus.CONFIRMED))
-                .anyMatch(r -> r.getDate().equals(date));
-
-            if (hasConfirmedReservations) {
-                dayButton.setBorder(BorderFactory.createCompoundBorder(
-                    new LineBorder(RESERVATION_DAY_BORDER_COLOR, 2),
-                    dayButton.getBorder()
-                ));
-
-                String tooltipText = manager.getAllReservations().stream()
-                    .filter(r -> r.getStatus().equals(ReservationStatus.CONFIRMED) && r.getDate().equals(date))
-                    .map(r -> r.getClassroom().getName())
-                    .distinct()
-                    .collect(Collectors.joining(", "));
-                dayButton.setToolTipText("Reservas em: " + tooltipText);
-            }
+            dayButton.setBorder(hasConfirmedReservations ? DAY_RESERVED_BORDER : DAY_BORDER);
+        }
+        dayButton.setToolTipText(hasConfirmedReservations
+                ? "Reservas em: " + String.join(", ", monthSummary.getClassroomNames(date))
+                : null);
+        dayButton.setVisible(true);
+    }
 
-            final LocalDate clickedDate = date;
-            dayButton.addActionListener(e -> {
-                selectedDate = clickedDate;
-                updateCalendar();
-                displayReservationsForSelectedDay();
-            });
-            calendarGridPanel.add(dayButton);
+    /**
+     * Seleciona o dia de uma célula, redesenhando apenas as células da seleção anterior e da nova.
+     * @param cell O índice da célula clicada.
+     */
+    private void selectDayCell(int cell) {
+        LocalDate date = dateOfCell(cell);
+        if (date == null) {
+            return;
         }
+        int previousCell = cellOfDate(selectedDate);
+        selectedDate = date;
+        if (previousCell != -1) {
+            renderDayCell(previousCell);
+        }
+        renderDayCell(cell);
+        displayReservationsForSelectedDay();
+    }
 
-        calendarGridPanel.revalidate();
-        calendarGridPanel.repaint();
+    /**
+     * Aplica ao calendário uma alteração nas reservas confirmadas, redesenhando apenas a
+     * célula do dia afetado e, se for o dia selecionado, a tabela do dia.
+     * @param event O evento do gerenciador.
+     */
+    private void applyEvent(ReservationEvent event) {
+        if (!event.affectsConfirmed()) {
+            return;
+        }
+        LocalDate date = event.getReservation().getDate();
+        int cell = cellOfDate(date);
+        if (cell == -1) {
+            return;
+        }
+        monthSummary = manager.getMonthSummary(currentMonth);
+        renderDayCell(cell);
+        if (date.equals(selectedDate)) {
+            displayReservationsForSelectedDay();
+        }
     }
 
     /**
@@ -239,11 +307,7 @@ public class CalendarPanel extends JPanel {
             return;
         }
 
-        List<Reservation> reservations = manager.getAllReservations().stream()
-            .filter(r -> r.getDate().equals(selectedDate))
-            .filter(r -> r.getStatus().equals(ReservationStatus.CONFIRMED))
-            .sorted(Comparator.comparing(Reservation::getStartTime))
-            .collect(Collectors.toList());
+        List<Reservation> reservations = manager.getConfirmedReservationsByDate(selectedDate);
 
         for (Reservation res : reservations) {
             reservationsForDayTableModel.addRow(new Object[]{
@@ -209,8 +209,7 @@ public class ForgotPasswordDialog extends JDialog {
             return;
         }
 
-        foundUser.setPassword(newPassword); 
-        manager.saveData();
+        manager.updateUserPassword(foundUser, newPassword);
 
         JOptionPane.showMessageDialog(this, "Senha redefinida com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
         dispose();
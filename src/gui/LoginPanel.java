@@ -132,15 +132,20 @@ public class LoginPanel extends JPanel {
      * Realiza a tentativa de login.
      */
     private void performLogin() {
+        long start = System.nanoTime();
         String username = usernameField.getText();
         String password = new String(passwordField.getPassword());
 
         User user = manager.getUserByUsername(username);
 
         if (user != null && user.authenticate(password)) {
+            long authenticated = System.nanoTime();
             if (loginListener != null) {
                 loginListener.onLoginSuccess(user);
             }
+            System.out.println("Login de " + user.getUsername() + ": autenticação em "
+                    + (authenticated - start) / 1_000_000 + " ms, total até a tela principal em "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms.");
         } else {
             JOptionPane.showMessageDialog(this,
                     "Usuário ou senha inválidos.",
@@ -1,15 +1,13 @@
 package gui;
 
 import manager.ReservationManager;
-import model.Administrator;
-import model.Classroom;
-import model.Student;
 import model.User;
 
 import javax.swing.*;
-import exception.UserConflictException;
 import java.awt.*;
 import java.net.URL;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 /**
  * O frame principal da aplicação.
@@ -19,13 +17,16 @@ public class MainFrame extends JFrame implements LoginListener {
     private JPanel mainPanel;
     private JTabbedPane tabbedPane;
 
+    private static final String TAB_FACTORY_PROPERTY = "tabFactory";
+
     /**
      * Construtor do MainFrame.
      */
     public MainFrame() {
         this.manager = new ReservationManager();
+        Runtime.getRuntime().addShutdownHook(new Thread(manager::shutdown, "persistence-shutdown"));
 
-        initializeDefaultData();
+        manager.initializeDefaultData();
 
         setTitle("Sistema de Gerenciamento de Salas");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -39,28 +40,6 @@ public class MainFrame extends JFrame implements LoginListener {
         showLoginPanel();
     }
 
-    /**
-     * Inicializa os dados padrão.
-     */
-    private void initializeDefaultData() {
-        try {
-            if (manager.getAllClassrooms().isEmpty()) {
-                manager.addClassroom(new Classroom("Sala A101", 30, "Prédio A", true));
-                manager.addClassroom(new Classroom("Laboratório B205", 20, "Prédio B", true));
-                manager.addClassroom(new Classroom("Auditório Principal", 100, "Prédio C", true));
-                manager.addClassroom(new Classroom("Sala de Reuniões D301", 8, "Prédio D", false));
-            }
-
-            if (manager.getAllUsers().isEmpty()) {
-                manager.addUser(new Administrator("admin", "admin123", "Administrador Principal", "admin@unicamp.br"));
-                manager.addUser(new Student("aluno1", "aluno123", "João Silva", "joao.silva@unicamp.br", "RA123456"));
-                manager.addUser(new Student("aluno2", "aluno123", "Maria Oliveira", "maria.oliveria@unicamp.br", "RA654321"));
-            }
-        } catch (UserConflictException e) {
-            System.err.println("Erro ao adicionar usuários padrão: " + e.getMessage());
-        }
-    }
-
     /**
      * Define o ícone da aplicação.
      */
@@ -106,6 +85,7 @@ public class MainFrame extends JFrame implements LoginListener {
      * @param loggedInUser O usuário que fez login.
      */
     private void showMainApplicationPanel(User loggedInUser) {
+        long start = System.nanoTime();
         setTitle("Sistema de Gerenciamento de Salas");
         mainPanel.removeAll();
         JPanel appContentPanel = createAppPanel(loggedInUser);
@@ -118,10 +98,11 @@ public class MainFrame extends JFrame implements LoginListener {
         setLocationRelativeTo(null);
         revalidate();
         repaint();
+        System.out.println("Tela principal montada em " + (System.nanoTime() - start) / 1_000_000 + " ms.");
     }
 
     /**
-     * Cria o painel da aplicação.
+     * Cria o painel da aplicação. Cada aba é criada na primeira vez em que é selecionada.
      * @param loggedInUser O usuário que fez login.
      * @return O painel da aplicação.
      */
@@ -143,21 +124,16 @@ public class MainFrame extends JFrame implements LoginListener {
 
         this.tabbedPane = new JTabbedPane();
 
-        ClassroomPanel classroomPanel = new ClassroomPanel(manager);
-        ReservationPanel reservationPanel = new ReservationPanel(manager, loggedInUser, this::refreshAllPanels);
-        CalendarPanel calendarPanel = new CalendarPanel(manager);
-
-        tabbedPane.addTab("Salas de Aula", classroomPanel);
-        tabbedPane.addTab("Minhas Reservas", reservationPanel);
-        tabbedPane.addTab("Calendário", calendarPanel);
+        addLazyTab("Salas de Aula", () -> new ClassroomPanel(manager));
+        addLazyTab("Minhas Reservas", () -> new ReservationPanel(manager, loggedInUser));
+        addLazyTab("Calendário", () -> new CalendarPanel(manager));
 
         if (loggedInUser.getRole().equals("Administrator")) {
-            AdminClassroomPanel adminClassroomPanel = new AdminClassroomPanel(this, manager, this::refreshAllPanels);
-            AdminReservationPanel adminReservationPanel = new AdminReservationPanel(manager, this::refreshAllPanels);
-            
-            tabbedPane.addTab("Admin: Salas", adminClassroomPanel);
-            tabbedPane.addTab("Admin: Reservas", adminReservationPanel);
+            addLazyTab("Admin: Salas", () -> new AdminClassroomPanel(this, manager));
+            addLazyTab("Admin: Reservas", () -> new AdminReservationPanel(manager));
         }
+        createTab(tabbedPane.getSelectedIndex());
+        tabbedPane.addChangeListener(e -> createTab(tabbedPane.getSelectedIndex()));
 
         panel.add(tabbedPane, BorderLayout.CENTER);
 
@@ -165,59 +141,53 @@ public class MainFrame extends JFrame implements LoginListener {
     }
 
     /**
-     * Realiza o logout do usuário.
+     * Adiciona uma aba cujo painel só é criado quando a aba é selecionada pela primeira vez.
+     * @param title O título da aba.
+     * @param factory Cria o painel da aba.
      */
-    private void performLogout() {
-        int confirm = JOptionPane.showConfirmDialog(this,
-                "Tem certeza que deseja fazer logout?", "Confirmar Logout",
-                JOptionPane.YES_NO_OPTION);
-        if (confirm == JOptionPane.YES_OPTION) {
-            manager.saveData();
-            showLoginPanel();
-        }
+    private void addLazyTab(String title, Supplier<JComponent> factory) {
+        JPanel placeholder = new JPanel();
+        placeholder.putClientProperty(TAB_FACTORY_PROPERTY, factory);
+        tabbedPane.addTab(title, placeholder);
     }
 
     /**
-     * Atualiza todos os painéis.
+     * Cria o painel de uma aba, se ainda não foi criado.
+     * @param index O índice da aba.
      */
-    private void refreshAllPanels() {
-        if (this.tabbedPane == null) return;
-
-        for (Component comp : tabbedPane.getComponents()) {
-            if (comp instanceof ClassroomPanel) ((ClassroomPanel) comp).refreshClassroomList();
-            if (comp instanceof ReservationPanel) ((ReservationPanel) comp).refreshReservationList();
-            if (comp instanceof CalendarPanel) ((CalendarPanel) comp).refreshCalendarAndReservations();
-            if (comp instanceof AdminReservationPanel) ((AdminReservationPanel) comp).refreshReservationsList();
-            if (comp instanceof AdminClassroomPanel) ((AdminClassroomPanel) comp).refreshClassroomList();
+    private void createTab(int index) {
+        if (index < 0 || !(tabbedPane.getComponentAt(index) instanceof JComponent)) {
+            return;
         }
-        System.out.println("Painéis atualizados via callback.");
+        JComponent placeholder = (JComponent) tabbedPane.getComponentAt(index);
+        Object factory = placeholder.getClientProperty(TAB_FACTORY_PROPERTY);
+        if (factory == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        @SuppressWarnings("unchecked")
+        JComponent tab = ((Supplier<JComponent>) factory).get();
+        tabbedPane.setComponentAt(index, tab);
+        System.out.println("Aba " + tabbedPane.getTitleAt(index) + " criada em "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
     }
 
     /**
-     * Painel de administração de salas de aula.
+     * Realiza o logout do usuário.
      */
-    public class AdminClassroomPanel extends gui.AdminClassroomPanel {
-        private Runnable refreshCallback;
-
-        /**
-         * Construtor do painel de administração de salas de aula.
-         * @param mainFrame O frame principal.
-         * @param manager O gerenciador de reservas.
-         * @param refreshCallback O callback de atualização.
-         */
-        public AdminClassroomPanel(Frame mainFrame, ReservationManager manager, Runnable refreshCallback) {
-            super(mainFrame, manager);
-            this.refreshCallback = refreshCallback;
-        }
-
-        /**
-         * Chamado quando os dados são alterados.
-         */
-        @Override
-        protected void onDataChanged() {
-            if (refreshCallback != null) {
-                refreshCallback.run();
+    private void performLogout() {
+        int confirm = JOptionPane.showConfirmDialog(this,
+                "Tem certeza que deseja fazer logout?", "Confirmar Logout",
+                JOptionPane.YES_NO_OPTION);
+        if (confirm == JOptionPane.YES_OPTION) {
+            try {
+                manager.flush().join();
+            } catch (CompletionException e) {
+                System.err.println("Erro ao gravar alterações: " + e.getCause().getMessage());
+                JOptionPane.showMessageDialog(this, "Não foi possível gravar as últimas alterações: "
+                        + e.getCause().getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
             }
+            showLoginPanel();
         }
     }
-}
\ No newline at end of file
+}
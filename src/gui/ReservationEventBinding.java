@@ -0,0 +1,98 @@
+package gui;
+
+import manager.ReservationEvent;
+import manager.ReservationListener;
+import manager.ReservationManager;
+
+import javax.swing.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.HierarchyEvent;
+import java.util.function.Consumer;
+
+/**
+ * Liga um painel aos eventos do {@link ReservationManager}. O painel recebe os eventos
+ * enquanto estiver em uma janela, e cada evento é aplicado na thread de eventos do Swing.
+ * Enquanto o painel estiver oculto (uma aba não selecionada), os eventos não são
+ * aplicados: o painel é marcado como desatualizado e recarregado por inteiro quando
+ * voltar a ser exibido.
+ */
+public class ReservationEventBinding implements ReservationListener {
+    private final JComponent panel;
+    private final Consumer<ReservationEvent> applyEvent;
+    private final Runnable refresh;
+    private boolean stale;
+
+    /**
+     * Construtor da ligação.
+     * @param panel O painel.
+     * @param applyEvent Aplica um evento ao painel.
+     * @param refresh Recarrega o painel por inteiro.
+     */
+    private ReservationEventBinding(JComponent panel, Consumer<ReservationEvent> applyEvent, Runnable refresh) {
+        this.panel = panel;
+        this.applyEvent = applyEvent;
+        this.refresh = refresh;
+    }
+
+    /**
+     * Liga um painel aos eventos de um gerenciador.
+     * @param panel O painel.
+     * @param manager O gerenciador.
+     * @param applyEvent Aplica um evento ao painel.
+     * @param refresh Recarrega o painel por inteiro.
+     */
+    public static void bind(JComponent panel, ReservationManager manager, Consumer<ReservationEvent> applyEvent,
+            Runnable refresh) {
+        ReservationEventBinding binding = new ReservationEventBinding(panel, applyEvent, refresh);
+        panel.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0) {
+                if (panel.isDisplayable()) {
+                    manager.addReservationListener(binding);
+                } else {
+                    manager.removeReservationListener(binding);
+                }
+            }
+        });
+        panel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                binding.refreshIfStale();
+            }
+        });
+    }
+
+    /**
+     * Repassa um evento à thread de eventos do Swing.
+     * @param event O evento.
+     */
+    @Override
+    public void reservationChanged(ReservationEvent event) {
+        SwingUtilities.invokeLater(() -> apply(event));
+    }
+
+    /**
+     * Aplica um evento, ou marca o painel como desatualizado se ele estiver oculto.
+     * @param event O evento.
+     */
+    private void apply(ReservationEvent event) {
+        if (stale) {
+            return;
+        }
+        if (panel.isVisible()) {
+            applyEvent.accept(event);
+        } else {
+            stale = true;
+        }
+    }
+
+    /**
+     * Recarrega o painel se ele tiver perdido eventos enquanto estava oculto.
+     */
+    private void refreshIfStale() {
+        if (stale) {
+            stale = false;
+            refresh.run();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package gui;
 
+import manager.ReservationEvent;
 import manager.ReservationManager;
 import model.Classroom;
 import model.Reservation;
@@ -27,21 +28,19 @@ public class ReservationPanel extends JPanel {
     private DefaultTableModel reservationTableModel;
     private JButton newReservationButton;
     private JButton cancelReservationButton;
-    private Runnable onReservationMadeCallback;
 
     /**
-     * Construtor para o painel de reservas.
+     * Construtor para o painel de reservas. O painel se atualiza pelos eventos do gerenciador.
      * @param manager O gerenciador de reservas.
      * @param loggedInUser O usuário logado.
-     * @param onReservationMadeCallback O callback a ser executado quando uma reserva for feita.
      */
-    public ReservationPanel(ReservationManager manager, User loggedInUser, Runnable onReservationMadeCallback) {
+    public ReservationPanel(ReservationManager manager, User loggedInUser) {
         this.manager = manager;
         this.loggedInUser = loggedInUser;
-        this.onReservationMadeCallback = onReservationMadeCallback;
         setLayout(new BorderLayout());
         initComponents();
         refreshReservationList();
+        ReservationEventBinding.bind(this, manager, this::applyEvent, this::refreshReservationList);
     }
 
     /**
@@ -88,19 +87,69 @@ public class ReservationPanel extends JPanel {
         reservationTableModel.setRowCount(0);
         List<Reservation> reservations = manager.getReservationsByUser(loggedInUser);
         for (Reservation reservation : reservations) {
-            reservationTableModel.addRow(new Object[] {
-                    reservation.getId(),
-                    reservation.getClassroom().getName(),
-                    reservation.getDate().toString(),
-                    reservation.getStartTime().toString(),
-                    reservation.getEndTime().toString(),
-                    reservation.getPurpose(),
-                    reservation.getStatus().getName(),
-                    reservation.getObservation()
-            });
+            reservationTableModel.addRow(toRow(reservation));
         }
     }
 
+    /**
+     * Monta a linha da tabela de uma reserva.
+     * @param reservation A reserva.
+     * @return Os valores das colunas.
+     */
+    private Object[] toRow(Reservation reservation) {
+        return new Object[] {
+                reservation.getId(),
+                reservation.getClassroom().getName(),
+                reservation.getDate().toString(),
+                reservation.getStartTime().toString(),
+                reservation.getEndTime().toString(),
+                reservation.getPurpose(),
+                reservation.getStatus().getName(),
+                reservation.getObservation()
+        };
+    }
+
+    /**
+     * Aplica à tabela uma alteração nas reservas do usuário logado.
+     * @param event O evento do gerenciador.
+     */
+    private void applyEvent(ReservationEvent event) {
+        Reservation reservation = event.getReservation();
+        if (reservation == null || !reservation.getReservedBy().equals(loggedInUser)) {
+            return;
+        }
+        int row = findRow(reservation.getId());
+        if (event.getType() == ReservationEvent.Type.RESERVATION_ADDED) {
+            if (row == -1) {
+                reservationTableModel.addRow(toRow(reservation));
+            }
+            return;
+        }
+        if (row == -1) {
+            return;
+        }
+        if (event.getType() == ReservationEvent.Type.RESERVATION_DELETED) {
+            reservationTableModel.removeRow(row);
+        } else {
+            reservationTableModel.setValueAt(reservation.getStatus().getName(), row, 6);
+            reservationTableModel.setValueAt(reservation.getObservation(), row, 7);
+        }
+    }
+
+    /**
+     * Procura a linha de uma reserva na tabela.
+     * @param reservationId O ID da reserva.
+     * @return O índice da linha, ou -1 se a reserva não estiver na tabela.
+     */
+    private int findRow(int reservationId) {
+        for (int row = 0; row < reservationTableModel.getRowCount(); row++) {
+            if ((int) reservationTableModel.getValueAt(row, 0) == reservationId) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Abre o diálogo para uma nova reserva.
      */
@@ -123,7 +172,9 @@ public class ReservationPanel extends JPanel {
         JTextField purposeField = new JTextField();
 
         JComboBox<String> classroomComboBox = new JComboBox<>();
-        manager.getAllClassrooms().forEach(classroom -> classroomComboBox.addItem(classroom.getName()));
+        // Os itens e a sala escolhida vêm da mesma versão da lista, mesmo que outra sala seja adicionada no meio.
+        List<Classroom> classrooms = manager.getAllClassrooms();
+        classrooms.forEach(classroom -> classroomComboBox.addItem(classroom.getName()));
         
         if (classroomComboBox.getItemCount() <= 0) {
             JOptionPane.showMessageDialog(this, "Não há salas cadastradas para reservar.", "Erro", JOptionPane.WARNING_MESSAGE);
@@ -151,8 +202,7 @@ public class ReservationPanel extends JPanel {
         getRootPane().setDefaultButton(confirmButton);
         confirmButton.addActionListener(e -> {
             try {
-                Classroom selectedClassroom = (Classroom) manager.getAllClassrooms()
-                        .get(classroomComboBox.getSelectedIndex());
+                Classroom selectedClassroom = classrooms.get(classroomComboBox.getSelectedIndex());
                 LocalDate date = LocalDate.parse(dateField.getText());
                 LocalTime startTime = LocalTime.parse(startTimeField.getText());
                 LocalTime endTime = LocalTime.parse(endTimeField.getText());
@@ -165,10 +215,6 @@ public class ReservationPanel extends JPanel {
                 manager.makeReservation(selectedClassroom, loggedInUser, date, startTime, endTime, purpose);
                 JOptionPane.showMessageDialog(dialog, "Reserva realizada com sucesso!", "Sucesso",
                         JOptionPane.INFORMATION_MESSAGE);
-                refreshReservationList();
-                if (onReservationMadeCallback != null) {
-                    onReservationMadeCallback.run();
-                }
                 dialog.dispose();
 
             } catch (DateTimeParseException ex) {
@@ -210,19 +256,11 @@ public class ReservationPanel extends JPanel {
                 "Confirmar Cancelamento", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
             int reservationId = (int) reservationTableModel.getValueAt(selectedRow, 0);
-            Reservation reservationToCancel = manager.getAllReservations().stream()
-                    .filter(r -> r.getId() == reservationId)
-                    .findFirst()
-                    .orElse(null);
+            Reservation reservationToCancel = manager.getReservationById(reservationId);
             if (reservationToCancel != null) {
                 manager.cancelReservation(reservationToCancel, "");
                 JOptionPane.showMessageDialog(this, "Reserva cancelada com sucesso!", "Sucesso",
                         JOptionPane.INFORMATION_MESSAGE);
-                refreshReservationList();
-                if (onReservationMadeCallback != null) {
-                    onReservationMadeCallback.run();
-                }
-           
             } else {
                 JOptionPane.showMessageDialog(this, "Erro ao encontrar a reserva para cancelar.", "Erro",
                         JOptionPane.ERROR_MESSAGE);
@@ -0,0 +1,161 @@
+package gui;
+
+import manager.ReservationIndex;
+import model.Reservation;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Modelo da tabela de reservas da administração. Lê as células diretamente das reservas,
+ * só quando a tabela as exibe, a partir de uma lista na ordem
+ * {@link ReservationIndex#NEWEST_FIRST}; a troca da lista gera um único evento, e as
+ * alterações de uma reserva atualizam apenas a sua linha.
+ */
+public class ReservationTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"ID", "Sala", "Usuário", "Data", "Início", "Término", "Propósito", "Status", "Observações"};
+    private static final Class<?>[] COLUMN_CLASSES = {Integer.class, String.class, String.class, LocalDate.class,
+            LocalTime.class, LocalTime.class, String.class, String.class, String.class};
+
+    private List<Reservation> reservations = new ArrayList<>();
+
+    /**
+     * Substitui as reservas exibidas.
+     * @param reservations As reservas, na ordem {@link ReservationIndex#NEWEST_FIRST}; a lista
+     *                     passa a ser do modelo, que a altera a cada evento.
+     */
+    public void setReservations(List<Reservation> reservations) {
+        this.reservations = reservations;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Insere uma reserva na sua posição na ordem da lista.
+     * @param reservation A reserva.
+     */
+    public void reservationAdded(Reservation reservation) {
+        int row = Collections.binarySearch(reservations, reservation, ReservationIndex.NEWEST_FIRST);
+        if (row < 0) {
+            row = -row - 1;
+            reservations.add(row, reservation);
+            fireTableRowsInserted(row, row);
+        }
+    }
+
+    /**
+     * Redesenha a linha de uma reserva alterada.
+     * @param reservation A reserva.
+     */
+    public void reservationChanged(Reservation reservation) {
+        int row = indexOf(reservation);
+        if (row != -1) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    /**
+     * Remove a linha de uma reserva.
+     * @param reservation A reserva.
+     */
+    public void reservationRemoved(Reservation reservation) {
+        int row = indexOf(reservation);
+        if (row != -1) {
+            reservations.remove(row);
+            fireTableRowsDeleted(row, row);
+        }
+    }
+
+    /**
+     * Obtém a reserva de uma linha.
+     * @param row O índice da linha no modelo.
+     * @return A reserva.
+     */
+    public Reservation getReservationAt(int row) {
+        return reservations.get(row);
+    }
+
+    /**
+     * Procura a linha de uma reserva por busca binária na ordem da lista.
+     * @param reservation A reserva.
+     * @return O índice da linha no modelo, ou -1 se a reserva não estiver na lista.
+     */
+    public int indexOf(Reservation reservation) {
+        int row = Collections.binarySearch(reservations, reservation, ReservationIndex.NEWEST_FIRST);
+        return row >= 0 && reservations.get(row).equals(reservation) ? row : -1;
+    }
+
+    /**
+     * Obtém o número de linhas.
+     * @return O número de reservas.
+     */
+    @Override
+    public int getRowCount() {
+        return reservations.size();
+    }
+
+    /**
+     * Obtém o número de colunas.
+     * @return O número de colunas.
+     */
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    /**
+     * Obtém o nome de uma coluna.
+     * @param column O índice da coluna.
+     * @return O nome.
+     */
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    /**
+     * Obtém a classe dos valores de uma coluna, usada na ordenação pelo cabeçalho.
+     * @param column O índice da coluna.
+     * @return A classe.
+     */
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_CLASSES[column];
+    }
+
+    /**
+     * Obtém o valor de uma célula.
+     * @param row O índice da linha.
+     * @param column O índice da coluna.
+     * @return O valor.
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        Reservation reservation = reservations.get(row);
+        switch (column) {
+            case 0:
+                return reservation.getId();
+            case 1:
+                return reservation.getClassroom().getName();
+            case 2:
+                return reservation.getReservedBy().getUsername();
+            case 3:
+                return reservation.getDate();
+            case 4:
+                return reservation.getStartTime();
+            case 5:
+                return reservation.getEndTime();
+            case 6:
+                return reservation.getPurpose();
+            case 7:
+                return reservation.getStatus().getName();
+            case 8:
+                return reservation.getObservation();
+            default:
+                return null;
+        }
+    }
+}
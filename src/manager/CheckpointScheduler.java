@@ -0,0 +1,81 @@
+package manager;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executa checkpoints do repositório com diário em uma thread de segundo plano,
+ * periodicamente ou quando o diário ultrapassa os limites configurados.
+ */
+public class CheckpointScheduler {
+    private final JournaledReservationRepository repository;
+    private final PersistenceConfig config;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+
+    /**
+     * Construtor do agendador.
+     * @param repository O repositório com diário.
+     * @param config A configuração de persistência.
+     */
+    public CheckpointScheduler(JournaledReservationRepository repository, PersistenceConfig config) {
+        this.repository = repository;
+        this.config = config;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Inicia os checkpoints periódicos, se o intervalo configurado for positivo.
+     */
+    public void start() {
+        long interval = config.getCheckpointIntervalSeconds();
+        if (interval > 0) {
+            executor.scheduleWithFixedDelay(this::runCheckpoint, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Verifica os limites do diário e, se ultrapassados, agenda um checkpoint imediato.
+     * @param journalBytes O tamanho atual do diário em bytes.
+     * @param journalRecords O número de mutações no diário.
+     */
+    public void checkThresholds(long journalBytes, int journalRecords) {
+        if (journalBytes >= config.getMaxJournalBytes() || journalRecords >= config.getMaxJournalRecords()) {
+            requestCheckpoint();
+        }
+    }
+
+    /**
+     * Agenda um checkpoint imediato, caso ainda não haja um pendente.
+     */
+    public void requestCheckpoint() {
+        if (pending.compareAndSet(false, true)) {
+            executor.execute(this::runCheckpoint);
+        }
+    }
+
+    /**
+     * Encerra a thread de checkpoints.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Executa um checkpoint, se houver alterações desde o último.
+     */
+    private void runCheckpoint() {
+        pending.set(false);
+        try {
+            repository.checkpoint(false);
+        } catch (Exception e) {
+            System.err.println("Erro no checkpoint em segundo plano: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package manager;
+
+import model.Classroom;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Catálogo das salas de aula para buscas por atributos. Cada sala recebe uma posição,
+ * na ordem em que foi adicionada, e cada atributo tem um bitset das posições das salas
+ * que o possuem: capacidade (em um {@link NavigableMap}, para buscas por capacidade
+ * mínima), projetor, localização e cada característica. Uma busca intersecta os bitsets
+ * e devolve as salas na ordem do catálogo.
+ *
+ * Localizações e características são comparadas sem diferenciar maiúsculas de
+ * minúsculas. Os atributos são lidos quando a sala é adicionada; o catálogo não é
+ * sincronizado: as salas são adicionadas com acesso exclusivo ao
+ * {@link ReservationManager}, e as buscas, que apenas leem, com acesso compartilhado.
+ */
+public class ClassroomCatalog {
+    private final List<Classroom> classrooms = new ArrayList<>();
+    private final NavigableMap<Integer, BitSet> byCapacity = new TreeMap<>();
+    private final BitSet withProjector = new BitSet();
+    private final Map<String, BitSet> byLocation = new HashMap<>();
+    private final Map<String, BitSet> byFeature = new HashMap<>();
+
+    /**
+     * Construtor do catálogo.
+     * @param classrooms As salas iniciais.
+     */
+    public ClassroomCatalog(Collection<Classroom> classrooms) {
+        for (Classroom classroom : classrooms) {
+            add(classroom);
+        }
+    }
+
+    /**
+     * Adiciona uma sala ao catálogo.
+     * @param classroom A sala.
+     */
+    public void add(Classroom classroom) {
+        int position = classrooms.size();
+        classrooms.add(classroom);
+        byCapacity.computeIfAbsent(classroom.getCapacity(), capacity -> new BitSet()).set(position);
+        if (classroom.hasProjector()) {
+            withProjector.set(position);
+        }
+        if (classroom.getLocation() != null) {
+            byLocation.computeIfAbsent(ReservationManager.foldCase(classroom.getLocation().trim()),
+                    location -> new BitSet()).set(position);
+        }
+        for (String feature : classroom.getFeatures()) {
+            byFeature.computeIfAbsent(ReservationManager.foldCase(feature.trim()), key -> new BitSet()).set(position);
+        }
+    }
+
+    /**
+     * Busca as salas com todos os atributos pedidos.
+     * @param minCapacity A capacidade mínima.
+     * @param needsProjector Se a sala precisa ter projetor.
+     * @param location A localização, ou null para qualquer uma.
+     * @param features As características exigidas, ou null para nenhuma.
+     * @return As posições das salas encontradas.
+     */
+    public BitSet find(int minCapacity, boolean needsProjector, String location, Collection<String> features) {
+        BitSet result = new BitSet();
+        for (BitSet sameCapacity : byCapacity.tailMap(minCapacity, true).values()) {
+            result.or(sameCapacity);
+        }
+        if (needsProjector) {
+            result.and(withProjector);
+        }
+        if (location != null) {
+            result.and(bitsOf(byLocation, location));
+        }
+        if (features != null) {
+            for (String feature : features) {
+                result.and(bitsOf(byFeature, feature));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Obtém a sala em uma posição do catálogo.
+     * @param position A posição.
+     * @return A sala.
+     */
+    public Classroom get(int position) {
+        return classrooms.get(position);
+    }
+
+    /**
+     * Obtém o bitset de um valor de atributo.
+     * @param index O índice do atributo.
+     * @param value O valor.
+     * @return O bitset, vazio se nenhuma sala tiver o valor.
+     */
+    private static BitSet bitsOf(Map<String, BitSet> index, String value) {
+        BitSet bits = index.get(ReservationManager.foldCase(value.trim()));
+        return bits != null ? bits : new BitSet();
+    }
+}
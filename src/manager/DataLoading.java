@@ -0,0 +1,61 @@
+package manager;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Andamento do carregamento dos dados de um {@link ReservationRepository}.
+ * Cada future é concluído quando o conjunto de dados correspondente pode ser
+ * consultado; erros de leitura são registrados pelo repositório e não concluem
+ * os futures com exceção.
+ */
+public class DataLoading {
+    private final CompletableFuture<Void> classrooms;
+    private final CompletableFuture<Void> users;
+    private final CompletableFuture<Void> reservations;
+
+    /**
+     * Construtor do andamento.
+     * @param classrooms Concluído quando as salas estiverem carregadas.
+     * @param users Concluído quando os usuários estiverem carregados.
+     * @param reservations Concluído quando todos os dados, inclusive as reservas, estiverem carregados.
+     */
+    public DataLoading(CompletableFuture<Void> classrooms, CompletableFuture<Void> users,
+            CompletableFuture<Void> reservations) {
+        this.classrooms = classrooms;
+        this.users = users;
+        this.reservations = reservations;
+    }
+
+    /**
+     * Cria um andamento já concluído, para repositórios sem dados a carregar.
+     * @return O andamento.
+     */
+    public static DataLoading completed() {
+        CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+        return new DataLoading(done, done, done);
+    }
+
+    /**
+     * Obtém o future do carregamento das salas.
+     * @return O future.
+     */
+    public CompletableFuture<Void> getClassrooms() {
+        return classrooms;
+    }
+
+    /**
+     * Obtém o future do carregamento dos usuários.
+     * @return O future.
+     */
+    public CompletableFuture<Void> getUsers() {
+        return users;
+    }
+
+    /**
+     * Obtém o future do carregamento das reservas, concluído somente depois das salas e dos usuários.
+     * @return O future.
+     */
+    public CompletableFuture<Void> getReservations() {
+        return reservations;
+    }
+}
@@ -0,0 +1,266 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.User;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Repositório mantido apenas em memória, sem persistência. Usado em testes e
+ * medições, e como base para o {@link SerializedFileReservationRepository}. Os métodos
+ * são sincronizados, pois o gerenciador inclui reservas de salas diferentes em paralelo;
+ * as visões somente leitura devem ser percorridas sem alterações concorrentes.
+ */
+public class InMemoryReservationRepository implements ReservationRepository {
+    protected List<Classroom> classrooms = new ArrayList<>();
+    protected List<User> users = new ArrayList<>();
+    protected List<Reservation> reservations = new ArrayList<>();
+    private final NavigableMap<YearMonth, Integer> reservationCounts = new TreeMap<>();
+
+    /**
+     * Não há dados persistidos a carregar.
+     * @param executor O executor das leituras (não usado).
+     * @return Um andamento já concluído.
+     */
+    @Override
+    public DataLoading load(Executor executor) {
+        return DataLoading.completed();
+    }
+
+    /**
+     * Obtém as salas de aula.
+     * @return Uma visão somente leitura das salas.
+     */
+    @Override
+    public synchronized List<Classroom> getClassrooms() {
+        return Collections.unmodifiableList(classrooms);
+    }
+
+    /**
+     * Adiciona uma sala de aula.
+     * @param classroom A sala.
+     */
+    @Override
+    public synchronized void addClassroom(Classroom classroom) {
+        classrooms.add(classroom);
+    }
+
+    /**
+     * Remove uma sala de aula.
+     * @param classroom A sala.
+     */
+    @Override
+    public synchronized void removeClassroom(Classroom classroom) {
+        classrooms.remove(classroom);
+    }
+
+    /**
+     * Obtém os usuários.
+     * @return Uma visão somente leitura dos usuários.
+     */
+    @Override
+    public synchronized List<User> getUsers() {
+        return Collections.unmodifiableList(users);
+    }
+
+    /**
+     * Adiciona um usuário.
+     * @param user O usuário.
+     */
+    @Override
+    public synchronized void addUser(User user) {
+        users.add(user);
+    }
+
+    /**
+     * Altera a senha de um usuário.
+     * @param user O usuário.
+     * @param newPassword A nova senha.
+     */
+    @Override
+    public synchronized void updateUserPassword(User user, String newPassword) {
+        user.setPassword(newPassword);
+    }
+
+    /**
+     * Obtém todas as reservas.
+     * @return Uma visão somente leitura das reservas.
+     */
+    @Override
+    public synchronized List<Reservation> getReservations() {
+        return Collections.unmodifiableList(reservations);
+    }
+
+    /**
+     * Obtém as reservas de um mês.
+     * @param month O mês.
+     * @return Uma lista das reservas do mês.
+     */
+    @Override
+    public synchronized List<Reservation> getReservationsByMonth(YearMonth month) {
+        return reservations.stream()
+                .filter(r -> YearMonth.from(r.getDate()).equals(month))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Obtém as reservas de vários meses, percorrendo as reservas uma única vez.
+     * @param months Os meses.
+     * @return As reservas de cada mês; um mês sem reservas está ausente.
+     */
+    @Override
+    public synchronized Map<YearMonth, List<Reservation>> getReservationsByMonths(Collection<YearMonth> months) {
+        Set<YearMonth> selected = new HashSet<>(months);
+        Map<YearMonth, List<Reservation>> byMonth = new HashMap<>();
+        for (Reservation reservation : reservations) {
+            YearMonth month = YearMonth.from(reservation.getDate());
+            if (selected.contains(month)) {
+                byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(reservation);
+            }
+        }
+        return byMonth;
+    }
+
+    /**
+     * Obtém todos os meses com reservas: todas estão em memória, e as chaves dos meses
+     * não são calculadas.
+     * @param filter O filtro da consulta (não usado).
+     * @return Os meses, em ordem crescente.
+     */
+    @Override
+    public synchronized NavigableSet<YearMonth> findReservationMonths(Predicate<MonthKeys> filter) {
+        return new TreeSet<>(reservationCounts.keySet());
+    }
+
+    /**
+     * Adiciona uma reserva.
+     * @param reservation A reserva.
+     */
+    @Override
+    public synchronized void addReservation(Reservation reservation) {
+        reservations.add(reservation);
+        reservationCounts.merge(YearMonth.from(reservation.getDate()), 1, Integer::sum);
+    }
+
+    /**
+     * Substitui todas as reservas, como ao carregá-las de um arquivo.
+     * @param loadedReservations As reservas.
+     */
+    protected synchronized void setReservations(List<Reservation> loadedReservations) {
+        reservations = loadedReservations;
+        reservationCounts.clear();
+        for (Reservation reservation : reservations) {
+            reservationCounts.merge(YearMonth.from(reservation.getDate()), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * A reserva já foi alterada em memória; não há nada a persistir.
+     * @param reservation A reserva alterada.
+     */
+    @Override
+    public void updateReservation(Reservation reservation) {
+    }
+
+    /**
+     * Exclui uma reserva.
+     * @param reservation A reserva.
+     */
+    @Override
+    public synchronized void deleteReservation(Reservation reservation) {
+        if (reservations.remove(reservation)) {
+            // Um mês sem reservas deixa de ser listado.
+            reservationCounts.computeIfPresent(YearMonth.from(reservation.getDate()),
+                    (month, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Obtém o maior ID de reserva armazenado.
+     * @return O ID, ou 0 se não houver reservas.
+     */
+    @Override
+    public synchronized int getMaxReservationId() {
+        return reservations.stream()
+                .mapToInt(Reservation::getId)
+                .max()
+                .orElse(0);
+    }
+
+    /**
+     * Não há gravações pendentes.
+     * @return Um future já concluído.
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Não há gravações.
+     * @return Sempre 0.
+     */
+    @Override
+    public long getWriteSequence() {
+        return 0;
+    }
+
+    /**
+     * Não há gravações pendentes.
+     * @param sinceSequence O número de sequência (ignorado).
+     * @return Um future já concluído.
+     */
+    @Override
+    public CompletableFuture<Void> flush(long sinceSequence) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Não há dados a gravar.
+     */
+    @Override
+    public void save() {
+    }
+
+    /**
+     * Não há recursos a liberar.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Obtém o número de bytes gravados no último salvamento.
+     * @return Sempre 0.
+     */
+    @Override
+    public long getLastSaveBytes() {
+        return 0;
+    }
+
+    /**
+     * Obtém o número total de bytes gravados em salvamentos.
+     * @return Sempre 0.
+     */
+    @Override
+    public long getTotalSaveBytes() {
+        return 0;
+    }
+}
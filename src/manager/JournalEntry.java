@@ -0,0 +1,265 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.User;
+
+import java.time.LocalDate;
+
+/**
+ * Representa uma mutação registrada no diário (journal) de alterações.
+ */
+public class JournalEntry {
+
+    /**
+     * Tipos de mutação registrados no diário.
+     * O código de cada tipo é gravado em disco e não deve ser alterado.
+     */
+    public enum Type {
+        ADD_CLASSROOM(1),
+        REMOVE_CLASSROOM(2),
+        ADD_USER(3),
+        UPDATE_PASSWORD(4),
+        ADD_RESERVATION(5),
+        UPDATE_RESERVATION(6),
+        DELETE_RESERVATION(7);
+
+        private final int code;
+
+        /**
+         * Construtor do tipo.
+         * @param code O código gravado em disco.
+         */
+        Type(int code) {
+            this.code = code;
+        }
+
+        /**
+         * Obtém o código do tipo.
+         * @return O código.
+         */
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * Obtém o tipo a partir do código gravado em disco.
+         * @param code O código.
+         * @return O tipo correspondente, ou null se o código for desconhecido.
+         */
+        public static Type fromCode(int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Type type;
+    private long lsn;
+    private Classroom classroom;
+    private User user;
+    private Reservation reservation;
+    private String key;
+    private String password;
+    private int reservationId;
+    private LocalDate reservationDate;
+    private ReservationStatus status;
+    private String observation;
+
+    /**
+     * Construtor da entrada.
+     * @param type O tipo da mutação.
+     */
+    private JournalEntry(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Cria uma entrada de adição de sala.
+     * @param classroom A sala adicionada.
+     * @return A entrada.
+     */
+    public static JournalEntry addClassroom(Classroom classroom) {
+        JournalEntry entry = new JournalEntry(Type.ADD_CLASSROOM);
+        entry.classroom = classroom;
+        return entry;
+    }
+
+    /**
+     * Cria uma entrada de remoção de sala.
+     * @param name O nome da sala removida.
+     * @return A entrada.
+     */
+    public static JournalEntry removeClassroom(String name) {
+        JournalEntry entry = new JournalEntry(Type.REMOVE_CLASSROOM);
+        entry.key = name;
+        return entry;
+    }
+
+    /**
+     * Cria uma entrada de adição de usuário.
+     * @param user O usuário adicionado.
+     * @return A entrada.
+     */
+    public static JournalEntry addUser(User user) {
+        JournalEntry entry = new JournalEntry(Type.ADD_USER);
+        entry.user = user;
+        return entry;
+    }
+
+    /**
+     * Cria uma entrada de alteração de senha.
+     * @param username O nome de usuário.
+     * @param password A nova senha.
+     * @return A entrada.
+     */
+    public static JournalEntry updatePassword(String username, String password) {
+        JournalEntry entry = new JournalEntry(Type.UPDATE_PASSWORD);
+        entry.key = username;
+        entry.password = password;
+        return entry;
+    }
+
+    /**
+     * Cria uma entrada de nova reserva.
+     * @param reservation A reserva criada.
+     * @return A entrada.
+     */
+    public static JournalEntry addReservation(Reservation reservation) {
+        JournalEntry entry = new JournalEntry(Type.ADD_RESERVATION);
+        entry.reservation = reservation;
+        return entry;
+    }
+
+    /**
+     * Cria uma entrada de alteração de status/observação de uma reserva.
+     * @param reservationId O ID da reserva.
+     * @param reservationDate A data da reserva (null se desconhecida).
+     * @param status O novo status.
+     * @param observation A nova observação.
+     * @return A entrada.
+     */
+    public static JournalEntry updateReservation(int reservationId, LocalDate reservationDate,
+            ReservationStatus status, String observation) {
+        JournalEntry entry = new JournalEntry(Type.UPDATE_RESERVATION);
+        entry.reservationId = reservationId;
+        entry.reservationDate = reservationDate;
+        entry.status = status;
+        entry.observation = observation;
+        return entry;
+    }
+
+    /**
+     * Cria uma entrada de exclusão de reserva.
+     * @param reservationId O ID da reserva excluída.
+     * @param reservationDate A data da reserva (null se desconhecida).
+     * @return A entrada.
+     */
+    public static JournalEntry deleteReservation(int reservationId, LocalDate reservationDate) {
+        JournalEntry entry = new JournalEntry(Type.DELETE_RESERVATION);
+        entry.reservationId = reservationId;
+        entry.reservationDate = reservationDate;
+        return entry;
+    }
+
+    /**
+     * Obtém o tipo da mutação.
+     * @return O tipo.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Obtém o número de sequência (LSN) atribuído à mutação ao ser gravada.
+     * @return O número de sequência.
+     */
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * Define o número de sequência (LSN) da mutação.
+     * @param lsn O número de sequência.
+     */
+    void setLsn(long lsn) {
+        this.lsn = lsn;
+    }
+
+    /**
+     * Obtém a sala (ADD_CLASSROOM).
+     * @return A sala.
+     */
+    public Classroom getClassroom() {
+        return classroom;
+    }
+
+    /**
+     * Obtém o usuário (ADD_USER).
+     * @return O usuário.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Obtém a reserva (ADD_RESERVATION).
+     * @return A reserva.
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Obtém a chave (nome da sala ou nome de usuário).
+     * @return A chave.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Obtém a nova senha (UPDATE_PASSWORD).
+     * @return A senha.
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Obtém o ID da reserva (UPDATE_RESERVATION, DELETE_RESERVATION).
+     * @return O ID.
+     */
+    public int getReservationId() {
+        return reservationId;
+    }
+
+    /**
+     * Obtém a data da reserva (UPDATE_RESERVATION, DELETE_RESERVATION), usada para
+     * localizar a partição mensal da reserva.
+     * @return A data, ou null se desconhecida (registros gravados por versões anteriores).
+     */
+    public LocalDate getReservationDate() {
+        return reservationDate;
+    }
+
+    /**
+     * Obtém o novo status (UPDATE_RESERVATION).
+     * @return O status.
+     */
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Obtém a nova observação (UPDATE_RESERVATION).
+     * @return A observação.
+     */
+    public String getObservation() {
+        return observation;
+    }
+}
@@ -0,0 +1,981 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.ReservationState;
+import model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Repositório com diário e snapshots. Cada alteração é gravada no diário por um
+ * {@link PersistenceExecutor}, fora da thread que a solicitou, e um
+ * {@link CheckpointScheduler} grava periodicamente um snapshot com as coleções alteradas.
+ *
+ * As reservas são armazenadas em partições mensais. Na inicialização, apenas os meses
+ * a partir do mês atual (menos {@link PersistenceConfig#getEagerPastMonths()}) são
+ * carregados; os demais são carregados sob demanda, quando uma consulta os acessa.
+ * As consultas por ID, usuário, sala ou status consultam antes as chaves de cada mês não
+ * carregado ({@link MonthKeys}), de forma que apenas os meses que podem conter o
+ * resultado são carregados. Os meses gravados sem as chaves (formato anterior) são
+ * regravados com elas no próximo snapshot depois de carregados.
+ * Com {@code -Dsalas.storage=mapped}, as reservas são gravadas em um
+ * {@link MappedReservationStore} em vez das partições de cada snapshot.
+ */
+public class JournaledReservationRepository implements ReservationRepository {
+    private List<Classroom> classrooms = new ArrayList<>();
+    private List<Reservation> reservations = new ArrayList<>();
+    private List<User> users = new ArrayList<>();
+
+    private final String dataDir;
+    private final PersistenceConfig config;
+    private final SnapshotStore snapshotStore;
+    private final ReservationJournal journal;
+    private MappedReservationStore mappedStore;
+    private CheckpointScheduler checkpointScheduler;
+    private PersistenceExecutor persistenceExecutor;
+    private final Object checkpointLock = new Object();
+    private boolean closed;
+    private boolean classroomsDirty;
+    private boolean usersDirty;
+    private final Set<YearMonth> dirtyMonths = new HashSet<>();
+    private final NavigableSet<YearMonth> reservationMonths = new TreeSet<>();
+    private final Set<YearMonth> loadedMonths = new HashSet<>();
+    private boolean allMonthsLoaded;
+    private final Set<Integer> dirtyReservationIds = new HashSet<>();
+    private final Map<YearMonth, MonthKeys> unloadedMonthKeys = new HashMap<>();
+    private int maxReservationId;
+    private long snapshotLsn;
+    private long lastSaveBytes;
+    private long totalSaveBytes;
+    private volatile CompletableFuture<Void> loaded = CompletableFuture.completedFuture(null);
+
+    /**
+     * Construtor do repositório. As threads de persistência são iniciadas em {@link #load(Executor)}.
+     * @param config A configuração de persistência.
+     */
+    public JournaledReservationRepository(PersistenceConfig config) {
+        this.config = config;
+        this.dataDir = config.getDataDir();
+        this.snapshotStore = new SnapshotStore(dataDir);
+        this.journal = new ReservationJournal(dataDir + "/journal.log");
+        if ("mapped".equals(config.getStorage())) {
+            MappedReservationStore store = new MappedReservationStore(dataDir);
+            try {
+                store.open();
+                this.mappedStore = store;
+            } catch (Exception e) {
+                System.err.println("Erro ao abrir o armazenamento mapeado de reservas: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Inicia o carregamento do último snapshot completo e inicia as threads de persistência.
+     * O diário é lido imediatamente; as salas, os usuários e os meses de reservas do
+     * snapshot são lidos em paralelo pelo executor, e as mutações do diário são
+     * reaplicadas sobre cada conjunto de dados assim que ele é lido. Os meses de
+     * reservas são lidos depois dos usuários, aos quais as reservas se referem pelo nome.
+     * @param executor O executor das leituras.
+     * @return O andamento do carregamento.
+     */
+    @Override
+    public synchronized DataLoading load(Executor executor) {
+        DataLoading loading = DataLoading.completed();
+        try {
+            SnapshotStore.Snapshot snapshot = snapshotStore.recover();
+            List<JournalEntry> entries = journal.readAll(snapshot.getLsn());
+            snapshotLsn = snapshot.getLsn();
+
+            boolean fromGeneration = snapshotStore.hasGeneration();
+            classroomsDirty = !fromGeneration;
+            usersDirty = !fromGeneration;
+            dirtyMonths.clear();
+            dirtyReservationIds.clear();
+            for (JournalEntry entry : entries) {
+                markDirty(entry);
+            }
+
+            CompletableFuture<Void> classroomsLoaded = CompletableFuture.runAsync(
+                    () -> loadClassrooms(snapshot, entries), executor);
+            CompletableFuture<Void> usersLoaded = CompletableFuture.runAsync(
+                    () -> loadUsers(snapshot, entries), executor);
+            CompletableFuture<List<Reservation>> otherFormat = usersLoaded.thenApplyAsync(
+                    done -> readReservationsInOtherFormat(snapshot), executor);
+            CompletableFuture<NavigableMap<YearMonth, List<Reservation>>> months = otherFormat.thenCompose(
+                    all -> all != null ? CompletableFuture.completedFuture(new TreeMap<>()) : readMonths(snapshot, executor));
+            CompletableFuture<Void> reservationsLoaded = CompletableFuture.allOf(classroomsLoaded, usersLoaded, months)
+                    .thenRun(() -> loadReservations(snapshot, entries, otherFormat.join(), months.join()));
+            loading = new DataLoading(classroomsLoaded, usersLoaded, reservationsLoaded);
+        } catch (Exception e) {
+            System.err.println("Erro ao carregar dados: " + e.getMessage());
+        }
+        loaded = loading.getReservations();
+
+        if (checkpointScheduler == null) {
+            checkpointScheduler = new CheckpointScheduler(this, config);
+            checkpointScheduler.start();
+            persistenceExecutor = new PersistenceExecutor(journal, config.getCommitDelayMillis(),
+                    () -> checkpointScheduler.checkThresholds(journal.size(), journal.getRecordCount()));
+        }
+        return loading;
+    }
+
+    /**
+     * Lê as salas do snapshot e reaplica as mutações de salas do diário.
+     * @param snapshot O snapshot.
+     * @param entries As mutações do diário posteriores ao snapshot.
+     */
+    private void loadClassrooms(SnapshotStore.Snapshot snapshot, List<JournalEntry> entries) {
+        List<Classroom> loadedClassrooms = null;
+        try {
+            loadedClassrooms = snapshot.readClassrooms();
+        } catch (Exception e) {
+            System.err.println("Erro ao carregar salas: " + e.getMessage());
+        }
+        synchronized (this) {
+            if (loadedClassrooms != null) {
+                this.classrooms = loadedClassrooms;
+                System.out.println("Salas carregadas: " + this.classrooms.size());
+            }
+            replay(entries, JournalEntry.Type.ADD_CLASSROOM, JournalEntry.Type.REMOVE_CLASSROOM);
+        }
+    }
+
+    /**
+     * Lê os usuários do snapshot e reaplica as mutações de usuários do diário.
+     * @param snapshot O snapshot.
+     * @param entries As mutações do diário posteriores ao snapshot.
+     */
+    private void loadUsers(SnapshotStore.Snapshot snapshot, List<JournalEntry> entries) {
+        List<User> loadedUsers = null;
+        try {
+            loadedUsers = snapshot.readUsers();
+        } catch (Exception e) {
+            System.err.println("Erro ao carregar usuários: " + e.getMessage());
+        }
+        synchronized (this) {
+            if (loadedUsers != null) {
+                this.users = loadedUsers;
+                System.out.println("Usuários carregados: " + this.users.size());
+            }
+            replay(entries, JournalEntry.Type.ADD_USER, JournalEntry.Type.UPDATE_PASSWORD);
+        }
+    }
+
+    /**
+     * Lê em paralelo os meses de reservas carregados na inicialização: a partir do mês
+     * atual, menos {@link PersistenceConfig#getEagerPastMonths()}.
+     * @param snapshot O snapshot.
+     * @param executor O executor das leituras.
+     * @return Um future com todos os meses que têm reservas; os meses não lidos têm valor null.
+     */
+    private CompletableFuture<NavigableMap<YearMonth, List<Reservation>>> readMonths(SnapshotStore.Snapshot snapshot,
+            Executor executor) {
+        YearMonth windowStart = YearMonth.now().minusMonths(config.getEagerPastMonths());
+        Function<String, User> users = knownUsers();
+        if (mappedStore != null) {
+            // O armazenamento mapeado não é seguro para leituras concorrentes: uma única tarefa lê os meses.
+            return CompletableFuture.supplyAsync(() -> {
+                NavigableMap<YearMonth, List<Reservation>> months = new TreeMap<>();
+                for (YearMonth month : mappedStore.months()) {
+                    months.put(month, month.isBefore(windowStart) ? null : readMonth(month, users));
+                }
+                return months;
+            }, executor);
+        }
+
+        NavigableMap<YearMonth, CompletableFuture<List<Reservation>>> reads = new TreeMap<>();
+        for (YearMonth month : snapshot.getReservationMonths()) {
+            reads.put(month, month.isBefore(windowStart) ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.supplyAsync(() -> readMonth(month, users), executor));
+        }
+        return CompletableFuture.allOf(reads.values().toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            NavigableMap<YearMonth, List<Reservation>> months = new TreeMap<>();
+            reads.forEach((month, read) -> months.put(month, read.join()));
+            return months;
+        });
+    }
+
+    /**
+     * Lê as reservas de um mês do armazenamento atual.
+     * @param month O mês.
+     * @param users Obtém o usuário carregado a partir do nome de usuário.
+     * @return As reservas, ou null se a leitura falhar.
+     */
+    private List<Reservation> readMonth(YearMonth month, Function<String, User> users) {
+        try {
+            return mappedStore != null ? mappedStore.readMonth(month, users) : snapshotStore.readMonth(month, users);
+        } catch (Exception e) {
+            System.err.println("Erro ao carregar reservas de " + month + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Publica as reservas lidas e reaplica as mutações de reservas do diário. Chamado depois
+     * de carregadas as salas e os usuários, aos quais as reservas reaplicadas se referem.
+     * @param snapshot O snapshot.
+     * @param entries As mutações do diário posteriores ao snapshot.
+     * @param otherFormat Todas as reservas, se gravadas em um formato diferente do atual; senão null.
+     * @param months Os meses com reservas; os meses não lidos têm valor null.
+     */
+    private synchronized void loadReservations(SnapshotStore.Snapshot snapshot, List<JournalEntry> entries,
+            List<Reservation> otherFormat, NavigableMap<YearMonth, List<Reservation>> months) {
+        try {
+            this.reservations = new ArrayList<>();
+            reservationMonths.clear();
+            loadedMonths.clear();
+            allMonthsLoaded = false;
+            unloadedMonthKeys.clear();
+            if (otherFormat != null) {
+                // Formato diferente do atual: tudo é carregado e regravado no formato atual no próximo checkpoint.
+                this.reservations = otherFormat;
+                for (Reservation reservation : reservations) {
+                    reservationMonths.add(YearMonth.from(reservation.getDate()));
+                    if (mappedStore != null) {
+                        dirtyReservationIds.add(reservation.getId());
+                    }
+                }
+                dirtyMonths.addAll(reservationMonths);
+                allMonthsLoaded = true;
+                if (mappedStore != null) {
+                    mappedStore.clear();
+                }
+            } else {
+                months.forEach((month, monthReservations) -> {
+                    reservationMonths.add(month);
+                    if (monthReservations != null) {
+                        reservations.addAll(monthReservations);
+                        loadedMonths.add(month);
+                        markKeysMissing(month);
+                    }
+                });
+            }
+            System.out.println("Reservas carregadas: " + this.reservations.size() + " (" +
+                    (allMonthsLoaded ? reservationMonths.size() : loadedMonths.size()) + " de " +
+                    reservationMonths.size() + " meses)");
+
+            replay(entries, JournalEntry.Type.ADD_RESERVATION, JournalEntry.Type.UPDATE_RESERVATION,
+                    JournalEntry.Type.DELETE_RESERVATION);
+            if (!entries.isEmpty()) {
+                System.out.println("Alterações reaplicadas do diário: " + entries.size());
+            }
+
+            if (snapshot.getMaxReservationId() < 0) {
+                ensureAllMonthsLoaded();
+            }
+            maxReservationId = Math.max(snapshot.getMaxReservationId(), reservations.stream()
+                    .mapToInt(Reservation::getId)
+                    .max()
+                    .orElse(0));
+        } catch (Exception e) {
+            System.err.println("Erro ao carregar reservas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reaplica as mutações do diário dos tipos indicados, na ordem em que foram gravadas.
+     * @param entries As mutações do diário.
+     * @param types Os tipos a reaplicar.
+     */
+    private void replay(List<JournalEntry> entries, JournalEntry.Type... types) {
+        Set<JournalEntry.Type> selected = EnumSet.of(types[0], types);
+        for (JournalEntry entry : entries) {
+            if (selected.contains(entry.getType())) {
+                applyJournalEntry(entry);
+            }
+        }
+    }
+
+    /**
+     * Lê todas as reservas quando o snapshot as guarda em um formato diferente do atual:
+     * um arquivo não particionado (formato anterior) ou o outro armazenamento de reservas
+     * (partições ou arquivo mapeado), para migrá-las ao armazenamento atual.
+     * @param snapshot O snapshot.
+     * @return As reservas, ou null se já estiverem no formato atual.
+     */
+    private List<Reservation> readReservationsInOtherFormat(SnapshotStore.Snapshot snapshot) {
+        try {
+            Function<String, User> users = knownUsers();
+            List<Reservation> unpartitioned = snapshot.readReservations(users);
+            if (unpartitioned != null || snapshot.isMappedReservations() == (mappedStore != null)) {
+                return unpartitioned;
+            }
+            List<Reservation> all = new ArrayList<>();
+            if (!snapshot.isMappedReservations()) {
+                for (YearMonth month : snapshot.getReservationMonths()) {
+                    all.addAll(snapshotStore.readMonth(month, users));
+                }
+            } else if (MappedReservationStore.exists(dataDir)) {
+                MappedReservationStore store = new MappedReservationStore(dataDir);
+                try {
+                    store.open();
+                    all.addAll(store.readAll(users));
+                } finally {
+                    store.close();
+                }
+            }
+            System.out.println("Migrando " + all.size() + " reservas para o armazenamento " +
+                    (mappedStore != null ? "mapeado" : "em partições") + ".");
+            return all;
+        } catch (Exception e) {
+            System.err.println("Erro ao carregar reservas: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reaplica uma mutação lida do diário sobre os dados carregados.
+     * As operações são idempotentes, de forma que reaplicar uma mutação já
+     * presente no snapshot não altera o resultado.
+     * @param entry A mutação.
+     */
+    private void applyJournalEntry(JournalEntry entry) {
+        switch (entry.getType()) {
+            case ADD_CLASSROOM:
+                if (!classrooms.contains(entry.getClassroom())) {
+                    classrooms.add(entry.getClassroom());
+                }
+                break;
+            case REMOVE_CLASSROOM:
+                classrooms.removeIf(c -> c.getName().equals(entry.getKey()));
+                break;
+            case ADD_USER:
+                if (findUser(entry.getUser().getUsername()) == null) {
+                    users.add(entry.getUser());
+                }
+                break;
+            case UPDATE_PASSWORD:
+                User user = findUser(entry.getKey());
+                if (user != null) {
+                    user.setPassword(entry.getPassword());
+                }
+                break;
+            case ADD_RESERVATION:
+                Reservation logged = entry.getReservation();
+                ensureMonthLoaded(YearMonth.from(logged.getDate()));
+                reservationMonths.add(YearMonth.from(logged.getDate()));
+                if (findReservationById(logged.getId()) == null) {
+                    Classroom classroom = classrooms.stream()
+                            .filter(c -> c.equals(logged.getClassroom()))
+                            .findFirst()
+                            .orElse(logged.getClassroom());
+                    User reservedBy = findUser(logged.getReservedBy().getUsername());
+                    reservations.add(new Reservation(logged.getId(), classroom,
+                            reservedBy != null ? reservedBy : logged.getReservedBy(), logged.getDate(),
+                            logged.getStartTime(), logged.getEndTime(), logged.getPurpose(), logged.getStatus(),
+                            logged.getObservation()));
+                }
+                break;
+            case UPDATE_RESERVATION:
+                Reservation reservation = findReplayedReservation(entry);
+                if (reservation != null) {
+                    reservation.changeStatus(entry.getStatus(), entry.getObservation());
+                    dirtyMonths.add(YearMonth.from(reservation.getDate()));
+                }
+                break;
+            case DELETE_RESERVATION:
+                Reservation deleted = findReplayedReservation(entry);
+                if (deleted != null) {
+                    reservations.remove(deleted);
+                    dirtyMonths.add(YearMonth.from(deleted.getDate()));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Procura a reserva afetada por uma mutação do diário, carregando a partição do
+     * mês da reserva (ou todas, se o registro não tiver a data).
+     * @param entry A mutação.
+     * @return A reserva, ou null se não for encontrada.
+     */
+    private Reservation findReplayedReservation(JournalEntry entry) {
+        if (entry.getReservationDate() != null) {
+            ensureMonthLoaded(YearMonth.from(entry.getReservationDate()));
+        } else {
+            ensureAllMonthsLoaded();
+        }
+        return findReservationById(entry.getReservationId());
+    }
+
+    /**
+     * Procura uma reserva carregada pelo ID.
+     * @param id O ID da reserva.
+     * @return A reserva, ou null se não for encontrada.
+     */
+    private Reservation findReservationById(int id) {
+        return reservations.stream()
+                .filter(r -> r.getId() == id)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Procura um usuário pelo nome de usuário.
+     * @param username O nome de usuário.
+     * @return O usuário, ou null se não for encontrado.
+     */
+    private User findUser(String username) {
+        return users.stream()
+                .filter(u -> u.getUsername().equalsIgnoreCase(username))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Obtém uma cópia dos usuários carregados, para resolver os nomes de usuário das
+     * reservas lidas fora do bloqueio do repositório.
+     * @return O usuário de cada nome de usuário, ou null se não existir.
+     */
+    private synchronized Function<String, User> knownUsers() {
+        Map<String, User> byUsername = new HashMap<>();
+        for (User user : users) {
+            byUsername.put(user.getUsername().toLowerCase(), user);
+        }
+        return username -> byUsername.get(username.toLowerCase());
+    }
+
+    /**
+     * Garante que as reservas de um mês estejam carregadas em memória.
+     * @param month O mês.
+     */
+    private void ensureMonthLoaded(YearMonth month) {
+        if (allMonthsLoaded || loadedMonths.contains(month)) {
+            return;
+        }
+        if (reservationMonths.contains(month)) {
+            try {
+                reservations.addAll(mappedStore != null ? mappedStore.readMonth(month, this::findUser)
+                        : snapshotStore.readMonth(month, this::findUser));
+            } catch (Exception e) {
+                System.err.println("Erro ao carregar reservas de " + month + ": " + e.getMessage());
+                return;
+            }
+            markKeysMissing(month);
+        }
+        loadedMonths.add(month);
+        unloadedMonthKeys.remove(month);
+    }
+
+    /**
+     * Marca para regravação no próximo checkpoint um mês recém-carregado cuja partição
+     * foi gravada sem as chaves (formato anterior).
+     * @param month O mês.
+     */
+    private void markKeysMissing(YearMonth month) {
+        if (mappedStore == null && !snapshotStore.hasMonthKeys(month)) {
+            dirtyMonths.add(month);
+        }
+    }
+
+    /**
+     * Obtém as chaves de um mês não carregado, lidas do armazenamento atual na primeira vez.
+     * @param month O mês.
+     * @return As chaves, ou null se não estiverem gravadas ou não puderem ser lidas.
+     */
+    private MonthKeys monthKeys(YearMonth month) {
+        MonthKeys keys = unloadedMonthKeys.get(month);
+        if (keys == null) {
+            try {
+                keys = mappedStore != null ? mappedStore.monthKeys(month) : snapshotStore.readMonthKeys(month);
+            } catch (Exception e) {
+                System.err.println("Erro ao ler as chaves das reservas de " + month + ": " + e.getMessage());
+                return null;
+            }
+            if (keys != null) {
+                unloadedMonthKeys.put(month, keys);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Garante que as reservas de todos os meses estejam carregadas em memória.
+     */
+    private void ensureAllMonthsLoaded() {
+        if (allMonthsLoaded) {
+            return;
+        }
+        for (YearMonth month : reservationMonths) {
+            ensureMonthLoaded(month);
+        }
+        allMonthsLoaded = loadedMonths.containsAll(reservationMonths);
+    }
+
+    /**
+     * Verifica se as reservas de um mês estão carregadas em memória.
+     * @param month O mês.
+     * @return true se o mês estiver carregado.
+     */
+    private boolean isMonthLoaded(YearMonth month) {
+        return allMonthsLoaded || loadedMonths.contains(month);
+    }
+
+    /**
+     * Obtém as salas de aula.
+     * @return Uma visão somente leitura das salas.
+     */
+    @Override
+    public synchronized List<Classroom> getClassrooms() {
+        return Collections.unmodifiableList(classrooms);
+    }
+
+    /**
+     * Adiciona uma sala de aula.
+     * @param classroom A sala.
+     */
+    @Override
+    public synchronized void addClassroom(Classroom classroom) {
+        classrooms.add(classroom);
+        journal(JournalEntry.addClassroom(classroom));
+    }
+
+    /**
+     * Remove uma sala de aula.
+     * @param classroom A sala.
+     */
+    @Override
+    public synchronized void removeClassroom(Classroom classroom) {
+        classrooms.remove(classroom);
+        journal(JournalEntry.removeClassroom(classroom.getName()));
+    }
+
+    /**
+     * Obtém os usuários.
+     * @return Uma visão somente leitura dos usuários.
+     */
+    @Override
+    public synchronized List<User> getUsers() {
+        return Collections.unmodifiableList(users);
+    }
+
+    /**
+     * Adiciona um usuário.
+     * @param user O usuário.
+     */
+    @Override
+    public synchronized void addUser(User user) {
+        users.add(user);
+        journal(JournalEntry.addUser(user));
+    }
+
+    /**
+     * Altera a senha de um usuário.
+     * @param user O usuário.
+     * @param newPassword A nova senha.
+     */
+    @Override
+    public synchronized void updateUserPassword(User user, String newPassword) {
+        user.setPassword(newPassword);
+        journal(JournalEntry.updatePassword(user.getUsername(), newPassword));
+    }
+
+    /**
+     * Obtém todas as reservas, carregando todos os meses.
+     * @return Uma visão somente leitura das reservas.
+     */
+    @Override
+    public synchronized List<Reservation> getReservations() {
+        ensureAllMonthsLoaded();
+        return Collections.unmodifiableList(reservations);
+    }
+
+    /**
+     * Obtém as reservas de um mês, carregando a partição do mês se necessário.
+     * @param month O mês.
+     * @return Uma lista das reservas do mês.
+     */
+    @Override
+    public synchronized List<Reservation> getReservationsByMonth(YearMonth month) {
+        ensureMonthLoaded(month);
+        return reservations.stream()
+                .filter(r -> r.getDate().getYear() == month.getYear() && r.getDate().getMonth() == month.getMonth())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Obtém as reservas de vários meses, carregando as partições dos meses se necessário
+     * e percorrendo as reservas carregadas uma única vez.
+     * @param months Os meses.
+     * @return As reservas de cada mês; um mês sem reservas está ausente.
+     */
+    @Override
+    public synchronized Map<YearMonth, List<Reservation>> getReservationsByMonths(Collection<YearMonth> months) {
+        Set<YearMonth> selected = new HashSet<>(months);
+        for (YearMonth month : selected) {
+            ensureMonthLoaded(month);
+        }
+        Map<YearMonth, List<Reservation>> byMonth = new HashMap<>();
+        for (Reservation reservation : reservations) {
+            YearMonth month = YearMonth.from(reservation.getDate());
+            if (selected.contains(month)) {
+                byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(reservation);
+            }
+        }
+        return byMonth;
+    }
+
+    /**
+     * Obtém os meses com reservas que podem satisfazer uma consulta: os já carregados e os
+     * não carregados cujas chaves satisfazem o filtro, ou que não têm as chaves gravadas.
+     * @param filter Verifica se as chaves de um mês podem conter o resultado da consulta.
+     * @return Os meses, em ordem crescente.
+     */
+    @Override
+    public synchronized NavigableSet<YearMonth> findReservationMonths(Predicate<MonthKeys> filter) {
+        NavigableSet<YearMonth> months = new TreeSet<>();
+        for (YearMonth month : reservationMonths) {
+            if (isMonthLoaded(month)) {
+                months.add(month);
+            } else {
+                MonthKeys keys = monthKeys(month);
+                if (keys == null || filter.test(keys)) {
+                    months.add(month);
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Adiciona uma reserva.
+     * @param reservation A reserva.
+     */
+    @Override
+    public synchronized void addReservation(Reservation reservation) {
+        ensureMonthLoaded(YearMonth.from(reservation.getDate()));
+        reservations.add(reservation);
+        reservationMonths.add(YearMonth.from(reservation.getDate()));
+        maxReservationId = Math.max(maxReservationId, reservation.getId());
+        journal(JournalEntry.addReservation(reservation));
+    }
+
+    /**
+     * Grava no diário o status e a observação atuais de uma reserva. No armazenamento
+     * mapeado, o novo status é gravado também no próprio registro da reserva, depois de
+     * gravado o diário; a observação é gravada no próximo checkpoint.
+     * @param reservation A reserva alterada.
+     */
+    @Override
+    public synchronized void updateReservation(Reservation reservation) {
+        ReservationState state = reservation.getState();
+        JournalEntry entry = JournalEntry.updateReservation(reservation.getId(), reservation.getDate(),
+                state.getStatus(), state.getObservation());
+        CompletableFuture<Void> written = journal(entry);
+        if (mappedStore != null) {
+            MappedReservationStore store = mappedStore;
+            written.thenRun(() -> {
+                // Uma alteração posterior ainda não gravada no diário grava o seu próprio status.
+                if (reservation.getStatus() == entry.getStatus()) {
+                    store.updateStatus(reservation.getId(), reservation.getDate(), entry.getStatus());
+                }
+            });
+        }
+    }
+
+    /**
+     * Exclui uma reserva.
+     * @param reservation A reserva.
+     */
+    @Override
+    public synchronized void deleteReservation(Reservation reservation) {
+        reservations.remove(reservation);
+        journal(JournalEntry.deleteReservation(reservation.getId(), reservation.getDate()));
+    }
+
+    /**
+     * Obtém o maior ID de reserva já usado, inclusive de reservas excluídas ou não carregadas.
+     * @return O ID, ou 0 se não houver reservas.
+     */
+    @Override
+    public synchronized int getMaxReservationId() {
+        return maxReservationId;
+    }
+
+    /**
+     * Marca como alterada a coleção (ou o mês de reservas) afetada por uma mutação.
+     * @param entry A mutação.
+     */
+    private void markDirty(JournalEntry entry) {
+        switch (entry.getType()) {
+            case ADD_CLASSROOM:
+            case REMOVE_CLASSROOM:
+                classroomsDirty = true;
+                break;
+            case ADD_USER:
+            case UPDATE_PASSWORD:
+                usersDirty = true;
+                break;
+            case ADD_RESERVATION:
+                dirtyMonths.add(YearMonth.from(entry.getReservation().getDate()));
+                if (mappedStore != null) {
+                    dirtyReservationIds.add(entry.getReservation().getId());
+                }
+                break;
+            default:
+                if (entry.getReservationDate() != null) {
+                    dirtyMonths.add(YearMonth.from(entry.getReservationDate()));
+                }
+                if (mappedStore != null) {
+                    dirtyReservationIds.add(entry.getReservationId());
+                }
+                break;
+        }
+    }
+
+    /**
+     * Enfileira uma mutação para gravação no diário e marca a coleção afetada como alterada.
+     * @param entry A mutação.
+     * @return Um future concluído quando a mutação estiver gravada no diário.
+     */
+    private CompletableFuture<Void> journal(JournalEntry entry) {
+        markDirty(entry);
+        if (persistenceExecutor != null) {
+            return persistenceExecutor.submit(entry);
+        }
+        try {
+            journal.append(entry);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            System.err.println("Erro ao gravar alteração no diário: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Obtém um future concluído quando todas as mutações feitas até agora estiverem gravadas em disco.
+     * @return O future.
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        return persistenceExecutor != null ? persistenceExecutor.flush() : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Obtém o número de sequência da última mutação enfileirada para gravação.
+     * @return O número de sequência, ou 0 se as mutações são gravadas na hora.
+     */
+    @Override
+    public long getWriteSequence() {
+        return persistenceExecutor != null ? persistenceExecutor.getSequence() : 0;
+    }
+
+    /**
+     * Obtém um future concluído quando todas as mutações feitas até agora estiverem gravadas
+     * em disco, e que falha se falhar a gravação de alguma feita depois do número de sequência.
+     * @param sinceSequence O número de sequência.
+     * @return O future.
+     */
+    @Override
+    public CompletableFuture<Void> flush(long sinceSequence) {
+        return persistenceExecutor != null ? persistenceExecutor.flush(sinceSequence)
+                : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Grava um snapshot dos dados e descarta a parte do diário contida nele.
+     * Somente as coleções e os meses de reservas alterados desde o último snapshot
+     * são copiados e regravados.
+     * As listas são copiadas sob o bloqueio do repositório e gravadas fora dele,
+     * de forma que as mutações não ficam bloqueadas durante a gravação. Espera o fim
+     * do carregamento, para não gravar um snapshot com dados ainda não lidos.
+     * Um mês alterado cuja partição não está carregada é lido de novo; se a leitura falhar
+     * outra vez, o snapshot mantém a partição anterior do mês, as mutações do mês continuam
+     * no diário e a falha é informada depois de gravado o restante.
+     * @param force Se true, grava o snapshot mesmo que não haja mutações desde o último.
+     * @throws IOException Se o snapshot não puder ser gravado, ou se algum mês alterado não
+     *                     puder ser carregado.
+     */
+    public void checkpoint(boolean force) throws IOException {
+        loaded.join();
+        synchronized (checkpointLock) {
+            if (closed) {
+                return;
+            }
+            List<Classroom> classroomsCopy;
+            List<User> usersCopy;
+            Map<YearMonth, List<Reservation>> monthsCopy = new HashMap<>();
+            List<Reservation> changedReservations = new ArrayList<>();
+            Set<Integer> deletedReservationIds = new HashSet<>();
+            Set<YearMonth> unloadedMonths = new TreeSet<>();
+            Set<Integer> carriedIds = new HashSet<>();
+            Set<YearMonth> monthsSet;
+            int maxId;
+            long lsn;
+            synchronized (this) {
+                if (!force && journal.getRecordCount() == 0) {
+                    return;
+                }
+                for (YearMonth month : dirtyMonths) {
+                    ensureMonthLoaded(month);
+                    if (isMonthLoaded(month)) {
+                        monthsCopy.put(month, new ArrayList<>());
+                    } else {
+                        unloadedMonths.add(month);
+                    }
+                }
+                try {
+                    lsn = unloadedMonths.isEmpty() ? journal.seal()
+                            : journal.seal(snapshotLsn, entry -> unloadedMonths.contains(reservationMonth(entry)));
+                } catch (IOException e) {
+                    throw new IOException("Erro ao selar o diário: " + e.getMessage(), e);
+                }
+                if (!unloadedMonths.isEmpty() && mappedStore != null) {
+                    for (JournalEntry entry : journal.readAll(lsn)) {
+                        if (!unloadedMonths.contains(reservationMonth(entry))) {
+                            continue;
+                        }
+                        carriedIds.add(entry.getType() == JournalEntry.Type.ADD_RESERVATION
+                                ? entry.getReservation().getId() : entry.getReservationId());
+                    }
+                }
+                classroomsCopy = classroomsDirty ? new ArrayList<>(classrooms) : null;
+                usersCopy = usersDirty ? new ArrayList<>(users) : null;
+                if (mappedStore != null) {
+                    monthsCopy.clear();
+                    deletedReservationIds.addAll(dirtyReservationIds);
+                    // As reservas dos meses não carregados não estão em memória, mas não foram excluídas.
+                    deletedReservationIds.removeAll(carriedIds);
+                    for (Reservation r : reservations) {
+                        if (deletedReservationIds.remove(r.getId())) {
+                            ReservationState state = r.getState();
+                            changedReservations.add(new Reservation(r.getId(), r.getClassroom(), r.getReservedBy(),
+                                    r.getDate(), r.getStartTime(), r.getEndTime(), r.getPurpose(), state.getStatus(),
+                                    state.getObservation()));
+                        }
+                    }
+                } else if (!monthsCopy.isEmpty()) {
+                    for (Reservation reservation : reservations) {
+                        List<Reservation> monthReservations = monthsCopy.get(YearMonth.from(reservation.getDate()));
+                        if (monthReservations != null) {
+                            monthReservations.add(reservation);
+                        }
+                    }
+                }
+                monthsSet = mappedStore != null ? new TreeSet<>() : new TreeSet<>(reservationMonths);
+                maxId = maxReservationId;
+                classroomsDirty = false;
+                usersDirty = false;
+                dirtyMonths.clear();
+                dirtyMonths.addAll(unloadedMonths);
+                dirtyReservationIds.clear();
+                dirtyReservationIds.addAll(carriedIds);
+            }
+
+            try {
+                long bytes = 0;
+                if (mappedStore != null) {
+                    bytes += mappedStore.apply(changedReservations, deletedReservationIds);
+                }
+                bytes += snapshotStore.write(classroomsCopy, usersCopy, monthsCopy, monthsSet, lsn,
+                        maxId, mappedStore != null);
+                journal.discardUpTo(lsn);
+                synchronized (this) {
+                    snapshotLsn = lsn;
+                    lastSaveBytes = bytes;
+                    totalSaveBytes += bytes;
+                }
+                System.out.println("Dados salvos com sucesso (" + bytes + " bytes gravados).");
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    classroomsDirty |= classroomsCopy != null;
+                    usersDirty |= usersCopy != null;
+                    dirtyMonths.addAll(monthsCopy.keySet());
+                    changedReservations.forEach(r -> dirtyReservationIds.add(r.getId()));
+                    dirtyReservationIds.addAll(deletedReservationIds);
+                }
+                throw new IOException("Erro ao salvar dados: " + e.getMessage(), e);
+            }
+            if (!unloadedMonths.isEmpty()) {
+                throw new IOException("Reservas de " + unloadedMonths + " não puderam ser carregadas; "
+                        + "a partição anterior foi mantida e as alterações continuam no diário.");
+            }
+        }
+    }
+
+    /**
+     * Obtém o mês da reserva afetada por uma mutação do diário.
+     * @param entry A mutação.
+     * @return O mês, ou null se a mutação não for de reserva ou não tiver a data.
+     */
+    private static YearMonth reservationMonth(JournalEntry entry) {
+        if (entry.getType() == JournalEntry.Type.ADD_RESERVATION) {
+            return YearMonth.from(entry.getReservation().getDate());
+        }
+        return entry.getReservationDate() != null ? YearMonth.from(entry.getReservationDate()) : null;
+    }
+
+    /**
+     * Salva os dados nos arquivos (snapshot completo) e esvazia o diário.
+     * @throws UncheckedIOException Se o snapshot não puder ser gravado.
+     */
+    @Override
+    public void save() {
+        try {
+            checkpoint(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Grava as mutações pendentes no diário, encerra as threads de persistência e fecha
+     * o armazenamento mapeado, depois de concluído um checkpoint em andamento. Checkpoints
+     * ainda agendados não são mais executados.
+     */
+    @Override
+    public void close() {
+        if (persistenceExecutor != null) {
+            persistenceExecutor.shutdown();
+        }
+        if (checkpointScheduler != null) {
+            checkpointScheduler.shutdown();
+        }
+        synchronized (checkpointLock) {
+            closed = true;
+            if (mappedStore != null) {
+                mappedStore.close();
+            }
+        }
+    }
+
+    /**
+     * Obtém o número de bytes de dados gravados no último snapshot.
+     * @return O número de bytes.
+     */
+    @Override
+    public synchronized long getLastSaveBytes() {
+        return lastSaveBytes;
+    }
+
+    /**
+     * Obtém o número total de bytes de dados gravados em snapshots desde a inicialização.
+     * @return O número de bytes.
+     */
+    @Override
+    public synchronized long getTotalSaveBytes() {
+        return totalSaveBytes;
+    }
+}
@@ -0,0 +1,679 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.User;
+import util.BinaryCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Armazenamento opcional das reservas em registros de tamanho fixo, em um arquivo
+ * mapeado em memória ({@link FileChannel#map}).
+ *
+ * Cada reserva ocupa um registro de {@value #RECORD_SIZE} bytes com o ID, as
+ * referências à sala e ao usuário, o dia da época, os horários de início e fim (segundo
+ * do dia), o status e as referências ao propósito e à observação. Textos, salas e
+ * nomes de usuário ficam em um arquivo separado (heap), apenas por adição, e são
+ * referenciados pela sua posição nele. Assim, uma mudança de status é a gravação de
+ * um único byte no registro ({@link #updateStatus}), sem regravar o restante dos dados.
+ *
+ * Na abertura, os registros são indexados por ID e por mês; a leitura de um mês
+ * percorre apenas os registros do mês, e objetos {@link Reservation} só são criados
+ * para os meses efetivamente lidos. Os usuários das reservas são os carregados do
+ * arquivo de usuários, resolvidos pelo nome de usuário.
+ */
+public class MappedReservationStore {
+    private static final int MAGIC = 0x53414C52; // "SALR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+    private static final int HEAP_HEADER_SIZE = 16;
+    private static final int HEAP_END_OFFSET = 8;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    static final int RECORD_SIZE = 40;
+    private static final int ID = 0;
+    private static final int CLASSROOM_REF = 4;
+    private static final int USER_REF = 8;
+    private static final int EPOCH_DAY = 12;
+    private static final int START_SECOND = 16;
+    private static final int END_SECOND = 20;
+    private static final int STATUS = 24;
+    private static final int PURPOSE_REF = 28;
+    private static final int OBSERVATION_REF = 32;
+
+    private static final byte STATUS_DELETED = 0;
+    private static final byte HEAP_STRING = 1;
+    private static final byte HEAP_CLASSROOM = 2;
+    private static final byte HEAP_USER = 3;
+    private static final byte HEAP_USERNAME = 4;
+
+    private final Path recordsPath;
+    private final Path heapPath;
+    private FileChannel recordsChannel;
+    private FileChannel heapChannel;
+    private MappedByteBuffer records;
+    private MappedByteBuffer heap;
+    private int count;
+    private long heapEnd;
+    private boolean internIndexLoaded;
+
+    private final Map<String, Integer> classroomRefs = new HashMap<>();
+    private final Map<String, Integer> userRefs = new HashMap<>();
+    private final Map<Integer, Classroom> classroomCache = new HashMap<>();
+    private final Map<Integer, String> usernameCache = new HashMap<>();
+    private final Map<Integer, Integer> slotsById = new HashMap<>();
+    private final NavigableMap<YearMonth, List<Integer>> slotsByMonth = new TreeMap<>();
+
+    /**
+     * Construtor do armazenamento.
+     * @param dataDir O diretório de dados.
+     */
+    public MappedReservationStore(String dataDir) {
+        this.recordsPath = Paths.get(dataDir, "reservations.dat");
+        this.heapPath = Paths.get(dataDir, "reservations.heap");
+    }
+
+    /**
+     * Verifica se os arquivos do armazenamento existem no diretório de dados.
+     * @param dataDir O diretório de dados.
+     * @return true se existirem.
+     */
+    public static boolean exists(String dataDir) {
+        return Files.exists(Paths.get(dataDir, "reservations.dat"));
+    }
+
+    /**
+     * Abre (ou cria) os arquivos e reconstrói os índices em memória.
+     * @throws IOException Se ocorrer um erro de I/O ou os arquivos forem inválidos.
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(recordsPath.getParent());
+        recordsChannel = FileChannel.open(recordsPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        heapChannel = FileChannel.open(heapPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        if (recordsChannel.size() == 0) {
+            records = recordsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) INITIAL_CAPACITY * RECORD_SIZE);
+            records.putInt(0, MAGIC);
+            records.putInt(4, VERSION);
+            records.putInt(COUNT_OFFSET, 0);
+            records.force();
+        } else {
+            records = recordsChannel.map(FileChannel.MapMode.READ_WRITE, 0, recordsChannel.size());
+            if (records.getInt(0) != MAGIC || records.getInt(4) != VERSION) {
+                throw new IOException("Arquivo de reservas mapeado inválido: " + recordsPath);
+            }
+        }
+        count = records.getInt(COUNT_OFFSET);
+
+        if (heapChannel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEAP_HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(HEAP_HEADER_SIZE).flip();
+            heapChannel.write(header, 0);
+            heapChannel.force(true);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEAP_HEADER_SIZE);
+        heapChannel.read(header, 0);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Heap de reservas inválido: " + heapPath);
+        }
+        heapEnd = header.getLong(HEAP_END_OFFSET);
+        mapHeap();
+        classroomRefs.clear();
+        userRefs.clear();
+        internIndexLoaded = false;
+        buildSlotIndex();
+    }
+
+    /**
+     * Indexa os registros por ID e por mês, percorrendo apenas as colunas de ID e de dia.
+     */
+    private void buildSlotIndex() {
+        slotsById.clear();
+        slotsByMonth.clear();
+        for (int slot = 0; slot < count; slot++) {
+            indexSlot(slot);
+        }
+    }
+
+    /**
+     * Adiciona um registro aos índices por ID e por mês.
+     * @param slot O índice do registro.
+     */
+    private void indexSlot(int slot) {
+        int base = offset(slot);
+        slotsById.put(records.getInt(base + ID), slot);
+        slotsByMonth.computeIfAbsent(monthOf(base), month -> new ArrayList<>()).add(slot);
+    }
+
+    /**
+     * Remove um registro do índice por mês, antes de regravá-lo.
+     * @param slot O índice do registro.
+     */
+    private void unindexSlot(int slot) {
+        List<Integer> slots = slotsByMonth.get(monthOf(offset(slot)));
+        if (slots != null) {
+            slots.remove((Integer) slot);
+        }
+    }
+
+    /**
+     * Obtém o mês de um registro.
+     * @param base A posição do registro.
+     * @return O mês.
+     */
+    private YearMonth monthOf(int base) {
+        return YearMonth.from(LocalDate.ofEpochDay(records.getInt(base + EPOCH_DAY)));
+    }
+
+    /**
+     * Fecha os arquivos.
+     */
+    public synchronized void close() {
+        try {
+            if (recordsChannel != null) {
+                recordsChannel.close();
+            }
+            if (heapChannel != null) {
+                heapChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar o armazenamento de reservas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Descarta todas as reservas gravadas (usado ao migrar os dados de outro formato).
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public synchronized void clear() throws IOException {
+        records.putInt(COUNT_OFFSET, 0);
+        records.force();
+        count = 0;
+        slotsById.clear();
+        slotsByMonth.clear();
+    }
+
+    /**
+     * Obtém o número de registros (incluindo os excluídos).
+     * @return O número de registros.
+     */
+    public synchronized int getRecordCount() {
+        return count;
+    }
+
+    /**
+     * Obtém o maior ID de reserva gravado.
+     * @return O ID, ou 0 se não houver reservas.
+     */
+    public synchronized int getMaxId() {
+        return slotsById.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /**
+     * Obtém os meses que contêm reservas não excluídas.
+     * @return Os meses, em ordem crescente.
+     */
+    public synchronized NavigableSet<YearMonth> months() {
+        NavigableSet<YearMonth> months = new TreeSet<>();
+        slotsByMonth.forEach((month, slots) -> {
+            if (slots.stream().anyMatch(slot -> records.get(offset(slot) + STATUS) != STATUS_DELETED)) {
+                months.add(month);
+            }
+        });
+        return months;
+    }
+
+    /**
+     * Lê as reservas de um mês. Somente os registros do mês são percorridos e materializados.
+     * @param month O mês.
+     * @param users Obtém o usuário carregado a partir do nome de usuário, ou null se não existir.
+     * @return As reservas do mês.
+     * @throws IOException Se ocorrer um erro de I/O ou um usuário não existir.
+     */
+    public synchronized List<Reservation> readMonth(YearMonth month, Function<String, User> users)
+            throws IOException {
+        List<Reservation> reservations = new ArrayList<>();
+        for (int slot : slotsByMonth.getOrDefault(month, new ArrayList<>())) {
+            if (records.get(offset(slot) + STATUS) != STATUS_DELETED) {
+                reservations.add(materialize(slot, users));
+            }
+        }
+        return reservations;
+    }
+
+    /**
+     * Obtém as chaves das reservas de um mês, lendo apenas as colunas de ID, sala, usuário
+     * e status dos registros do mês, sem criar as reservas.
+     * @param month O mês.
+     * @return As chaves.
+     * @throws IOException Se uma referência do heap for inválida.
+     */
+    public synchronized MonthKeys monthKeys(YearMonth month) throws IOException {
+        List<Integer> slots = slotsByMonth.getOrDefault(month, new ArrayList<>());
+        int[] ids = new int[slots.size()];
+        int idCount = 0;
+        Set<String> usernames = new HashSet<>();
+        Set<String> classroomNames = new HashSet<>();
+        Set<ReservationStatus> statuses = EnumSet.noneOf(ReservationStatus.class);
+        for (int slot : slots) {
+            int base = offset(slot);
+            byte status = records.get(base + STATUS);
+            if (status == STATUS_DELETED) {
+                continue;
+            }
+            ids[idCount++] = records.getInt(base + ID);
+            usernames.add(ReservationManager.foldCase(readUsernameRef(records.getInt(base + USER_REF))));
+            classroomNames.add(readClassroomRef(records.getInt(base + CLASSROOM_REF)).getName());
+            statuses.add(BinaryCodec.statusFromCode(status));
+        }
+        ids = Arrays.copyOf(ids, idCount);
+        Arrays.sort(ids);
+        return new MonthKeys(ids, usernames, classroomNames, statuses);
+    }
+
+    /**
+     * Lê todas as reservas.
+     * @param users Obtém o usuário carregado a partir do nome de usuário, ou null se não existir.
+     * @return As reservas.
+     * @throws IOException Se ocorrer um erro de I/O ou um usuário não existir.
+     */
+    public synchronized List<Reservation> readAll(Function<String, User> users) throws IOException {
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int slot = 0; slot < count; slot++) {
+            if (records.get(offset(slot) + STATUS) != STATUS_DELETED) {
+                reservations.add(materialize(slot, users));
+            }
+        }
+        return reservations;
+    }
+
+    /**
+     * Grava o status de uma reserva no próprio registro (um byte), sem forçar a gravação
+     * em disco: o diário, gravado antes, continua sendo o registro durável da alteração,
+     * e o registro é forçado em disco no próximo checkpoint.
+     * @param id O ID da reserva.
+     * @param date A data da reserva.
+     * @param status O novo status.
+     * @return true se o registro foi atualizado; false se a reserva ainda não estiver no
+     *         armazenamento (ela será gravada completa no próximo checkpoint).
+     */
+    public synchronized boolean updateStatus(int id, LocalDate date, ReservationStatus status) {
+        Integer slot = slotsById.get(id);
+        if (slot == null) {
+            return false;
+        }
+        int base = offset(slot);
+        if (records.get(base + STATUS) == STATUS_DELETED || records.getInt(base + EPOCH_DAY) != date.toEpochDay()) {
+            return false;
+        }
+        records.put(base + STATUS, (byte) BinaryCodec.statusCode(status));
+        return true;
+    }
+
+    /**
+     * Grava as reservas alteradas e exclui as removidas, forçando tudo em disco.
+     * Reservas novas são adicionadas ao fim; nas existentes, o status é atualizado
+     * no próprio registro e a observação, se mudou, passa a apontar para um novo texto no heap.
+     * @param changed As reservas novas ou alteradas.
+     * @param deletedIds Os IDs das reservas excluídas.
+     * @return O número de bytes gravados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public synchronized long apply(Collection<Reservation> changed, Collection<Integer> deletedIds) throws IOException {
+        try {
+            return applyChanges(changed, deletedIds);
+        } catch (IOException | RuntimeException e) {
+            // Os índices em memória podem ter sido alterados; são reconstruídos a partir do disco.
+            close();
+            open();
+            throw e;
+        }
+    }
+
+    /**
+     * Grava as reservas alteradas e exclui as removidas.
+     * @param changed As reservas novas ou alteradas.
+     * @param deletedIds Os IDs das reservas excluídas.
+     * @return O número de bytes gravados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private long applyChanges(Collection<Reservation> changed, Collection<Integer> deletedIds) throws IOException {
+        long bytes = 0;
+        ByteArrayOutputStream heapBytes = new ByteArrayOutputStream();
+        List<Runnable> recordWrites = new ArrayList<>();
+        int newCount = count;
+        loadInternIndex();
+        Map<Integer, Integer> targetSlots = new HashMap<>();
+        List<Integer> rewrittenSlots = new ArrayList<>();
+
+        for (Reservation reservation : changed) {
+            Integer slot = targetSlots.containsKey(reservation.getId())
+                    ? targetSlots.get(reservation.getId()) : slotsById.get(reservation.getId());
+            byte status = (byte) BinaryCodec.statusCode(reservation.getStatus());
+            if (slot != null && records.get(offset(slot) + STATUS) != STATUS_DELETED
+                    && records.getInt(offset(slot) + EPOCH_DAY) == reservation.getDate().toEpochDay()) {
+                int base = offset(slot);
+                if (!reservation.getObservation().equals(readString(records.getInt(base + OBSERVATION_REF)))) {
+                    int observationRef = appendHeap(heapBytes, HEAP_STRING, stringBytes(reservation.getObservation()));
+                    recordWrites.add(() -> records.putInt(base + OBSERVATION_REF, observationRef));
+                    bytes += 4;
+                }
+                if (records.get(base + STATUS) != status) {
+                    recordWrites.add(() -> records.put(base + STATUS, status));
+                    bytes += 1;
+                }
+                continue;
+            }
+
+            int classroomRef = internClassroom(reservation.getClassroom(), heapBytes);
+            int userRef = internUsername(reservation.getReservedBy().getUsername(), heapBytes);
+            int purposeRef = appendHeap(heapBytes, HEAP_STRING,
+                    stringBytes(reservation.getPurpose() != null ? reservation.getPurpose() : ""));
+            int observationRef = appendHeap(heapBytes, HEAP_STRING, stringBytes(reservation.getObservation()));
+
+            int targetSlot = slot != null ? slot : newCount++;
+            targetSlots.put(reservation.getId(), targetSlot);
+            if (!rewrittenSlots.contains(targetSlot)) {
+                rewrittenSlots.add(targetSlot);
+            }
+            recordWrites.add(() -> writeRecord(targetSlot, reservation, classroomRef, userRef, purposeRef,
+                    observationRef, status));
+            bytes += RECORD_SIZE;
+        }
+
+        for (int id : deletedIds) {
+            Integer slot = targetSlots.containsKey(id) ? targetSlots.get(id) : slotsById.get(id);
+            if (slot != null) {
+                int base = offset(slot);
+                recordWrites.add(() -> records.put(base + STATUS, STATUS_DELETED));
+                bytes += 1;
+            }
+        }
+
+        if (heapBytes.size() > 0) {
+            heapChannel.write(ByteBuffer.wrap(heapBytes.toByteArray()), heapEnd);
+            heapChannel.force(false);
+            heapEnd += heapBytes.size();
+            ByteBuffer end = ByteBuffer.allocate(Long.BYTES).putLong(0, heapEnd);
+            heapChannel.write(end, HEAP_END_OFFSET);
+            heapChannel.force(false);
+            mapHeap();
+            bytes += heapBytes.size();
+        }
+
+        ensureCapacity(newCount);
+        for (int slot : rewrittenSlots) {
+            if (slot < count) {
+                unindexSlot(slot);
+            }
+        }
+        for (Runnable write : recordWrites) {
+            write.run();
+        }
+        for (int slot : rewrittenSlots) {
+            indexSlot(slot);
+        }
+        records.force();
+        if (newCount != count) {
+            count = newCount;
+            records.putInt(COUNT_OFFSET, count);
+            records.force(COUNT_OFFSET, Integer.BYTES);
+        }
+        return bytes;
+    }
+
+    /**
+     * Carrega, na primeira gravação, as referências das salas e usuários já gravados no heap.
+     * @throws IOException Se o heap for inválido.
+     */
+    private void loadInternIndex() throws IOException {
+        if (internIndexLoaded) {
+            return;
+        }
+        int position = HEAP_HEADER_SIZE;
+        while (position < heapEnd) {
+            byte kind = heap.get(position);
+            int length = heap.getInt(position + 1);
+            if (kind == HEAP_CLASSROOM) {
+                classroomRefs.put(readClassroomRef(position).getName(), position);
+            } else if (kind == HEAP_USERNAME) {
+                userRefs.put(readUsernameRef(position), position);
+            }
+            position += 5 + length;
+        }
+        internIndexLoaded = true;
+    }
+
+    /**
+     * Obtém a posição de um registro no arquivo.
+     * @param slot O índice do registro.
+     * @return A posição em bytes.
+     */
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    /**
+     * Garante que o arquivo mapeado comporte um número de registros, dobrando o tamanho se necessário.
+     * @param slots O número de registros.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private void ensureCapacity(int slots) throws IOException {
+        long required = HEADER_SIZE + (long) slots * RECORD_SIZE;
+        if (required <= records.capacity()) {
+            return;
+        }
+        long size = records.capacity();
+        while (size < required) {
+            size *= 2;
+        }
+        records.force();
+        records = recordsChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Mapeia o heap até a última posição gravada.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private void mapHeap() throws IOException {
+        heap = heapChannel.map(FileChannel.MapMode.READ_ONLY, 0, heapEnd);
+    }
+
+    /**
+     * Grava um registro completo.
+     * @param slot O índice do registro.
+     * @param reservation A reserva.
+     * @param classroomRef A referência da sala no heap.
+     * @param userRef A referência do usuário no heap.
+     * @param purposeRef A referência do propósito no heap.
+     * @param observationRef A referência da observação no heap.
+     * @param status O código do status.
+     */
+    private void writeRecord(int slot, Reservation reservation, int classroomRef, int userRef, int purposeRef,
+            int observationRef, byte status) {
+        int base = offset(slot);
+        records.putInt(base + ID, reservation.getId());
+        records.putInt(base + CLASSROOM_REF, classroomRef);
+        records.putInt(base + USER_REF, userRef);
+        records.putInt(base + EPOCH_DAY, (int) reservation.getDate().toEpochDay());
+        records.putInt(base + START_SECOND, reservation.getStartTime().toSecondOfDay());
+        records.putInt(base + END_SECOND, reservation.getEndTime().toSecondOfDay());
+        records.put(base + STATUS, status);
+        records.putInt(base + PURPOSE_REF, purposeRef);
+        records.putInt(base + OBSERVATION_REF, observationRef);
+    }
+
+    /**
+     * Cria o objeto de uma reserva a partir do seu registro.
+     * @param slot O índice do registro.
+     * @param users Obtém o usuário carregado a partir do nome de usuário, ou null se não existir.
+     * @return A reserva.
+     * @throws IOException Se o registro for inválido ou o usuário não existir.
+     */
+    private Reservation materialize(int slot, Function<String, User> users) throws IOException {
+        int base = offset(slot);
+        ReservationStatus status = BinaryCodec.statusFromCode(records.get(base + STATUS));
+        String username = readUsernameRef(records.getInt(base + USER_REF));
+        User reservedBy = users.apply(username);
+        if (reservedBy == null) {
+            throw new IOException("Usuário " + username + " não encontrado.");
+        }
+        return new Reservation(records.getInt(base + ID),
+                readClassroomRef(records.getInt(base + CLASSROOM_REF)),
+                reservedBy,
+                LocalDate.ofEpochDay(records.getInt(base + EPOCH_DAY)),
+                LocalTime.ofSecondOfDay(records.getInt(base + START_SECOND)),
+                LocalTime.ofSecondOfDay(records.getInt(base + END_SECOND)),
+                readString(records.getInt(base + PURPOSE_REF)),
+                status,
+                readString(records.getInt(base + OBSERVATION_REF)));
+    }
+
+    /**
+     * Obtém a referência de uma sala no heap, adicionando-a se ainda não existir.
+     * @param classroom A sala.
+     * @param heapBytes Os bytes pendentes do heap.
+     * @return A referência.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private int internClassroom(Classroom classroom, ByteArrayOutputStream heapBytes) throws IOException {
+        Integer ref = classroomRefs.get(classroom.getName());
+        if (ref == null) {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            BinaryCodec.writeClassroom(new DataOutputStream(encoded), classroom);
+            ref = appendHeap(heapBytes, HEAP_CLASSROOM, encoded.toByteArray());
+            classroomRefs.put(classroom.getName(), ref);
+        }
+        return ref;
+    }
+
+    /**
+     * Obtém a referência de um nome de usuário no heap, adicionando-o se ainda não existir.
+     * Somente o nome é gravado; os demais dados do usuário ficam no arquivo de usuários.
+     * @param username O nome de usuário.
+     * @param heapBytes Os bytes pendentes do heap.
+     * @return A referência.
+     */
+    private int internUsername(String username, ByteArrayOutputStream heapBytes) {
+        Integer ref = userRefs.get(username);
+        if (ref == null) {
+            ref = appendHeap(heapBytes, HEAP_USERNAME, stringBytes(username));
+            userRefs.put(username, ref);
+        }
+        return ref;
+    }
+
+    /**
+     * Adiciona uma entrada aos bytes pendentes do heap.
+     * @param heapBytes Os bytes pendentes do heap, gravados a partir do fim atual do heap.
+     * @param kind O tipo da entrada.
+     * @param content O conteúdo.
+     * @return A referência (posição no heap) da entrada.
+     */
+    private int appendHeap(ByteArrayOutputStream heapBytes, byte kind, byte[] content) {
+        int ref = (int) (heapEnd + heapBytes.size());
+        heapBytes.write(kind);
+        heapBytes.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(content.length).array());
+        heapBytes.writeBytes(content);
+        return ref;
+    }
+
+    /**
+     * Codifica um texto em UTF-8.
+     * @param text O texto.
+     * @return Os bytes.
+     */
+    private static byte[] stringBytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lê o conteúdo de uma entrada do heap.
+     * @param ref A referência da entrada.
+     * @return Os bytes do conteúdo.
+     */
+    private byte[] readHeap(int ref) {
+        byte[] content = new byte[heap.getInt(ref + 1)];
+        heap.get(ref + 5, content);
+        return content;
+    }
+
+    /**
+     * Lê um texto do heap.
+     * @param ref A referência do texto.
+     * @return O texto.
+     */
+    private String readString(int ref) {
+        return new String(readHeap(ref), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lê uma sala do heap, reaproveitando o objeto já lido.
+     * @param ref A referência da sala.
+     * @return A sala.
+     * @throws IOException Se a entrada for inválida.
+     */
+    private Classroom readClassroomRef(int ref) throws IOException {
+        Classroom classroom = classroomCache.get(ref);
+        if (classroom == null) {
+            classroom = BinaryCodec.readClassroom(new DataInputStream(new ByteArrayInputStream(readHeap(ref))));
+            classroomCache.put(ref, classroom);
+        }
+        return classroom;
+    }
+
+    /**
+     * Lê um nome de usuário do heap, reaproveitando o texto já lido. Entradas gravadas
+     * com o registro completo do usuário (formato anterior) fornecem apenas o nome.
+     * @param ref A referência do usuário.
+     * @return O nome de usuário.
+     * @throws IOException Se a entrada for inválida.
+     */
+    private String readUsernameRef(int ref) throws IOException {
+        String username = usernameCache.get(ref);
+        if (username == null) {
+            if (heap.get(ref) == HEAP_USER) {
+                username = BinaryCodec.readUser(new DataInputStream(new ByteArrayInputStream(readHeap(ref))))
+                        .getUsername();
+            } else {
+                username = readString(ref);
+            }
+            usernameCache.put(ref, username);
+        }
+        return username;
+    }
+}
@@ -0,0 +1,209 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.User;
+import util.BinaryCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Chaves das reservas de um mês: os IDs, os usuários, as salas e os status que aparecem
+ * no mês. Permitem saber, sem carregar as reservas do mês, se ele pode conter o
+ * resultado de uma consulta por ID, usuário, sala ou status; o {@link ReservationManager}
+ * as usa para indexar apenas os meses que interessam a cada consulta.
+ *
+ * O {@link SnapshotStore} grava as chaves de cada partição em um arquivo ao lado dela
+ * ({@code reservations/AAAA-MM.keys}), e o {@link MappedReservationStore} as obtém dos
+ * próprios registros. Os usuários são comparados como em {@link User#equals} (sem
+ * diferenciar maiúsculas de minúsculas), e as salas, como em {@link Classroom#equals}
+ * (pelo nome). As chaves são imutáveis.
+ */
+public class MonthKeys {
+    private static final int MAGIC = 0x53414C4B; // "SALK"
+    private static final short VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Chaves de um mês sem reservas. */
+    static final MonthKeys EMPTY = new MonthKeys(new int[0], Collections.emptySet(), Collections.emptySet(),
+            EnumSet.noneOf(ReservationStatus.class));
+
+    private final int[] ids;
+    private final Set<String> usernames;
+    private final Set<String> classroomNames;
+    private final Set<ReservationStatus> statuses;
+
+    /**
+     * Construtor das chaves.
+     * @param ids Os IDs das reservas, em ordem crescente.
+     * @param usernames Os nomes de usuário, normalizados por {@link ReservationManager#foldCase}.
+     * @param classroomNames Os nomes das salas.
+     * @param statuses Os status.
+     */
+    MonthKeys(int[] ids, Set<String> usernames, Set<String> classroomNames, Set<ReservationStatus> statuses) {
+        this.ids = ids;
+        this.usernames = usernames;
+        this.classroomNames = classroomNames;
+        this.statuses = statuses;
+    }
+
+    /**
+     * Obtém as chaves das reservas de um mês.
+     * @param reservations As reservas do mês.
+     * @return As chaves.
+     */
+    public static MonthKeys of(Collection<Reservation> reservations) {
+        int[] ids = new int[reservations.size()];
+        Set<String> usernames = new HashSet<>();
+        Set<String> classroomNames = new HashSet<>();
+        Set<ReservationStatus> statuses = EnumSet.noneOf(ReservationStatus.class);
+        int i = 0;
+        for (Reservation reservation : reservations) {
+            ids[i++] = reservation.getId();
+            usernames.add(ReservationManager.foldCase(reservation.getReservedBy().getUsername()));
+            classroomNames.add(reservation.getClassroom().getName());
+            statuses.add(reservation.getStatus());
+        }
+        Arrays.sort(ids);
+        return new MonthKeys(ids, usernames, classroomNames, statuses);
+    }
+
+    /**
+     * Verifica se o mês tem a reserva com um ID.
+     * @param id O ID.
+     * @return true se tiver.
+     */
+    public boolean containsId(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * Verifica se o mês tem reservas de um usuário.
+     * @param user O usuário.
+     * @return true se tiver.
+     */
+    public boolean containsUser(User user) {
+        return usernames.contains(ReservationManager.foldCase(user.getUsername()));
+    }
+
+    /**
+     * Verifica se o mês tem reservas de uma sala.
+     * @param classroom A sala.
+     * @return true se tiver.
+     */
+    public boolean containsClassroom(Classroom classroom) {
+        return classroomNames.contains(classroom.getName());
+    }
+
+    /**
+     * Verifica se o mês tem reservas com um status.
+     * @param status O status.
+     * @return true se tiver.
+     */
+    public boolean containsStatus(ReservationStatus status) {
+        return statuses.contains(status);
+    }
+
+    /**
+     * Grava as chaves em um arquivo, forçando a gravação em disco.
+     * @param file O arquivo.
+     * @return O número de bytes gravados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public long write(Path file) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(file.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(ids.length);
+            for (int id : ids) {
+                out.writeInt(id);
+            }
+            writeStrings(out, usernames);
+            writeStrings(out, classroomNames);
+            out.writeByte(statuses.size());
+            for (ReservationStatus status : statuses) {
+                out.writeByte(BinaryCodec.statusCode(status));
+            }
+            out.flush();
+            fos.getChannel().force(true);
+            return fos.getChannel().size();
+        }
+    }
+
+    /**
+     * Lê as chaves de um arquivo.
+     * @param file O arquivo.
+     * @return As chaves, ou null se o arquivo não existir.
+     * @throws IOException Se ocorrer um erro de I/O ou o arquivo for inválido.
+     */
+    public static MonthKeys read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file),
+                BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Arquivo de chaves inválido: " + file);
+            }
+            short version = in.readShort();
+            if (version > VERSION) {
+                throw new IOException("Versão " + version + " do arquivo " + file + " não é suportada.");
+            }
+            int[] ids = new int[in.readInt()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = in.readInt();
+            }
+            Set<String> usernames = readStrings(in);
+            Set<String> classroomNames = readStrings(in);
+            Set<ReservationStatus> statuses = EnumSet.noneOf(ReservationStatus.class);
+            int statusCount = in.readUnsignedByte();
+            for (int i = 0; i < statusCount; i++) {
+                statuses.add(BinaryCodec.statusFromCode(in.readUnsignedByte()));
+            }
+            return new MonthKeys(ids, usernames, classroomNames, statuses);
+        }
+    }
+
+    /**
+     * Grava um conjunto de textos.
+     * @param out O fluxo de saída.
+     * @param strings Os textos.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private static void writeStrings(DataOutputStream out, Set<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    /**
+     * Lê um conjunto de textos.
+     * @param in O fluxo de entrada.
+     * @return Os textos.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private static Set<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Set<String> strings = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+}
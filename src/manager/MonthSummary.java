@@ -0,0 +1,65 @@
+package manager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumo das reservas confirmadas de um mês, por dia: quantas reservas há e em quais
+ * salas. Usado pelo calendário para marcar os dias com reservas sem percorrer as
+ * reservas do mês. O resumo é uma cópia e não acompanha alterações posteriores.
+ */
+public class MonthSummary {
+    private final YearMonth month;
+    private final int[] confirmedCounts;
+    private final List<List<String>> classroomNames;
+
+    /**
+     * Construtor do resumo, sem reservas.
+     * @param month O mês.
+     */
+    public MonthSummary(YearMonth month) {
+        this.month = month;
+        this.confirmedCounts = new int[month.lengthOfMonth()];
+        this.classroomNames = new ArrayList<>(Collections.nCopies(month.lengthOfMonth(), Collections.emptyList()));
+    }
+
+    /**
+     * Registra as reservas confirmadas de um dia.
+     * @param date O dia.
+     * @param confirmedCount O número de reservas confirmadas.
+     * @param names Os nomes das salas reservadas, sem repetição.
+     */
+    void setDay(LocalDate date, int confirmedCount, List<String> names) {
+        confirmedCounts[date.getDayOfMonth() - 1] = confirmedCount;
+        classroomNames.set(date.getDayOfMonth() - 1, Collections.unmodifiableList(names));
+    }
+
+    /**
+     * Obtém o mês do resumo.
+     * @return O mês.
+     */
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    /**
+     * Obtém o número de reservas confirmadas de um dia.
+     * @param date O dia, no mês do resumo.
+     * @return O número de reservas.
+     */
+    public int getConfirmedCount(LocalDate date) {
+        return confirmedCounts[date.getDayOfMonth() - 1];
+    }
+
+    /**
+     * Obtém os nomes das salas com reservas confirmadas em um dia.
+     * @param date O dia, no mês do resumo.
+     * @return Os nomes, sem repetição, na ordem em que as salas foram reservadas.
+     */
+    public List<String> getClassroomNames(LocalDate date) {
+        return classroomNames.get(date.getDayOfMonth() - 1);
+    }
+}
@@ -0,0 +1,181 @@
+package manager;
+
+/**
+ * Configuração da persistência do gerenciador de reservas.
+ * Os valores podem ser definidos por propriedades de sistema (-Dchave=valor):
+ * <ul>
+ *     <li>{@code salas.checkpoint.interval}: intervalo, em segundos, entre checkpoints em segundo plano (0 desativa).</li>
+ *     <li>{@code salas.checkpoint.maxJournalBytes}: tamanho do diário, em bytes, que dispara um checkpoint.</li>
+ *     <li>{@code salas.checkpoint.maxJournalRecords}: número de mutações no diário que dispara um checkpoint.</li>
+ *     <li>{@code salas.reservations.eagerPastMonths}: número de meses anteriores ao atual cujas reservas são carregadas na inicialização.</li>
+ *     <li>{@code salas.storage}: repositório dos dados: {@code journal} (padrão; diário e snapshots com partições
+ *     mensais de reservas), {@code mapped} (diário e snapshots, com as reservas em registros de tamanho fixo em um
+ *     arquivo mapeado em memória, ver {@link MappedReservationStore}), {@code serialized} (formato original, com os
+ *     arquivos serializados regravados a cada alteração) ou {@code memory} (sem persistência).</li>
+ *     <li>{@code salas.data.dir}: diretório dos arquivos de dados.</li>
+ *     <li>{@code salas.persistence.commitDelay}: intervalo, em milissegundos, para agrupar mutações em uma única gravação do diário.</li>
+ * </ul>
+ */
+public class PersistenceConfig {
+    private long checkpointIntervalSeconds = 60;
+    private long maxJournalBytes = 1024 * 1024;
+    private int maxJournalRecords = 1000;
+    private long commitDelayMillis = 20;
+    private int eagerPastMonths = 0;
+    private String storage = "journal";
+    private String dataDir = "../data";
+
+    /**
+     * Cria a configuração a partir das propriedades de sistema, usando os valores padrão
+     * para as propriedades ausentes ou inválidas.
+     * @return A configuração.
+     */
+    public static PersistenceConfig fromSystemProperties() {
+        PersistenceConfig config = new PersistenceConfig();
+        config.checkpointIntervalSeconds = readLong("salas.checkpoint.interval", config.checkpointIntervalSeconds);
+        config.maxJournalBytes = readLong("salas.checkpoint.maxJournalBytes", config.maxJournalBytes);
+        config.maxJournalRecords = (int) readLong("salas.checkpoint.maxJournalRecords", config.maxJournalRecords);
+        config.commitDelayMillis = readLong("salas.persistence.commitDelay", config.commitDelayMillis);
+        config.eagerPastMonths = (int) readLong("salas.reservations.eagerPastMonths", config.eagerPastMonths);
+        String storage = System.getProperty("salas.storage");
+        if (storage != null && !storage.trim().isEmpty()) {
+            config.storage = storage.trim().toLowerCase();
+        }
+        String dataDir = System.getProperty("salas.data.dir");
+        if (dataDir != null && !dataDir.trim().isEmpty()) {
+            config.dataDir = dataDir.trim();
+        }
+        return config;
+    }
+
+    /**
+     * Lê uma propriedade de sistema numérica.
+     * @param key A chave da propriedade.
+     * @param defaultValue O valor padrão.
+     * @return O valor lido, ou o valor padrão.
+     */
+    private static long readLong(String key, long defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Valor inválido para " + key + ": " + value + ". Usando " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Obtém o intervalo entre checkpoints em segundo plano.
+     * @return O intervalo em segundos (0 se desativado).
+     */
+    public long getCheckpointIntervalSeconds() {
+        return checkpointIntervalSeconds;
+    }
+
+    /**
+     * Define o intervalo entre checkpoints em segundo plano.
+     * @param checkpointIntervalSeconds O intervalo em segundos (0 desativa).
+     */
+    public void setCheckpointIntervalSeconds(long checkpointIntervalSeconds) {
+        this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+    }
+
+    /**
+     * Obtém o tamanho do diário que dispara um checkpoint.
+     * @return O tamanho em bytes.
+     */
+    public long getMaxJournalBytes() {
+        return maxJournalBytes;
+    }
+
+    /**
+     * Define o tamanho do diário que dispara um checkpoint.
+     * @param maxJournalBytes O tamanho em bytes.
+     */
+    public void setMaxJournalBytes(long maxJournalBytes) {
+        this.maxJournalBytes = maxJournalBytes;
+    }
+
+    /**
+     * Obtém o número de mutações no diário que dispara um checkpoint.
+     * @return O número de mutações.
+     */
+    public int getMaxJournalRecords() {
+        return maxJournalRecords;
+    }
+
+    /**
+     * Define o número de mutações no diário que dispara um checkpoint.
+     * @param maxJournalRecords O número de mutações.
+     */
+    public void setMaxJournalRecords(int maxJournalRecords) {
+        this.maxJournalRecords = maxJournalRecords;
+    }
+
+    /**
+     * Obtém o intervalo para agrupar mutações em uma única gravação do diário.
+     * @return O intervalo em milissegundos.
+     */
+    public long getCommitDelayMillis() {
+        return commitDelayMillis;
+    }
+
+    /**
+     * Define o intervalo para agrupar mutações em uma única gravação do diário.
+     * @param commitDelayMillis O intervalo em milissegundos (0 grava cada lote sem espera).
+     */
+    public void setCommitDelayMillis(long commitDelayMillis) {
+        this.commitDelayMillis = commitDelayMillis;
+    }
+
+    /**
+     * Obtém o número de meses anteriores ao atual cujas reservas são carregadas na inicialização.
+     * @return O número de meses.
+     */
+    public int getEagerPastMonths() {
+        return eagerPastMonths;
+    }
+
+    /**
+     * Define o número de meses anteriores ao atual cujas reservas são carregadas na inicialização.
+     * @param eagerPastMonths O número de meses.
+     */
+    public void setEagerPastMonths(int eagerPastMonths) {
+        this.eagerPastMonths = eagerPastMonths;
+    }
+
+    /**
+     * Obtém o armazenamento das reservas.
+     * @return O nome do armazenamento ({@code journal}, {@code mapped}, {@code serialized} ou {@code memory}).
+     */
+    public String getStorage() {
+        return storage;
+    }
+
+    /**
+     * Define o armazenamento das reservas.
+     * @param storage O nome do armazenamento ({@code journal}, {@code mapped}, {@code serialized} ou {@code memory}).
+     */
+    public void setStorage(String storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Obtém o diretório dos arquivos de dados.
+     * @return O caminho do diretório.
+     */
+    public String getDataDir() {
+        return dataDir;
+    }
+
+    /**
+     * Define o diretório dos arquivos de dados.
+     * @param dataDir O caminho do diretório.
+     */
+    public void setDataDir(String dataDir) {
+        this.dataDir = dataDir;
+    }
+}
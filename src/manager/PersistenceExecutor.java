@@ -0,0 +1,262 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Executor dedicado à gravação do diário, fora da thread da interface gráfica (EDT).
+ *
+ * As mutações são enfileiradas e gravadas por uma única thread. Depois de receber
+ * a primeira mutação de um lote, a thread espera um pequeno intervalo para agrupar
+ * as mutações seguintes (group commit), de forma que uma sequência rápida de
+ * alterações resulta em poucas gravações. O intervalo só é encurtado por
+ * {@link #flush()} ou {@link #shutdown()}; novas mutações entram no lote sem encerrá-lo.
+ * Cada mutação recebe um {@link CompletableFuture} que é concluído quando o lote que
+ * a contém é gravado e forçado em disco, ou com a exceção, se a gravação falhar.
+ *
+ * Cada mutação recebe também um número de sequência ({@link #getSequence()}). Quem
+ * precisa saber se as suas próprias mutações foram gravadas guarda o número antes de
+ * fazê-las e chama {@link #flush(long)} com ele; as falhas dos lotes são guardadas pelo
+ * número de sequência da última mutação do lote, de modo que um flush concorrente não
+ * as consome.
+ */
+public class PersistenceExecutor {
+    private static final int MAX_FAILURES = 64;
+
+    private final ReservationJournal journal;
+    private final long commitDelayMillis;
+    private final Runnable afterWrite;
+    private final Thread thread;
+
+    private final List<JournalEntry> queuedEntries = new ArrayList<>();
+    private final NavigableMap<Long, CompletableFuture<Void>> pendingFutures = new TreeMap<>();
+    private final NavigableMap<Long, Throwable> failures = new TreeMap<>();
+    private long sequence;
+    private long takenSequence;
+    private long reportedSequence;
+    private long prunedFailureSequence;
+    private Throwable prunedFailure;
+    private boolean flushRequested;
+    private boolean running = true;
+    private long writeCount;
+    private long entryCount;
+
+    /**
+     * Construtor do executor. A thread de gravação é iniciada imediatamente.
+     * @param journal O diário.
+     * @param commitDelayMillis O intervalo, em milissegundos, para agrupar mutações em um lote.
+     * @param afterWrite Ação executada após cada lote gravado (pode ser null).
+     */
+    public PersistenceExecutor(ReservationJournal journal, long commitDelayMillis, Runnable afterWrite) {
+        this.journal = journal;
+        this.commitDelayMillis = commitDelayMillis;
+        this.afterWrite = afterWrite;
+        this.thread = new Thread(this::run, "persistence");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Enfileira uma mutação para gravação.
+     * @param entry A mutação.
+     * @return Um future concluído quando a mutação estiver gravada em disco.
+     */
+    public synchronized CompletableFuture<Void> submit(JournalEntry entry) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Executor de persistência encerrado."));
+            return future;
+        }
+        queuedEntries.add(entry);
+        pendingFutures.put(++sequence, future);
+        notifyAll();
+        return future;
+    }
+
+    /**
+     * Obtém o número de sequência da última mutação enfileirada.
+     * @return O número de sequência, ou 0 se nenhuma mutação foi enfileirada.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Obtém um future concluído quando todas as mutações enfileiradas até agora estiverem
+     * gravadas, encerrando antes do prazo o intervalo de agrupamento do lote atual.
+     * O future falha se falhar a gravação de alguma dessas mutações, ou de alguma mutação
+     * enfileirada desde o flush anterior sem argumento.
+     * @return O future.
+     */
+    public synchronized CompletableFuture<Void> flush() {
+        long since = reportedSequence;
+        reportedSequence = sequence;
+        return flush(since);
+    }
+
+    /**
+     * Obtém um future concluído quando todas as mutações enfileiradas até agora estiverem
+     * gravadas, encerrando antes do prazo o intervalo de agrupamento do lote atual.
+     * O future falha se falhar a gravação de alguma mutação enfileirada depois do número
+     * de sequência indicado, mesmo que a falha tenha ocorrido antes desta chamada.
+     * @param sinceSequence O número de sequência obtido por {@link #getSequence()} antes
+     *                      das mutações a verificar.
+     * @return O future.
+     */
+    public synchronized CompletableFuture<Void> flush(long sinceSequence) {
+        Throwable failure = sinceSequence < prunedFailureSequence ? prunedFailure : null;
+        Map.Entry<Long, Throwable> failed = failures.higherEntry(sinceSequence);
+        if (failed != null) {
+            failure = failed.getValue();
+        }
+        Map<Long, CompletableFuture<Void>> waiting = pendingFutures.headMap(sequence, true);
+        CompletableFuture<Void> written = CompletableFuture.allOf(waiting.values().toArray(new CompletableFuture[0]));
+        if (!waiting.isEmpty()) {
+            flushRequested = true;
+            notifyAll();
+        }
+        if (failure == null) {
+            return written;
+        }
+        Throwable error = failure;
+        return written.handle((result, writeError) -> {
+            throw new CompletionException(error);
+        });
+    }
+
+    /**
+     * Grava as mutações pendentes e encerra a thread de gravação.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Obtém o número de gravações (lotes) realizadas.
+     * @return O número de gravações.
+     */
+    public synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * Obtém o número de mutações gravadas.
+     * @return O número de mutações.
+     */
+    public synchronized long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Laço da thread de gravação.
+     */
+    private void run() {
+        while (true) {
+            List<JournalEntry> entries;
+            long lastSequence;
+            synchronized (this) {
+                try {
+                    while (queuedEntries.isEmpty() && running) {
+                        wait();
+                    }
+                    if (queuedEntries.isEmpty()) {
+                        return;
+                    }
+                    long deadline = System.nanoTime() + commitDelayMillis * 1_000_000;
+                    long remainingMillis;
+                    while (running && !flushRequested
+                            && (remainingMillis = (deadline - System.nanoTime()) / 1_000_000) > 0) {
+                        wait(remainingMillis);
+                    }
+                } catch (InterruptedException e) {
+                    abort(new IllegalStateException("Gravação do diário interrompida."));
+                    return;
+                }
+                flushRequested = false;
+                entries = new ArrayList<>(queuedEntries);
+                queuedEntries.clear();
+                lastSequence = takenSequence + entries.size();
+                takenSequence = lastSequence;
+            }
+
+            Throwable error = null;
+            try {
+                journal.appendAll(entries);
+            } catch (Exception e) {
+                System.err.println("Erro ao gravar alterações no diário: " + e.getMessage());
+                error = e;
+            }
+            List<CompletableFuture<Void>> futures;
+            synchronized (this) {
+                if (error == null) {
+                    writeCount++;
+                    entryCount += entries.size();
+                } else {
+                    recordFailure(lastSequence, error);
+                }
+                Map<Long, CompletableFuture<Void>> written = pendingFutures.headMap(lastSequence, true);
+                futures = new ArrayList<>(written.values());
+                written.clear();
+            }
+            for (CompletableFuture<Void> future : futures) {
+                if (error == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            }
+
+            if (afterWrite != null) {
+                afterWrite.run();
+            }
+        }
+    }
+
+    /**
+     * Registra a falha de um lote, pelo número de sequência da sua última mutação. Só as
+     * falhas mais recentes são guardadas; das demais, fica a última, informada a quem
+     * verificar mutações anteriores a ela.
+     * @param lastSequence O número de sequência da última mutação do lote.
+     * @param error A exceção.
+     */
+    private void recordFailure(long lastSequence, Throwable error) {
+        failures.put(lastSequence, error);
+        if (failures.size() > MAX_FAILURES) {
+            Map.Entry<Long, Throwable> oldest = failures.pollFirstEntry();
+            prunedFailureSequence = oldest.getKey();
+            prunedFailure = oldest.getValue();
+        }
+    }
+
+    /**
+     * Encerra o executor sem gravar as mutações pendentes, concluindo os seus futures com a
+     * exceção, para que ninguém fique esperando por uma gravação que não acontecerá.
+     * Chamado com o monitor do executor.
+     * @param error A exceção.
+     */
+    private void abort(Throwable error) {
+        running = false;
+        System.err.println("Erro ao gravar alterações no diário: " + error.getMessage());
+        if (sequence > takenSequence) {
+            recordFailure(sequence, error);
+            takenSequence = sequence;
+        }
+        queuedEntries.clear();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(pendingFutures.values());
+        pendingFutures.clear();
+        futures.forEach(future -> future.completeExceptionally(error));
+    }
+}
@@ -0,0 +1,17 @@
+package manager;
+
+/**
+ * Uma alteração a ser aplicada ao {@link ReservationManager} pela
+ * {@link ReservationCommandQueue}.
+ * @param <T> O tipo do resultado.
+ */
+@FunctionalInterface
+public interface ReservationCommand<T> {
+    /**
+     * Aplica a alteração, na thread de escrita da fila.
+     * @param manager O gerenciador.
+     * @return O resultado.
+     * @throws Exception Se a alteração for recusada (por exemplo, por conflito).
+     */
+    T apply(ReservationManager manager) throws Exception;
+}
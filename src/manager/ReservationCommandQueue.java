@@ -0,0 +1,289 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.User;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fila de alterações do {@link ReservationManager} com um único escritor.
+ *
+ * As alterações são enviadas como comandos ({@link ReservationCommand}) e aplicadas, na
+ * ordem de envio, por uma única thread. A thread retira de uma vez todos os comandos
+ * enfileirados e os aplica em lote; assim, os escritores não disputam os bloqueios do
+ * gerenciador entre si, e uma rajada de alterações resulta em poucos lotes. Ao fim de
+ * cada lote é pedida uma única gravação ({@link ReservationManager#flush(long)}, com o
+ * número de sequência anterior ao lote, para verificar as mutações do próprio lote), e cada
+ * comando recebe um {@link CompletableFuture} concluído com o resultado quando o lote
+ * estiver gravado, com a falha da gravação se ela falhar, ou com a exceção do comando,
+ * imediatamente, se ele for recusado.
+ * A thread não espera a gravação: o lote seguinte é aplicado enquanto o anterior é gravado.
+ *
+ * Os ouvintes do gerenciador são notificados na thread de escrita.
+ */
+public class ReservationCommandQueue {
+    private final ReservationManager manager;
+    private final Thread thread;
+
+    private List<QueuedCommand<?>> queuedCommands = new ArrayList<>();
+    private boolean running = true;
+    private long batchCount;
+    private long commandCount;
+
+    /**
+     * Construtor da fila. A thread de escrita é iniciada imediatamente.
+     * @param manager O gerenciador.
+     */
+    public ReservationCommandQueue(ReservationManager manager) {
+        this.manager = manager;
+        this.thread = new Thread(this::run, "reservation-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Um comando enfileirado, com o seu future.
+     * @param <T> O tipo do resultado.
+     */
+    private static class QueuedCommand<T> {
+        private final ReservationCommand<T> command;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+
+        /**
+         * Construtor do comando enfileirado.
+         * @param command O comando.
+         */
+        QueuedCommand(ReservationCommand<T> command) {
+            this.command = command;
+        }
+
+        /**
+         * Aplica o comando, concluindo o future com a falha se ele for recusado. Erros
+         * também são repassados ao future, para não encerrar a thread de escrita com
+         * comandos esperando.
+         * @param manager O gerenciador.
+         * @return true se o comando foi aplicado.
+         */
+        boolean apply(ReservationManager manager) {
+            try {
+                result = command.apply(manager);
+                return true;
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+                return false;
+            }
+        }
+
+        /**
+         * Conclui o future do comando aplicado, com o resultado ou com a falha da gravação.
+         * @param error A falha da gravação, ou null se ela foi concluída.
+         */
+        void complete(Throwable error) {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    /**
+     * Enfileira um comando.
+     * @param command O comando.
+     * @param <T> O tipo do resultado.
+     * @return Um future concluído com o resultado quando o comando estiver aplicado e gravado.
+     */
+    public synchronized <T> CompletableFuture<T> submit(ReservationCommand<T> command) {
+        QueuedCommand<T> queued = new QueuedCommand<>(command);
+        if (!running) {
+            queued.future.completeExceptionally(new IllegalStateException("Fila de alterações encerrada."));
+            return queued.future;
+        }
+        queuedCommands.add(queued);
+        notifyAll();
+        return queued.future;
+    }
+
+    /**
+     * Enfileira uma reserva (ver {@link ReservationManager#makeReservation}).
+     * @param classroom A sala de aula a ser reservada.
+     * @param reservedBy O usuário que está fazendo a reserva.
+     * @param date A data da reserva.
+     * @param startTime A hora de início da reserva.
+     * @param endTime A hora de término da reserva.
+     * @param purpose O propósito da reserva.
+     * @return Um future com a reserva criada.
+     */
+    public CompletableFuture<Reservation> makeReservation(Classroom classroom, User reservedBy, LocalDate date,
+            LocalTime startTime, LocalTime endTime, String purpose) {
+        return submit(manager -> manager.makeReservation(classroom, reservedBy, date, startTime, endTime, purpose));
+    }
+
+    /**
+     * Enfileira a confirmação de uma reserva.
+     * @param reservation A reserva a ser confirmada.
+     * @return Um future concluído quando a reserva estiver confirmada.
+     */
+    public CompletableFuture<Void> confirmReservation(Reservation reservation) {
+        return submit(manager -> {
+            manager.confirmReservation(reservation);
+            return null;
+        });
+    }
+
+    /**
+     * Enfileira a rejeição de uma reserva.
+     * @param reservation A reserva a ser rejeitada.
+     * @param observation A observação para a rejeição.
+     * @return Um future concluído quando a reserva estiver rejeitada.
+     */
+    public CompletableFuture<Void> rejectReservation(Reservation reservation, String observation) {
+        return submit(manager -> {
+            manager.rejectReservation(reservation, observation);
+            return null;
+        });
+    }
+
+    /**
+     * Enfileira o cancelamento de uma reserva.
+     * @param reservation A reserva a ser cancelada.
+     * @param observation A observação para o cancelamento.
+     * @return Um future concluído quando a reserva estiver cancelada.
+     */
+    public CompletableFuture<Void> cancelReservation(Reservation reservation, String observation) {
+        return submit(manager -> {
+            manager.cancelReservation(reservation, observation);
+            return null;
+        });
+    }
+
+    /**
+     * Enfileira a exclusão de uma reserva.
+     * @param reservation A reserva a ser excluída.
+     * @return Um future concluído quando a reserva estiver excluída.
+     */
+    public CompletableFuture<Void> deleteReservation(Reservation reservation) {
+        return submit(manager -> {
+            manager.deleteReservation(reservation);
+            return null;
+        });
+    }
+
+    /**
+     * Enfileira a adição de uma sala de aula.
+     * @param classroom A sala de aula.
+     * @return Um future concluído quando a sala estiver adicionada.
+     */
+    public CompletableFuture<Void> addClassroom(Classroom classroom) {
+        return submit(manager -> {
+            manager.addClassroom(classroom);
+            return null;
+        });
+    }
+
+    /**
+     * Enfileira a remoção de uma sala de aula.
+     * @param classroom A sala de aula.
+     * @return Um future concluído quando a sala estiver removida.
+     */
+    public CompletableFuture<Void> removeClassroom(Classroom classroom) {
+        return submit(manager -> {
+            manager.removeClassroom(classroom);
+            return null;
+        });
+    }
+
+    /**
+     * Enfileira a adição de um usuário.
+     * @param user O usuário.
+     * @return Um future concluído quando o usuário estiver adicionado.
+     */
+    public CompletableFuture<Void> addUser(User user) {
+        return submit(manager -> {
+            manager.addUser(user);
+            return null;
+        });
+    }
+
+    /**
+     * Aplica os comandos pendentes e encerra a thread de escrita. Os comandos enviados
+     * depois do encerramento são recusados.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Obtém o número de lotes aplicados.
+     * @return O número de lotes.
+     */
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Obtém o número de comandos aplicados ou recusados.
+     * @return O número de comandos.
+     */
+    public synchronized long getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Laço da thread de escrita.
+     */
+    private void run() {
+        while (true) {
+            List<QueuedCommand<?>> batch;
+            synchronized (this) {
+                while (queuedCommands.isEmpty() && running) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (queuedCommands.isEmpty()) {
+                    return;
+                }
+                batch = queuedCommands;
+                queuedCommands = new ArrayList<>();
+            }
+
+            long sequence = manager.getWriteSequence();
+            List<QueuedCommand<?>> applied = new ArrayList<>(batch.size());
+            for (QueuedCommand<?> command : batch) {
+                if (command.apply(manager)) {
+                    applied.add(command);
+                }
+            }
+            synchronized (this) {
+                batchCount++;
+                commandCount += batch.size();
+            }
+            if (!applied.isEmpty()) {
+                CompletableFuture<Void> flushed;
+                try {
+                    flushed = manager.flush(sequence);
+                } catch (Throwable e) {
+                    flushed = CompletableFuture.failedFuture(e);
+                }
+                flushed.whenComplete((result, error) -> applied.forEach(command -> command.complete(error)));
+            }
+        }
+    }
+}
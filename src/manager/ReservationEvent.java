@@ -0,0 +1,145 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.User;
+
+/**
+ * Alteração feita pelo {@link ReservationManager}, publicada aos {@link ReservationListener}s
+ * para que cada tela aplique apenas a mudança, sem recarregar todos os dados.
+ */
+public class ReservationEvent {
+    /**
+     * Tipos de alteração.
+     */
+    public enum Type {
+        /** Uma reserva foi feita. */
+        RESERVATION_ADDED,
+        /** Uma reserva foi confirmada, rejeitada ou cancelada. */
+        RESERVATION_STATUS_CHANGED,
+        /** Uma reserva foi excluída. */
+        RESERVATION_DELETED,
+        /** Uma sala foi adicionada. */
+        CLASSROOM_ADDED,
+        /** Uma sala foi removida. */
+        CLASSROOM_REMOVED,
+        /** Um usuário foi adicionado. */
+        USER_ADDED
+    }
+
+    private final Type type;
+    private final Reservation reservation;
+    private final ReservationStatus previousStatus;
+    private final Classroom classroom;
+    private final User user;
+
+    /**
+     * Construtor do evento.
+     * @param type O tipo da alteração.
+     * @param reservation A reserva alterada, ou null.
+     * @param previousStatus O status anterior da reserva, nas mudanças de status, ou null.
+     * @param classroom A sala alterada, ou null.
+     * @param user O usuário alterado, ou null.
+     */
+    private ReservationEvent(Type type, Reservation reservation, ReservationStatus previousStatus, Classroom classroom,
+            User user) {
+        this.type = type;
+        this.reservation = reservation;
+        this.previousStatus = previousStatus;
+        this.classroom = classroom;
+        this.user = user;
+    }
+
+    /**
+     * Cria um evento de reserva feita ou excluída.
+     * @param type {@link Type#RESERVATION_ADDED} ou {@link Type#RESERVATION_DELETED}.
+     * @param reservation A reserva.
+     * @return O evento.
+     */
+    public static ReservationEvent ofReservation(Type type, Reservation reservation) {
+        return new ReservationEvent(type, reservation, null, reservation.getClassroom(), reservation.getReservedBy());
+    }
+
+    /**
+     * Cria um evento de mudança de status de uma reserva.
+     * @param reservation A reserva, já com o novo status.
+     * @param previousStatus O status anterior.
+     * @return O evento.
+     */
+    public static ReservationEvent ofStatusChange(Reservation reservation, ReservationStatus previousStatus) {
+        return new ReservationEvent(Type.RESERVATION_STATUS_CHANGED, reservation, previousStatus,
+                reservation.getClassroom(), reservation.getReservedBy());
+    }
+
+    /**
+     * Cria um evento de sala adicionada ou removida.
+     * @param type {@link Type#CLASSROOM_ADDED} ou {@link Type#CLASSROOM_REMOVED}.
+     * @param classroom A sala.
+     * @return O evento.
+     */
+    public static ReservationEvent ofClassroom(Type type, Classroom classroom) {
+        return new ReservationEvent(type, null, null, classroom, null);
+    }
+
+    /**
+     * Cria um evento de usuário adicionado.
+     * @param user O usuário.
+     * @return O evento.
+     */
+    public static ReservationEvent ofUser(User user) {
+        return new ReservationEvent(Type.USER_ADDED, null, null, null, user);
+    }
+
+    /**
+     * Obtém o tipo da alteração.
+     * @return O tipo.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Obtém a reserva alterada.
+     * @return A reserva, ou null nos eventos de sala e de usuário.
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Obtém o status anterior da reserva.
+     * @return O status, ou null se o evento não for de mudança de status.
+     */
+    public ReservationStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    /**
+     * Obtém a sala alterada, ou a sala da reserva alterada.
+     * @return A sala, ou null nos eventos de usuário.
+     */
+    public Classroom getClassroom() {
+        return classroom;
+    }
+
+    /**
+     * Obtém o usuário adicionado, ou o usuário da reserva alterada.
+     * @return O usuário, ou null nos eventos de sala.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Verifica se o evento muda as reservas confirmadas, que aparecem no calendário.
+     * @return true se a reserva alterada estava ou ficou confirmada.
+     */
+    public boolean affectsConfirmed() {
+        if (reservation == null) {
+            return false;
+        }
+        return reservation.getStatus() == ReservationStatus.CONFIRMED
+                || previousStatus == ReservationStatus.CONFIRMED;
+    }
+}
@@ -0,0 +1,175 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.ReservationStatus;
+import model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índices secundários das reservas: por ID, por usuário, por sala e por status.
+ * Cada consulta custa o tamanho do resultado, e não o do histórico de reservas. Dentro
+ * de cada chave as reservas ficam na ordem em que foram adicionadas. O índice também
+ * mantém as reservas ordenadas por {@link #NEWEST_FIRST}, para a listagem da
+ * administração. O {@link ReservationManager} adiciona as reservas mês a mês, à medida
+ * que os meses são indexados (ver {@link #addAll}).
+ *
+ * O status de uma reserva faz parte da chave do índice por status; toda mudança de
+ * status deve ser informada por {@link #updateStatus}. Os métodos são sincronizados,
+ * pois reservas de salas diferentes são alteradas em paralelo.
+ */
+public class ReservationIndex {
+    /** Ordem da listagem da administração: data e hora de início decrescentes, e ID crescente nos empates. */
+    public static final Comparator<Reservation> NEWEST_FIRST = Comparator.comparing(Reservation::getDate)
+            .thenComparing(Reservation::getStartTime)
+            .reversed()
+            .thenComparingInt(Reservation::getId);
+
+    private final Map<Integer, Reservation> byId = new HashMap<>();
+    private final Map<User, Set<Reservation>> byUser = new HashMap<>();
+    private final Map<Classroom, Set<Reservation>> byClassroom = new HashMap<>();
+    private final Map<ReservationStatus, Set<Reservation>> byStatus = new EnumMap<>(ReservationStatus.class);
+    private final List<Reservation> newestFirst = new ArrayList<>();
+
+    /**
+     * Adiciona várias reservas ao índice, como as de um mês recém-indexado, ordenando a
+     * listagem uma única vez.
+     * @param reservations As reservas.
+     */
+    public synchronized void addAll(Collection<Reservation> reservations) {
+        for (Reservation reservation : reservations) {
+            addToMaps(reservation);
+        }
+        newestFirst.addAll(reservations);
+        newestFirst.sort(NEWEST_FIRST);
+    }
+
+    /**
+     * Adiciona uma reserva ao índice.
+     * @param reservation A reserva.
+     */
+    public synchronized void add(Reservation reservation) {
+        addToMaps(reservation);
+        int position = Collections.binarySearch(newestFirst, reservation, NEWEST_FIRST);
+        newestFirst.add(position < 0 ? -position - 1 : position, reservation);
+    }
+
+    /**
+     * Adiciona uma reserva aos índices por chave.
+     * @param reservation A reserva.
+     */
+    private void addToMaps(Reservation reservation) {
+        byId.putIfAbsent(reservation.getId(), reservation);
+        byUser.computeIfAbsent(reservation.getReservedBy(), user -> new LinkedHashSet<>()).add(reservation);
+        byClassroom.computeIfAbsent(reservation.getClassroom(), classroom -> new LinkedHashSet<>()).add(reservation);
+        byStatus.computeIfAbsent(reservation.getStatus(), status -> new LinkedHashSet<>()).add(reservation);
+    }
+
+    /**
+     * Remove uma reserva do índice.
+     * @param reservation A reserva.
+     */
+    public synchronized void remove(Reservation reservation) {
+        byId.remove(reservation.getId(), reservation);
+        removeFrom(byUser, reservation.getReservedBy(), reservation);
+        removeFrom(byClassroom, reservation.getClassroom(), reservation);
+        removeFrom(byStatus, reservation.getStatus(), reservation);
+        int position = Collections.binarySearch(newestFirst, reservation, NEWEST_FIRST);
+        if (position >= 0) {
+            newestFirst.remove(position);
+        }
+    }
+
+    /**
+     * Move uma reserva para o status atual no índice por status.
+     * @param reservation A reserva, já com o novo status.
+     * @param previous O status anterior da reserva.
+     */
+    public synchronized void updateStatus(Reservation reservation, ReservationStatus previous) {
+        if (previous != reservation.getStatus() && removeFrom(byStatus, previous, reservation)) {
+            byStatus.computeIfAbsent(reservation.getStatus(), status -> new LinkedHashSet<>()).add(reservation);
+        }
+    }
+
+    /**
+     * Obtém uma reserva pelo ID.
+     * @param id O ID.
+     * @return A reserva, ou null se não houver.
+     */
+    public synchronized Reservation getById(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Obtém as reservas de um usuário.
+     * @param user O usuário.
+     * @return Uma lista das reservas.
+     */
+    public synchronized List<Reservation> getByUser(User user) {
+        return copy(byUser.get(user));
+    }
+
+    /**
+     * Obtém as reservas de uma sala.
+     * @param classroom A sala.
+     * @return Uma lista das reservas.
+     */
+    public synchronized List<Reservation> getByClassroom(Classroom classroom) {
+        return copy(byClassroom.get(classroom));
+    }
+
+    /**
+     * Obtém as reservas com um status.
+     * @param status O status.
+     * @return Uma lista das reservas.
+     */
+    public synchronized List<Reservation> getByStatus(ReservationStatus status) {
+        return copy(byStatus.get(status));
+    }
+
+    /**
+     * Obtém todas as reservas na ordem {@link #NEWEST_FIRST}.
+     * @return Uma lista das reservas.
+     */
+    public synchronized List<Reservation> getNewestFirst() {
+        return new ArrayList<>(newestFirst);
+    }
+
+    /**
+     * Remove uma reserva do conjunto de uma chave, descartando o conjunto se ficar vazio.
+     * @param index O índice.
+     * @param key A chave.
+     * @param reservation A reserva.
+     * @param <K> O tipo da chave.
+     * @return true se a reserva estava no conjunto.
+     */
+    private static <K> boolean removeFrom(Map<K, Set<Reservation>> index, K key, Reservation reservation) {
+        Set<Reservation> reservations = index.get(key);
+        if (reservations == null || !reservations.remove(reservation)) {
+            return false;
+        }
+        if (reservations.isEmpty()) {
+            index.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Copia um conjunto de reservas para uma lista.
+     * @param reservations O conjunto, ou null.
+     * @return A lista.
+     */
+    private static List<Reservation> copy(Set<Reservation> reservations) {
+        return reservations != null ? new ArrayList<>(reservations) : new ArrayList<>();
+    }
+}
@@ -0,0 +1,397 @@
+package manager;
+
+import model.ReservationStatus;
+import util.BinaryCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Diário (journal) de mutações, gravado apenas por adição (append-only).
+ * Cada mutação é gravada como um registro pequeno, de forma que uma operação
+ * custa O(1) bytes em disco, independentemente do tamanho dos dados.
+ *
+ * Formato de cada registro: tamanho (int), CRC32 (int), LSN (long), tipo (byte), conteúdo.
+ * Registros incompletos ou corrompidos no final do arquivo (por exemplo, após
+ * uma queda durante a gravação) são descartados na leitura.
+ *
+ * Em um checkpoint, o arquivo ativo é selado (renomeado com o LSN do último
+ * registro) e um novo arquivo é iniciado; os segmentos selados são apagados
+ * depois que o snapshot correspondente é gravado.
+ */
+public class ReservationJournal {
+    private final Path path;
+    private long lastLsn;
+    private int recordCount;
+
+    /**
+     * Construtor do diário.
+     * @param filename O caminho do arquivo do diário.
+     */
+    public ReservationJournal(String filename) {
+        this.path = Paths.get(filename);
+    }
+
+    /**
+     * Adiciona uma mutação ao final do diário.
+     * @param entry A mutação a ser gravada.
+     * @return O número de sequência (LSN) atribuído à mutação.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public long append(JournalEntry entry) throws IOException {
+        return appendAll(Collections.singletonList(entry));
+    }
+
+    /**
+     * Adiciona um lote de mutações ao final do diário com uma única gravação,
+     * forçada em disco antes de retornar.
+     * @param entries As mutações a serem gravadas, na ordem em que ocorreram.
+     * @return O número de sequência (LSN) atribuído à última mutação.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public synchronized long appendAll(List<JournalEntry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * entries.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        long lsn = lastLsn;
+        for (JournalEntry entry : entries) {
+            entry.setLsn(++lsn);
+            byte[] body = encode(entry);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            out.writeInt(body.length);
+            out.writeInt((int) crc.getValue());
+            out.write(body);
+        }
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        lastLsn = lsn;
+        recordCount += entries.size();
+        return lastLsn;
+    }
+
+    /**
+     * Lê as mutações válidas posteriores a um checkpoint, na ordem em que foram gravadas.
+     * Os segmentos selados são lidos antes do arquivo ativo. Se houver um registro
+     * incompleto ou corrompido, o segmento é truncado nesse ponto.
+     * @param afterLsn O LSN do último checkpoint; mutações com LSN menor ou igual são ignoradas.
+     * @return A lista de mutações.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public synchronized List<JournalEntry> readAll(long afterLsn) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        lastLsn = Math.max(lastLsn, afterLsn);
+
+        List<Path> segments = sealedSegments();
+        segments.add(path);
+        for (Path segment : segments) {
+            for (JournalEntry entry : readSegment(segment)) {
+                lastLsn = Math.max(lastLsn, entry.getLsn());
+                if (entry.getLsn() > afterLsn) {
+                    entries.add(entry);
+                }
+            }
+        }
+        recordCount = entries.size();
+        return entries;
+    }
+
+    /**
+     * Sela o arquivo ativo, para que novas mutações sejam gravadas em um novo arquivo.
+     * @return O LSN da última mutação contida nos segmentos selados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public synchronized long seal() throws IOException {
+        if (Files.exists(path) && Files.size(path) > 0) {
+            Files.move(path, path.resolveSibling(path.getFileName() + "." + lastLsn),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        recordCount = 0;
+        return lastLsn;
+    }
+
+    /**
+     * Sela o arquivo ativo e grava de novo, no novo arquivo, as mutações selecionadas entre as
+     * posteriores a um checkpoint, para que continuem no diário depois que os segmentos selados
+     * forem apagados. Nenhuma outra gravação ocorre entre a selagem e a regravação.
+     * @param afterLsn O LSN do último checkpoint.
+     * @param carried Seleciona as mutações a manter no diário.
+     * @return O LSN da última mutação contida nos segmentos selados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public synchronized long seal(long afterLsn, Predicate<JournalEntry> carried) throws IOException {
+        List<JournalEntry> kept = new ArrayList<>();
+        for (JournalEntry entry : readAll(afterLsn)) {
+            if (carried.test(entry)) {
+                kept.add(entry);
+            }
+        }
+        long lsn = seal();
+        if (!kept.isEmpty()) {
+            appendAll(kept);
+        }
+        return lsn;
+    }
+
+    /**
+     * Apaga os segmentos selados que já estão contidos em um snapshot.
+     * @param lsn O LSN do snapshot gravado.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public synchronized void discardUpTo(long lsn) throws IOException {
+        for (Path segment : sealedSegments()) {
+            if (segmentLsn(segment) <= lsn) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    /**
+     * Obtém o tamanho do arquivo ativo do diário em bytes.
+     * @return O tamanho em bytes.
+     */
+    public long size() {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Obtém o número de mutações gravadas desde o último checkpoint.
+     * @return O número de mutações.
+     */
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Lista os segmentos selados, em ordem crescente de LSN.
+     * @return Os caminhos dos segmentos.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private List<Path> sealedSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        Path dir = path.toAbsolutePath().getParent();
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+        String prefix = path.getFileName() + ".";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path segment : stream) {
+                if (segmentLsn(segment) >= 0) {
+                    segments.add(segment);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(this::segmentLsn));
+        return segments;
+    }
+
+    /**
+     * Obtém o LSN de um segmento selado a partir do nome do arquivo.
+     * @param segment O caminho do segmento.
+     * @return O LSN, ou -1 se o nome não for de um segmento.
+     */
+    private long segmentLsn(Path segment) {
+        String name = segment.getFileName().toString();
+        String prefix = path.getFileName() + ".";
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Lê as mutações válidas de um segmento, truncando um final incompleto.
+     * @param segment O caminho do segmento.
+     * @return A lista de mutações.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private List<JournalEntry> readSegment(Path segment) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        if (!Files.exists(segment)) {
+            return entries;
+        }
+
+        long validLength = 0;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long fileLength = file.length();
+            while (validLength + 8 <= fileLength) {
+                file.seek(validLength);
+                int length = file.readInt();
+                int checksum = file.readInt();
+                if (length <= 0 || validLength + 8 + length > fileLength) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                file.readFully(body);
+
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                JournalEntry entry = decode(body);
+                if (entry == null) {
+                    break;
+                }
+                entries.add(entry);
+                validLength += 8 + length;
+            }
+
+            if (validLength < fileLength) {
+                System.err.println("Diário com registro incompleto; descartando " + (fileLength - validLength) + " bytes.");
+                file.setLength(validLength);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Codifica uma mutação.
+     * @param entry A mutação.
+     * @return Os bytes codificados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private byte[] encode(JournalEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(entry.getLsn());
+        out.writeByte(entry.getType().getCode());
+
+        switch (entry.getType()) {
+            case ADD_CLASSROOM:
+                BinaryCodec.writeClassroom(out, entry.getClassroom());
+                break;
+            case REMOVE_CLASSROOM:
+                out.writeUTF(entry.getKey());
+                break;
+            case ADD_USER:
+                BinaryCodec.writeUser(out, entry.getUser());
+                break;
+            case UPDATE_PASSWORD:
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getPassword());
+                break;
+            case ADD_RESERVATION:
+                BinaryCodec.writeReservation(out, entry.getReservation());
+                break;
+            case UPDATE_RESERVATION:
+                out.writeInt(entry.getReservationId());
+                out.writeByte(BinaryCodec.statusCode(entry.getStatus()));
+                out.writeUTF(entry.getObservation() != null ? entry.getObservation() : "");
+                writeReservationDate(out, entry.getReservationDate());
+                break;
+            case DELETE_RESERVATION:
+                out.writeInt(entry.getReservationId());
+                writeReservationDate(out, entry.getReservationDate());
+                break;
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Grava a data de uma reserva, se conhecida, no fim do registro.
+     * @param out O fluxo de saída.
+     * @param date A data, ou null.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private static void writeReservationDate(DataOutputStream out, LocalDate date) throws IOException {
+        if (date != null) {
+            out.writeLong(date.toEpochDay());
+        }
+    }
+
+    /**
+     * Lê a data de uma reserva do fim do registro. Registros gravados por versões
+     * anteriores não têm a data.
+     * @param in O fluxo de entrada.
+     * @return A data, ou null se o registro não a contiver.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private static LocalDate readReservationDate(DataInputStream in) throws IOException {
+        return in.available() >= Long.BYTES ? LocalDate.ofEpochDay(in.readLong()) : null;
+    }
+
+    /**
+     * Decodifica uma mutação.
+     * @param body Os bytes do registro.
+     * @return A mutação, ou null se o tipo for desconhecido.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private JournalEntry decode(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        try {
+            long lsn = in.readLong();
+            JournalEntry.Type type = JournalEntry.Type.fromCode(in.readByte());
+            if (type == null) {
+                return null;
+            }
+
+            JournalEntry entry;
+            switch (type) {
+                case ADD_CLASSROOM:
+                    entry = JournalEntry.addClassroom(BinaryCodec.readClassroom(in));
+                    break;
+                case REMOVE_CLASSROOM:
+                    entry = JournalEntry.removeClassroom(in.readUTF());
+                    break;
+                case ADD_USER:
+                    entry = JournalEntry.addUser(BinaryCodec.readUser(in));
+                    break;
+                case UPDATE_PASSWORD:
+                    entry = JournalEntry.updatePassword(in.readUTF(), in.readUTF());
+                    break;
+                case ADD_RESERVATION:
+                    entry = JournalEntry.addReservation(BinaryCodec.readReservation(in));
+                    break;
+                case UPDATE_RESERVATION:
+                    int updatedId = in.readInt();
+                    ReservationStatus status = BinaryCodec.statusFromCode(in.readUnsignedByte());
+                    String observation = in.readUTF();
+                    entry = JournalEntry.updateReservation(updatedId, readReservationDate(in), status, observation);
+                    break;
+                case DELETE_RESERVATION:
+                    int deletedId = in.readInt();
+                    entry = JournalEntry.deleteReservation(deletedId, readReservationDate(in));
+                    break;
+                default:
+                    return null;
+            }
+            entry.setLsn(lsn);
+            return entry;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package manager;
+
+/**
+ * Recebe as alterações publicadas pelo {@link ReservationManager}.
+ */
+public interface ReservationListener {
+    /**
+     * Chamado depois de cada alteração, na thread que a fez e ainda sob o bloqueio do
+     * gerenciador; deve ser rápido, não bloquear e não chamar o gerenciador. Telas Swing devem repassar o evento
+     * à thread de eventos com {@link javax.swing.SwingUtilities#invokeLater}.
+     * @param event O evento.
+     */
+    void reservationChanged(ReservationEvent event);
+}
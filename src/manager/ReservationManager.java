@@ -1,54 +1,169 @@
 package manager;
 
+import model.Administrator;
 import model.Classroom;
 import model.Reservation;
 import model.ReservationStatus;
+import model.Student;
 import model.User;
 import exception.ReservationConflictException;
 import exception.UserConflictException;
-import util.FileUtil;
 
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 
 /**
  * Gerencia as reservas, salas de aula e usuários.
+ * Concentra as regras de negócio (validações e conflitos) e delega a guarda e a
+ * persistência dos dados a um {@link ReservationRepository}, escolhido pela
+ * propriedade {@code salas.storage} (ver {@link PersistenceConfig}).
+ * Os dados são carregados em segundo plano (ver {@link #loadData()}). Os IDs das novas
+ * reservas são gerados pelo gerenciador, a partir do maior ID guardado no repositório.
+ *
+ * O gerenciador pode ser usado por várias threads. As operações sobre uma reserva
+ * (fazer, confirmar, rejeitar, cancelar e excluir) tomam o bloqueio da sala, escolhido
+ * entre {@value #ROOM_LOCK_STRIPES} bloqueios pelo hash da sala, com acesso
+ * compartilhado ao gerenciador: reservas de salas diferentes são feitas em paralelo, e a
+ * verificação de conflito e a inclusão são atômicas para cada sala. As consultas de
+ * horários (salas disponíveis, resumo do mês e reservas do dia) também usam o acesso
+ * compartilhado e não bloqueiam as reservas. As operações que alteram salas ou usuários
+ * tomam o acesso exclusivo, assim como a montagem dos índices e a indexação de um mês
+ * ainda não consultado, feita antes de tomar o acesso compartilhado.
+ *
+ * As reservas são indexadas mês a mês, no índice de horários e no
+ * {@link ReservationIndex}: um mês é indexado quando uma operação ou consulta de
+ * horários o acessa, e as consultas por ID, usuário, sala ou status indexam antes os
+ * meses que podem conter o resultado, escolhidos pelo repositório a partir das chaves
+ * de cada mês ({@link ReservationRepository#findReservationMonths}), sem carregar o
+ * histórico inteiro. Os ouvintes são
+ * notificados na thread que fez a alteração, ainda sob o bloqueio.
+ * Para aplicar todas as alterações por uma única thread, em lotes, ver
+ * {@link ReservationCommandQueue}.
+ *
+ * As listas de todas as salas, usuários e reservas são lidas de cópias imutáveis e
+ * versionadas ({@link Snapshot}), obtidas sem copiar as coleções. As cópias das salas e
+ * dos usuários são publicadas a cada alteração. A das reservas
+ * ({@link ReservationSnapshot}) é publicada por quem altera as reservas, a cada
+ * inclusão, exclusão ou mudança de status, copiando apenas o mês alterado; as reservas de
+ * salas diferentes, alteradas em paralelo, publicam as suas versões uma de cada vez.
  */
 public class ReservationManager implements Serializable {
     private static final long serialVersionUID = 1L;
-    
-    private List<Classroom> classrooms;
-    private List<Reservation> reservations;
-    private List<User> users;
-    
-    private static final String CLASSROOMS_FILE = "../data/classrooms.txt";
-    private static final String RESERVATIONS_FILE = "../data/reservations.txt";
-    private static final String USERS_FILE = "../data/users.txt";
-    
+
+    private static final int LOADER_THREADS = 4;
+    private static final int ROOM_LOCK_STRIPES = 64;
+
+    private transient ReservationRepository repository;
+    private transient volatile CompletableFuture<Void> classroomsLoaded;
+    private transient volatile CompletableFuture<Void> usersLoaded;
+    private transient volatile CompletableFuture<Void> reservationsLoaded;
+    private transient ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private transient Lock[] roomLocks = createRoomLocks();
+    private transient ScheduleIndex scheduleIndex = new ScheduleIndex();
+    private transient Set<YearMonth> indexedMonths = ConcurrentHashMap.newKeySet();
+    private transient volatile Map<String, Classroom> classroomsByName;
+    private transient volatile Map<String, User> usersByUsername;
+    private transient volatile ReservationIndex reservationIndex = new ReservationIndex();
+    private transient volatile ClassroomCatalog classroomCatalog;
+    private transient AtomicLong lastVersion = new AtomicLong();
+    private transient AtomicInteger lastReservationId = new AtomicInteger();
+    private transient volatile Snapshot<Classroom> classroomsSnapshot;
+    private transient volatile Snapshot<User> usersSnapshot;
+    private transient volatile ReservationSnapshot reservationsSnapshot;
+    private transient volatile boolean allMonthsIndexed;
+    private transient Object reservationsSnapshotLock = new Object();
+    private transient List<ReservationListener> listeners = new CopyOnWriteArrayList<>();
+
     /**
-     * Construtor do gerenciador de reservas.
+     * Construtor do gerenciador de reservas, configurado pelas propriedades de sistema.
      */
     public ReservationManager() {
-        this.classrooms = new ArrayList<>();
-        this.reservations = new ArrayList<>();
-        this.users = new ArrayList<>();
+        this(PersistenceConfig.fromSystemProperties());
+    }
+
+    /**
+     * Construtor do gerenciador de reservas.
+     * @param config A configuração de persistência.
+     */
+    public ReservationManager(PersistenceConfig config) {
+        this(createRepository(config));
+    }
+
+    /**
+     * Construtor do gerenciador de reservas.
+     * @param repository O repositório dos dados.
+     */
+    public ReservationManager(ReservationRepository repository) {
+        this.repository = repository;
         loadData();
     }
 
+    /**
+     * Cria o repositório indicado pela configuração.
+     * @param config A configuração de persistência.
+     * @return O repositório.
+     */
+    private static ReservationRepository createRepository(PersistenceConfig config) {
+        switch (config.getStorage()) {
+            case "memory":
+                return new InMemoryReservationRepository();
+            case "serialized":
+                return new SerializedFileReservationRepository(config.getDataDir());
+            case "journal":
+            case "mapped":
+                return new JournaledReservationRepository(config);
+            default:
+                System.err.println("Armazenamento desconhecido: " + config.getStorage() + ". Usando journal.");
+                return new JournaledReservationRepository(config);
+        }
+    }
+
     /**
      * Adiciona uma sala de aula.
      * @param classroom A sala de aula a ser adicionada.
      */
     public void addClassroom(Classroom classroom) {
-        if (!classrooms.contains(classroom)) {
-            classrooms.add(classroom);
-            saveData();
-        } else {
-            System.out.println("Sala " + classroom.getName() + " já existe.");
+        awaitLoaded(classroomsLoaded);
+        lock.writeLock().lock();
+        try {
+            if (!repository.getClassrooms().contains(classroom)) {
+                repository.addClassroom(classroom);
+                if (classroomsByName != null) {
+                    classroomsByName.putIfAbsent(foldCase(classroom.getName()), classroom);
+                }
+                if (classroomCatalog != null) {
+                    classroomCatalog.add(classroom);
+                }
+                classroomsSnapshot = takeSnapshot(repository.getClassrooms());
+                fireEvent(ReservationEvent.ofClassroom(ReservationEvent.Type.CLASSROOM_ADDED, classroom));
+            } else {
+                System.out.println("Sala " + classroom.getName() + " já existe.");
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -57,11 +172,21 @@ public class ReservationManager implements Serializable {
      * @param classroom A sala de aula a ser removida.
      */
     public void removeClassroom(Classroom classroom) {
-        if (classrooms.contains(classroom)) {
-            classrooms.remove(classroom);
-            saveData();
-        } else {
-            System.out.println("Sala " + classroom.getName() + "não existe.");
+        awaitLoaded(classroomsLoaded);
+        lock.writeLock().lock();
+        try {
+            if (repository.getClassrooms().contains(classroom)) {
+                repository.removeClassroom(classroom);
+                // Outra sala com o mesmo nome em outra caixa pode assumir a chave; o índice é refeito na próxima busca.
+                classroomsByName = null;
+                classroomCatalog = null;
+                classroomsSnapshot = takeSnapshot(repository.getClassrooms());
+                fireEvent(ReservationEvent.ofClassroom(ReservationEvent.Type.CLASSROOM_REMOVED, classroom));
+            } else {
+                System.out.println("Sala " + classroom.getName() + "não existe.");
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -71,18 +196,70 @@ public class ReservationManager implements Serializable {
      * @return A sala de aula, ou null se não for encontrada.
      */
     public Classroom getClassroomByName(String name) {
-        return classrooms.stream()
-                .filter(c -> c.getName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(null);
+        awaitLoaded(classroomsLoaded);
+        if (name == null) {
+            return null;
+        }
+        Map<String, Classroom> index = classroomsByName();
+        lock.readLock().lock();
+        try {
+            return index.get(foldCase(name));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém o índice das salas por nome, montando-o com acesso exclusivo na primeira busca.
+     * @return O índice.
+     */
+    private Map<String, Classroom> classroomsByName() {
+        Map<String, Classroom> index = classroomsByName;
+        if (index == null) {
+            lock.writeLock().lock();
+            try {
+                if (classroomsByName == null) {
+                    Map<String, Classroom> built = new HashMap<>();
+                    for (Classroom classroom : repository.getClassrooms()) {
+                        built.putIfAbsent(foldCase(classroom.getName()), classroom);
+                    }
+                    classroomsByName = built;
+                }
+                index = classroomsByName;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return index;
     }
 
     /**
      * Obtém todas as salas de aula.
-     * @return Uma lista de todas as salas de aula.
+     * @return Uma lista somente leitura de todas as salas de aula (ver {@link #getClassroomsSnapshot()}).
      */
     public List<Classroom> getAllClassrooms() {
-        return new ArrayList<>(classrooms);
+        return getClassroomsSnapshot().getItems();
+    }
+
+    /**
+     * Obtém a cópia atual das salas de aula, montando-a com acesso exclusivo na primeira leitura.
+     * @return A cópia.
+     */
+    public Snapshot<Classroom> getClassroomsSnapshot() {
+        awaitLoaded(classroomsLoaded);
+        Snapshot<Classroom> snapshot = classroomsSnapshot;
+        if (snapshot == null) {
+            lock.writeLock().lock();
+            try {
+                if (classroomsSnapshot == null) {
+                    classroomsSnapshot = takeSnapshot(repository.getClassrooms());
+                }
+                snapshot = classroomsSnapshot;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return snapshot;
     }
 
     /**
@@ -91,12 +268,36 @@ public class ReservationManager implements Serializable {
      * @throws UserConflictException Se o usuário já existir.
      */
     public void addUser(User user) throws UserConflictException {
-        if (!users.stream().anyMatch(u -> u.getUsername().equalsIgnoreCase(user.getUsername()))) {
-            users.add(user);
-            saveData();
-        } else {
-            throw new UserConflictException("Nome de usuário já existe. Por favor, escolha outro.");
+        awaitLoaded(usersLoaded);
+        lock.writeLock().lock();
+        try {
+            Map<String, User> index = usersByUsername();
+            if (index.get(foldCase(user.getUsername())) == null) {
+                repository.addUser(user);
+                index.put(foldCase(user.getUsername()), user);
+                usersSnapshot = takeSnapshot(repository.getUsers());
+                fireEvent(ReservationEvent.ofUser(user));
+            } else {
+                throw new UserConflictException("Nome de usuário já existe. Por favor, escolha outro.");
 
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Altera a senha de um usuário.
+     * @param user O usuário.
+     * @param newPassword A nova senha.
+     */
+    public void updateUserPassword(User user, String newPassword) {
+        awaitLoaded(usersLoaded);
+        lock.readLock().lock();
+        try {
+            repository.updateUserPassword(user, newPassword);
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
@@ -106,18 +307,71 @@ public class ReservationManager implements Serializable {
      * @return O usuário, ou null se não for encontrado.
      */
     public User getUserByUsername(String username) {
-        return users.stream()
-                .filter(u -> u.getUsername().equalsIgnoreCase(username))
-                .findFirst()
-                .orElse(null);
+        awaitLoaded(usersLoaded);
+        if (username == null) {
+            return null;
+        }
+        Map<String, User> index = usersByUsername();
+        lock.readLock().lock();
+        try {
+            return index.get(foldCase(username));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém o índice dos usuários por nome de usuário, montando-o com acesso exclusivo na
+     * primeira busca.
+     * @return O índice.
+     */
+    private Map<String, User> usersByUsername() {
+        Map<String, User> index = usersByUsername;
+        if (index == null) {
+            lock.writeLock().lock();
+            try {
+                if (usersByUsername == null) {
+                    Map<String, User> built = new HashMap<>();
+                    for (User user : repository.getUsers()) {
+                        built.putIfAbsent(foldCase(user.getUsername()), user);
+                    }
+                    usersByUsername = built;
+                }
+                index = usersByUsername;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return index;
     }
 
     /**
      * Obtém todos os usuários.
-     * @return Uma lista de todos os usuários.
+     * @return Uma lista somente leitura de todos os usuários (ver {@link #getUsersSnapshot()}).
      */
     public List<User> getAllUsers() {
-        return new ArrayList<>(users);
+        return getUsersSnapshot().getItems();
+    }
+
+    /**
+     * Obtém a cópia atual dos usuários, montando-a com acesso exclusivo na primeira leitura.
+     * @return A cópia.
+     */
+    public Snapshot<User> getUsersSnapshot() {
+        awaitLoaded(usersLoaded);
+        Snapshot<User> snapshot = usersSnapshot;
+        if (snapshot == null) {
+            lock.writeLock().lock();
+            try {
+                if (usersSnapshot == null) {
+                    usersSnapshot = takeSnapshot(repository.getUsers());
+                }
+                snapshot = usersSnapshot;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return snapshot;
     }
 
     /**
@@ -128,10 +382,12 @@ public class ReservationManager implements Serializable {
      * @param startTime A hora de início da reserva.
      * @param endTime A hora de término da reserva.
      * @param purpose O propósito da reserva.
+     * @return A reserva criada, pendente.
      * @throws ReservationConflictException Se houver um conflito de reserva.
      */
-    public void makeReservation(Classroom classroom, User reservedBy, LocalDate date, LocalTime startTime,
+    public Reservation makeReservation(Classroom classroom, User reservedBy, LocalDate date, LocalTime startTime,
             LocalTime endTime, String purpose) throws ReservationConflictException {
+        awaitLoaded(reservationsLoaded);
         if (startTime.isAfter(endTime) || startTime.equals(endTime)) {
             throw new IllegalArgumentException("Hora de início deve ser anterior à hora de término.");
         }
@@ -139,12 +395,10 @@ public class ReservationManager implements Serializable {
             throw new IllegalArgumentException("Não é possível reservar para uma data passada.");
         }
 
-        Reservation newReservation = new Reservation(classroom, reservedBy, date, startTime, endTime, purpose);
-
-        for (Reservation existingReservation : reservations) {
-            if (existingReservation.getStatus().equals(ReservationStatus.CONFIRMED)
-                    && newReservation.conflictsWith(existingReservation)) {
-                Reservation.setNextReservationId(Reservation.getNextId() - 1);
+        Lock roomLock = lockRoom(classroom, YearMonth.from(date));
+        try {
+            Reservation existingReservation = scheduleIndex.findConflict(classroom, date, startTime, endTime);
+            if (existingReservation != null) {
                 throw new ReservationConflictException(
                         "Conflito de reserva! A sala " + classroom.getName() +
                                 " já está confirmada para " + existingReservation.getReservedBy().getUsername() +
@@ -152,10 +406,18 @@ public class ReservationManager implements Serializable {
                                 " às " + existingReservation.getEndTime() +
                                 " em " + existingReservation.getDate() + ".");
             }
-        }
 
-        reservations.add(newReservation);
-        saveData();
+            // O ID só é gerado depois da verificação, para que um conflito não consuma um ID.
+            Reservation newReservation = new Reservation(lastReservationId.incrementAndGet(), classroom, reservedBy,
+                    date, startTime, endTime, purpose);
+            repository.addReservation(newReservation);
+            reservationIndex.add(newReservation);
+            publishReservations((snapshot, version) -> snapshot.withReservation(version, newReservation));
+            fireEvent(ReservationEvent.ofReservation(ReservationEvent.Type.RESERVATION_ADDED, newReservation));
+            return newReservation;
+        } finally {
+            unlockRoom(roomLock);
+        }
     }
 
     /**
@@ -166,16 +428,15 @@ public class ReservationManager implements Serializable {
      * @return Uma lista de salas de aula disponíveis.
      */
     public List<Classroom> findAvailableClassrooms(LocalDate date, LocalTime startTime, LocalTime endTime) {
-        List<Classroom> available = new ArrayList<>(classrooms);
-
-        for (Reservation res : reservations) {
-            if (res.getStatus().equals(ReservationStatus.CONFIRMED) && res.getDate().equals(date) &&
-                    !(endTime.isBefore(res.getStartTime()) || startTime.isAfter(res.getEndTime())
-                            || startTime.equals(res.getEndTime()))) {
-                available.remove(res.getClassroom());
-            }
+        awaitLoaded(reservationsLoaded);
+        lockMonth(YearMonth.from(date));
+        try {
+            List<Classroom> available = new ArrayList<>(repository.getClassrooms());
+            available.removeAll(scheduleIndex.findOccupiedClassrooms(date, startTime, endTime));
+            return available;
+        } finally {
+            lock.readLock().unlock();
         }
-        return available;
     }
 
     /**
@@ -188,17 +449,159 @@ public class ReservationManager implements Serializable {
      */
     public List<Classroom> findAvailableClassrooms(LocalDate date, LocalTime startTime, LocalTime endTime,
             int minCapacity) {
-        return findAvailableClassrooms(date, startTime, endTime).stream()
-                .filter(c -> c.getCapacity() >= minCapacity)
-                .collect(Collectors.toList());
+        return findAvailableClassrooms(date, startTime, endTime, minCapacity, false, null, null);
+    }
+
+    /**
+     * Encontra as salas de aula disponíveis com os atributos pedidos. As salas são
+     * filtradas pelo catálogo antes da consulta aos horários, que só é feita para as
+     * salas com todos os atributos.
+     * @param date A data da reserva.
+     * @param startTime A hora de início da reserva.
+     * @param endTime A hora de término da reserva.
+     * @param minCapacity A capacidade mínima.
+     * @param needsProjector Se a sala precisa ter projetor.
+     * @param location A localização, ou null para qualquer uma.
+     * @param features As características exigidas, ou null para nenhuma.
+     * @return Uma lista de salas de aula disponíveis.
+     */
+    public List<Classroom> findAvailableClassrooms(LocalDate date, LocalTime startTime, LocalTime endTime,
+            int minCapacity, boolean needsProjector, String location, Collection<String> features) {
+        awaitLoaded(reservationsLoaded);
+        classroomCatalog();
+        lockMonth(YearMonth.from(date));
+        try {
+            ClassroomCatalog catalog = classroomCatalog;
+            if (catalog == null) {
+                // Descartado por loadData depois de montado: uma cópia local atende esta busca.
+                catalog = new ClassroomCatalog(repository.getClassrooms());
+            }
+            BitSet candidates = catalog.find(minCapacity, needsProjector, location, features);
+            List<Classroom> available = new ArrayList<>(candidates.cardinality());
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                Classroom classroom = catalog.get(i);
+                if (!scheduleIndex.isOccupied(classroom, date, startTime, endTime)) {
+                    available.add(classroom);
+                }
+            }
+            return available;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém o catálogo das salas, montando-o com acesso exclusivo na primeira busca.
+     * @return O catálogo.
+     */
+    private ClassroomCatalog classroomCatalog() {
+        ClassroomCatalog catalog = classroomCatalog;
+        if (catalog == null) {
+            lock.writeLock().lock();
+            try {
+                if (classroomCatalog == null) {
+                    classroomCatalog = new ClassroomCatalog(repository.getClassrooms());
+                }
+                catalog = classroomCatalog;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return catalog;
     }
 
     /**
      * Obtém todas as reservas.
-     * @return Uma lista de todas as reservas.
+     * @return Uma lista somente leitura de todas as reservas (ver {@link #getReservationsSnapshot()}).
      */
     public List<Reservation> getAllReservations() {
-        return new ArrayList<>(reservations);
+        return getReservationsSnapshot().getItems();
+    }
+
+    /**
+     * Obtém a versão atual das reservas, publicada pela última alteração, sem bloqueios.
+     * Apenas a primeira leitura depois de carregados os dados indexa, com acesso
+     * exclusivo, os meses ainda não indexados.
+     * @return A versão.
+     */
+    public ReservationSnapshot getReservationsSnapshot() {
+        awaitLoaded(reservationsLoaded);
+        if (!allMonthsIndexed) {
+            lock.writeLock().lock();
+            try {
+                indexMonths(repository.findReservationMonths(keys -> true));
+                allMonthsIndexed = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return reservationsSnapshot;
+    }
+
+    /**
+     * Obtém uma reserva pelo ID.
+     * @param id O ID da reserva.
+     * @return A reserva, ou null se não for encontrada.
+     */
+    public Reservation getReservationById(int id) {
+        awaitLoaded(reservationsLoaded);
+        Reservation reservation = reservationIndex.getById(id);
+        return reservation != null ? reservation : reservationIndex(keys -> keys.containsId(id)).getById(id);
+    }
+
+    /**
+     * Obtém todas as reservas, das mais recentes para as mais antigas (ver
+     * {@link ReservationIndex#NEWEST_FIRST}), sem ordenar a cada chamada.
+     * @return Uma lista de todas as reservas.
+     */
+    public List<Reservation> getReservationsNewestFirst() {
+        awaitLoaded(reservationsLoaded);
+        return reservationIndex(keys -> true).getNewestFirst();
+    }
+
+    /**
+     * Obtém as reservas de um mês, carregando a partição do mês se necessário.
+     * @param month O mês.
+     * @return Uma lista das reservas do mês.
+     */
+    public List<Reservation> getReservationsByMonth(YearMonth month) {
+        awaitLoaded(reservationsLoaded);
+        lock.readLock().lock();
+        try {
+            return repository.getReservationsByMonth(month);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém o resumo das reservas confirmadas de um mês, por dia.
+     * @param month O mês.
+     * @return O resumo.
+     */
+    public MonthSummary getMonthSummary(YearMonth month) {
+        awaitLoaded(reservationsLoaded);
+        lockMonth(month);
+        try {
+            return scheduleIndex.summarize(month);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém as reservas confirmadas de um dia.
+     * @param date O dia.
+     * @return Uma lista das reservas, ordenadas pela hora de início.
+     */
+    public List<Reservation> getConfirmedReservationsByDate(LocalDate date) {
+        awaitLoaded(reservationsLoaded);
+        lockMonth(YearMonth.from(date));
+        try {
+            return scheduleIndex.getReservations(date);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -207,9 +610,8 @@ public class ReservationManager implements Serializable {
      * @return Uma lista de reservas para o usuário.
      */
     public List<Reservation> getReservationsByUser(User user) {
-        return reservations.stream()
-                .filter(r -> r.getReservedBy().equals(user))
-                .collect(Collectors.toList());
+        awaitLoaded(reservationsLoaded);
+        return reservationIndex(keys -> keys.containsUser(user)).getByUser(user);
     }
 
     /**
@@ -218,9 +620,8 @@ public class ReservationManager implements Serializable {
      * @return Uma lista de reservas para a sala de aula.
      */
     public List<Reservation> getReservationsByClassroom(Classroom classroom) {
-        return reservations.stream()
-                .filter(r -> r.getClassroom().equals(classroom))
-                .collect(Collectors.toList());
+        awaitLoaded(reservationsLoaded);
+        return reservationIndex(keys -> keys.containsClassroom(classroom)).getByClassroom(classroom);
     }
 
     /**
@@ -228,9 +629,9 @@ public class ReservationManager implements Serializable {
      * @return Uma lista de reservas pendentes.
      */
     public List<Reservation> getPendingReservations() {
-        return reservations.stream()
-                .filter(r -> r.getStatus().equals(ReservationStatus.PENDING))
-                .collect(Collectors.toList());
+        awaitLoaded(reservationsLoaded);
+        return reservationIndex(keys -> keys.containsStatus(ReservationStatus.PENDING))
+                .getByStatus(ReservationStatus.PENDING);
     }
 
     /**
@@ -239,16 +640,16 @@ public class ReservationManager implements Serializable {
      * @throws ReservationConflictException Se houver um conflito de reserva.
      */
     public void confirmReservation(Reservation reservation) throws ReservationConflictException {
-        if (!reservation.getStatus().equals(ReservationStatus.PENDING)) {
-            throw new IllegalArgumentException("Reserva não está no status Pendente para ser confirmada.");
-        }
-
-        for (Reservation existingReservation : reservations) {
-            if (existingReservation.equals(reservation)) {
-                continue;
+        awaitLoaded(reservationsLoaded);
+        Lock roomLock = lockRoom(reservation.getClassroom(), YearMonth.from(reservation.getDate()));
+        try {
+            if (!reservation.getStatus().equals(ReservationStatus.PENDING)) {
+                throw new IllegalArgumentException("Reserva não está no status Pendente para ser confirmada.");
             }
-            if (existingReservation.getStatus().equals(ReservationStatus.CONFIRMED) &&
-                    reservation.conflictsWith(existingReservation)) {
+
+            Reservation existingReservation = scheduleIndex.findConflict(reservation.getClassroom(),
+                    reservation.getDate(), reservation.getStartTime(), reservation.getEndTime());
+            if (existingReservation != null && !existingReservation.equals(reservation)) {
                 throw new ReservationConflictException(
                         "Não foi possível confirmar. Conflito com reserva já existente: Sala " +
                                 existingReservation.getClassroom().getName() +
@@ -256,10 +657,15 @@ public class ReservationManager implements Serializable {
                                 " às " + existingReservation.getEndTime() +
                                 " em " + existingReservation.getDate() + ".");
             }
-        }
 
-        reservation.setStatus(ReservationStatus.CONFIRMED);
-        saveData();
+            reservation.setStatus(ReservationStatus.CONFIRMED);
+            scheduleIndex.add(reservation);
+            updateIndexedStatus(reservation, ReservationStatus.PENDING);
+            repository.updateReservation(reservation);
+            fireEvent(ReservationEvent.ofStatusChange(reservation, ReservationStatus.PENDING));
+        } finally {
+            unlockRoom(roomLock);
+        }
         System.out.println("Reserva " + reservation.getId() + " confirmada com sucesso.");
     }
 
@@ -269,12 +675,19 @@ public class ReservationManager implements Serializable {
      * @param observation A observação para a rejeição.
      */
     public void rejectReservation(Reservation reservation, String observation) {
-        if (!reservation.getStatus().equals(ReservationStatus.PENDING)) {
-            throw new IllegalArgumentException("Reserva não está no status Pendente para ser rejeitada.");
+        awaitLoaded(reservationsLoaded);
+        Lock roomLock = lockRoom(reservation.getClassroom(), YearMonth.from(reservation.getDate()));
+        try {
+            if (!reservation.getStatus().equals(ReservationStatus.PENDING)) {
+                throw new IllegalArgumentException("Reserva não está no status Pendente para ser rejeitada.");
+            }
+            reservation.changeStatus(ReservationStatus.REJECTED, observation);
+            updateIndexedStatus(reservation, ReservationStatus.PENDING);
+            repository.updateReservation(reservation);
+            fireEvent(ReservationEvent.ofStatusChange(reservation, ReservationStatus.PENDING));
+        } finally {
+            unlockRoom(roomLock);
         }
-        reservation.setObservation(observation);
-        reservation.setStatus(ReservationStatus.REJECTED);
-        saveData();
         System.out.println("Reserva " + reservation.getId() + " rejeitada com sucesso. Obs: " + observation);
 
     }
@@ -285,14 +698,23 @@ public class ReservationManager implements Serializable {
      * @param observation A observação para o cancelamento.
      */
     public void cancelReservation(Reservation reservation, String observation) {
-        if (reservation.getStatus().equals(ReservationStatus.REJECTED)
-                || reservation.getStatus().equals(ReservationStatus.CANCELLED)) {
-            throw new IllegalArgumentException(
-                    "Não é possível cancelar uma reserva que já foi rejeitada ou cancelada.");
-        }
-        reservation.setObservation(observation);
-        reservation.setStatus(ReservationStatus.CANCELLED);
-        saveData();
+        awaitLoaded(reservationsLoaded);
+        Lock roomLock = lockRoom(reservation.getClassroom(), YearMonth.from(reservation.getDate()));
+        try {
+            if (reservation.getStatus().equals(ReservationStatus.REJECTED)
+                    || reservation.getStatus().equals(ReservationStatus.CANCELLED)) {
+                throw new IllegalArgumentException(
+                        "Não é possível cancelar uma reserva que já foi rejeitada ou cancelada.");
+            }
+            scheduleIndex.remove(reservation);
+            ReservationStatus previous = reservation.getStatus();
+            reservation.changeStatus(ReservationStatus.CANCELLED, observation);
+            updateIndexedStatus(reservation, previous);
+            repository.updateReservation(reservation);
+            fireEvent(ReservationEvent.ofStatusChange(reservation, previous));
+        } finally {
+            unlockRoom(roomLock);
+        }
         System.out.println("Reserva " + reservation.getId() + " cancelada com sucesso. Obs: " + observation);
 
     }
@@ -302,59 +724,353 @@ public class ReservationManager implements Serializable {
      * @param reservation A reserva a ser excluída.
      */
     public void deleteReservation(Reservation reservation) {
-        reservations.remove(reservation);
-        saveData();
+        awaitLoaded(reservationsLoaded);
+        Lock roomLock = lockRoom(reservation.getClassroom(), YearMonth.from(reservation.getDate()));
+        try {
+            scheduleIndex.remove(reservation);
+            repository.deleteReservation(reservation);
+            reservationIndex.remove(reservation);
+            publishReservations((snapshot, version) -> snapshot.withoutReservation(version, reservation));
+            fireEvent(ReservationEvent.ofReservation(ReservationEvent.Type.RESERVATION_DELETED, reservation));
+        } finally {
+            unlockRoom(roomLock);
+        }
         System.out.println("Reserva " + reservation.getId() + " deletada com sucesso.");
     }
 
     /**
-     * Carrega os dados dos arquivos.
+     * Inicia o carregamento dos dados do repositório em segundo plano. As salas, os
+     * usuários e as reservas são lidos em paralelo, e cada operação espera apenas
+     * pelos dados que usa: o login espera os usuários, e as consultas de reservas
+     * esperam todos os dados.
      */
-    @SuppressWarnings("unchecked")
     public void loadData() {
+        lock.writeLock().lock();
         try {
-            List<?> loadedClassrooms = FileUtil.readObjectFromFile(CLASSROOMS_FILE);
-            if (loadedClassrooms != null) {
-                this.classrooms = (List<Classroom>) loadedClassrooms;
-                System.out.println("Salas carregadas: " + this.classrooms.size());
+            startLoading();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta os índices e inicia as leituras do repositório. Chamado com acesso exclusivo.
+     */
+    private void startLoading() {
+        scheduleIndex.clear();
+        indexedMonths.clear();
+        classroomsByName = null;
+        classroomCatalog = null;
+        usersByUsername = null;
+        reservationIndex = new ReservationIndex();
+        classroomsSnapshot = null;
+        usersSnapshot = null;
+        reservationsSnapshot = ReservationSnapshot.empty(lastVersion.incrementAndGet());
+        allMonthsIndexed = false;
+        ExecutorService loader = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "data-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        DataLoading loading = repository.load(loader);
+        classroomsLoaded = loading.getClassrooms();
+        usersLoaded = loading.getUsers();
+        reservationsLoaded = loading.getReservations().thenRun(() -> {
+            loader.shutdown();
+            int maxId = repository.getMaxReservationId();
+            lastReservationId.set(maxId);
+            System.out.println("Próximo ID de reserva inicializado para: " + (maxId + 1));
+        });
+    }
+
+    /**
+     * Inicializa os dados padrão (salas e usuários de exemplo) quando não há salas ou usuários.
+     */
+    public void initializeDefaultData() {
+        try {
+            if (getAllClassrooms().isEmpty()) {
+                addClassroom(new Classroom("Sala A101", 30, "Prédio A", true));
+                addClassroom(new Classroom("Laboratório B205", 20, "Prédio B", true));
+                addClassroom(new Classroom("Auditório Principal", 100, "Prédio C", true));
+                addClassroom(new Classroom("Sala de Reuniões D301", 8, "Prédio D", false));
             }
 
-            List<?> loadedUsers = FileUtil.readObjectFromFile(USERS_FILE);
-            if (loadedUsers != null) {
-                this.users = (List<User>) loadedUsers;
-                System.out.println("Usuários carregados: " + this.users.size());
+            if (getAllUsers().isEmpty()) {
+                addUser(new Administrator("admin", "admin123", "Administrador Principal", "admin@unicamp.br"));
+                addUser(new Student("aluno1", "aluno123", "João Silva", "joao.silva@unicamp.br", "RA123456"));
+                addUser(new Student("aluno2", "aluno123", "Maria Oliveira", "maria.oliveria@unicamp.br", "RA654321"));
             }
+        } catch (UserConflictException e) {
+            System.err.println("Erro ao adicionar usuários padrão: " + e.getMessage());
+        }
+    }
 
-            List<?> loadedReservations = FileUtil.readObjectFromFile(RESERVATIONS_FILE);
-            if (loadedReservations != null) {
-                this.reservations = (List<Reservation>) loadedReservations;
-                System.out.println("Reservas carregadas: " + this.reservations.size());
+    /**
+     * Registra um ouvinte das alterações feitas pelo gerenciador.
+     * @param listener O ouvinte.
+     */
+    public void addReservationListener(ReservationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove um ouvinte registrado.
+     * @param listener O ouvinte.
+     */
+    public void removeReservationListener(ReservationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Publica uma alteração aos ouvintes. Uma falha em um ouvinte é registrada e não
+     * impede os demais nem desfaz a alteração.
+     * @param event O evento.
+     */
+    private void fireEvent(ReservationEvent event) {
+        for (ReservationListener listener : listeners) {
+            try {
+                listener.reservationChanged(event);
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao notificar alteração: " + e.getMessage());
             }
+        }
+    }
 
-            int maxId = reservations.stream()
-                    .mapToInt(Reservation::getId)
-                    .max()
-                    .orElse(0);
+    /**
+     * Copia uma coleção em uma nova versão. Chamado com acesso exclusivo.
+     * @param items Os elementos.
+     * @param <T> O tipo dos elementos.
+     * @return A cópia.
+     */
+    private <T> Snapshot<T> takeSnapshot(Collection<T> items) {
+        return Snapshot.copyOf(lastVersion.incrementAndGet(), items);
+    }
 
-            Reservation.setNextReservationId(maxId + 1);
-            System.out.println("Próximo ID de reserva inicializado para: " + (maxId + 1));
+    /**
+     * Publica uma nova versão das reservas, criada a partir da atual. Chamado com acesso
+     * compartilhado e o bloqueio da sala alterada, ou com acesso exclusivo.
+     * @param change Cria a nova versão a partir da atual e do novo número de versão.
+     */
+    private void publishReservations(BiFunction<ReservationSnapshot, Long, ReservationSnapshot> change) {
+        synchronized (reservationsSnapshotLock) {
+            reservationsSnapshot = change.apply(reservationsSnapshot, lastVersion.incrementAndGet());
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("Erro ao carregar dados: " + e.getMessage());
+    /**
+     * Cria os bloqueios das salas.
+     * @return Os bloqueios.
+     */
+    private static Lock[] createRoomLocks() {
+        Lock[] locks = new Lock[ROOM_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
         }
+        return locks;
     }
 
     /**
-     * Salva os dados nos arquivos.
+     * Toma o acesso compartilhado e o bloqueio de uma sala, com o mês já no índice de
+     * horários. Não deve ser chamado por quem já tem acesso ao gerenciador.
+     * @param classroom A sala.
+     * @param month O mês da reserva.
+     * @return O bloqueio da sala, a ser liberado por {@link #unlockRoom}.
      */
-    public void saveData() {
+    private Lock lockRoom(Classroom classroom, YearMonth month) {
+        Lock roomLock = roomLocks[Math.floorMod(classroom.hashCode(), ROOM_LOCK_STRIPES)];
+        lockMonth(month);
+        roomLock.lock();
+        return roomLock;
+    }
+
+    /**
+     * Toma o acesso compartilhado, com o mês já no índice de horários. Se o mês ainda não
+     * estiver indexado, ele é indexado antes, com acesso exclusivo. O acesso deve ser
+     * liberado com {@code lock.readLock().unlock()}. Não deve ser chamado por quem já tem
+     * acesso ao gerenciador.
+     * @param month O mês.
+     */
+    private void lockMonth(YearMonth month) {
+        while (true) {
+            if (!indexedMonths.contains(month)) {
+                lock.writeLock().lock();
+                try {
+                    indexMonths(List.of(month));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            lock.readLock().lock();
+            // O índice pode ter sido descartado por loadData entre a indexação e o bloqueio.
+            if (indexedMonths.contains(month)) {
+                return;
+            }
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Libera o bloqueio de uma sala e o acesso compartilhado.
+     * @param roomLock O bloqueio obtido por {@link #lockRoom}.
+     */
+    private void unlockRoom(Lock roomLock) {
+        roomLock.unlock();
+        lock.readLock().unlock();
+    }
+
+    /**
+     * Garante que as reservas de alguns meses estejam nos índices: as confirmadas no
+     * índice de horários, e todas no {@link ReservationIndex}. Os meses ainda não
+     * indexados são lidos do repositório de uma só vez. Chamado com acesso exclusivo.
+     * @param months Os meses.
+     */
+    private void indexMonths(Collection<YearMonth> months) {
+        List<YearMonth> missing = new ArrayList<>();
+        for (YearMonth month : months) {
+            if (!indexedMonths.contains(month)) {
+                missing.add(month);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<YearMonth, List<Reservation>> byMonth = repository.getReservationsByMonths(missing);
+        List<Reservation> added = new ArrayList<>();
+        for (List<Reservation> monthReservations : byMonth.values()) {
+            for (Reservation reservation : monthReservations) {
+                if (reservation.getStatus().equals(ReservationStatus.CONFIRMED)) {
+                    scheduleIndex.add(reservation);
+                }
+                added.add(reservation);
+            }
+        }
+        reservationIndex.addAll(added);
+        publishReservations((snapshot, version) -> snapshot.withMonths(version, byMonth));
+        indexedMonths.addAll(missing);
+    }
+
+    /**
+     * Obtém os índices secundários das reservas, com os meses que podem conter o
+     * resultado de uma consulta já indexados. Os meses que faltam são indexados com
+     * acesso exclusivo.
+     * @param filter Verifica se as chaves de um mês podem conter o resultado da consulta
+     *               (ver {@link ReservationRepository#findReservationMonths}).
+     * @return Os índices.
+     */
+    private ReservationIndex reservationIndex(Predicate<MonthKeys> filter) {
+        lock.readLock().lock();
+        try {
+            if (indexedMonths.containsAll(repository.findReservationMonths(filter))) {
+                return reservationIndex;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
         try {
-            FileUtil.writeObjectToFile(classrooms, CLASSROOMS_FILE);
-            FileUtil.writeObjectToFile(users, USERS_FILE);
-            FileUtil.writeObjectToFile(reservations, RESERVATIONS_FILE);
-            System.out.println("Dados salvos com sucesso.");
-        } catch (Exception e) {
-            System.err.println("Erro ao salvar dados: " + e.getMessage());
+            indexMonths(repository.findReservationMonths(filter));
+            return reservationIndex;
+        } finally {
+            lock.writeLock().unlock();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Atualiza o índice por status e publica uma nova versão das reservas depois de uma
+     * mudança de status.
+     * @param reservation A reserva, já com o novo status.
+     * @param previous O status anterior.
+     */
+    private void updateIndexedStatus(Reservation reservation, ReservationStatus previous) {
+        reservationIndex.updateStatus(reservation, previous);
+        publishReservations((snapshot, version) -> snapshot.withState(version, reservation));
+    }
+
+    /**
+     * Normaliza um nome para as chaves dos índices, de modo que dois nomes tenham a mesma
+     * chave exatamente quando {@link String#equalsIgnoreCase} os considera iguais.
+     * @param name O nome.
+     * @return A chave.
+     */
+    static String foldCase(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Espera, antes de tomar qualquer bloqueio do gerenciador, até que um conjunto de
+     * dados esteja carregado.
+     * @param loaded O future do carregamento.
+     */
+    private static void awaitLoaded(CompletableFuture<Void> loaded) {
+        try {
+            loaded.join();
+        } catch (CompletionException | CancellationException e) {
+            System.err.println("Erro ao carregar dados: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Obtém um future concluído quando todas as mutações feitas até agora estiverem gravadas em disco.
+     * @return O future, que falha se alguma das gravações falhar.
+     */
+    public CompletableFuture<Void> flush() {
+        return repository.flush();
+    }
+
+    /**
+     * Obtém o número de sequência da última mutação enviada para gravação, a ser passado
+     * para {@link #flush(long)}.
+     * @return O número de sequência.
+     */
+    public long getWriteSequence() {
+        return repository.getWriteSequence();
+    }
+
+    /**
+     * Obtém um future concluído quando todas as mutações feitas até agora estiverem gravadas
+     * em disco, e que falha se falhar a gravação de alguma mutação feita depois do número de
+     * sequência indicado, mesmo que um flush concorrente já tenha sido informado da falha.
+     * @param sinceSequence O número de sequência obtido por {@link #getWriteSequence()} antes
+     *                      das mutações a verificar.
+     * @return O future.
+     */
+    public CompletableFuture<Void> flush(long sinceSequence) {
+        return repository.flush(sinceSequence);
+    }
+
+    /**
+     * Obtém o número de bytes de dados gravados no último salvamento.
+     * @return O número de bytes.
+     */
+    public long getLastSaveBytes() {
+        return repository.getLastSaveBytes();
+    }
+
+    /**
+     * Obtém o número total de bytes de dados gravados em salvamentos desde a inicialização.
+     * @return O número de bytes.
+     */
+    public long getTotalSaveBytes() {
+        return repository.getTotalSaveBytes();
+    }
+
+    /**
+     * Salva todos os dados em disco.
+     * @throws java.io.UncheckedIOException Se os dados não puderem ser gravados.
+     */
+    public void saveData() {
+        reservationsLoaded.join();
+        repository.save();
+    }
+
+    /**
+     * Grava as mutações pendentes e libera os recursos do repositório.
+     */
+    public void shutdown() {
+        repository.close();
+    }
+}
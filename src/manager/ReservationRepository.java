@@ -0,0 +1,177 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.User;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * Armazenamento das salas, usuários e reservas usado pelo {@link ReservationManager}.
+ *
+ * O gerenciador concentra as regras de negócio (conflitos, validações) e delega ao
+ * repositório a guarda e a persistência dos dados. As listas devolvidas são visões
+ * somente leitura dos dados do repositório e não devem ser alteradas nem guardadas
+ * pelo chamador. As alterações de reservas de salas diferentes são feitas em paralelo,
+ * e os métodos devem ser seguros para várias threads; as visões são percorridas pelo
+ * gerenciador apenas com acesso exclusivo.
+ *
+ * Implementações: {@link InMemoryReservationRepository} (sem persistência),
+ * {@link SerializedFileReservationRepository} (arquivos serializados, regravados a cada
+ * alteração) e {@link JournaledReservationRepository} (diário com snapshots).
+ */
+public interface ReservationRepository {
+
+    /**
+     * Inicia o carregamento dos dados persistidos. As salas, os usuários e as reservas
+     * são lidos em paralelo pelas threads do executor; nenhum outro método deve ser
+     * chamado antes de concluído o future do conjunto de dados que ele acessa.
+     * @param executor O executor das leituras.
+     * @return O andamento do carregamento.
+     */
+    DataLoading load(Executor executor);
+
+    /**
+     * Obtém as salas de aula.
+     * @return Uma visão somente leitura das salas.
+     */
+    List<Classroom> getClassrooms();
+
+    /**
+     * Adiciona uma sala de aula.
+     * @param classroom A sala.
+     */
+    void addClassroom(Classroom classroom);
+
+    /**
+     * Remove uma sala de aula.
+     * @param classroom A sala.
+     */
+    void removeClassroom(Classroom classroom);
+
+    /**
+     * Obtém os usuários.
+     * @return Uma visão somente leitura dos usuários.
+     */
+    List<User> getUsers();
+
+    /**
+     * Adiciona um usuário.
+     * @param user O usuário.
+     */
+    void addUser(User user);
+
+    /**
+     * Altera a senha de um usuário.
+     * @param user O usuário.
+     * @param newPassword A nova senha.
+     */
+    void updateUserPassword(User user, String newPassword);
+
+    /**
+     * Obtém todas as reservas.
+     * @return Uma visão somente leitura das reservas.
+     */
+    List<Reservation> getReservations();
+
+    /**
+     * Obtém as reservas de um mês.
+     * @param month O mês.
+     * @return Uma lista das reservas do mês.
+     */
+    List<Reservation> getReservationsByMonth(YearMonth month);
+
+    /**
+     * Obtém as reservas de vários meses, carregando as partições dos meses se necessário.
+     * @param months Os meses.
+     * @return As reservas de cada mês; um mês sem reservas pode estar ausente.
+     */
+    Map<YearMonth, List<Reservation>> getReservationsByMonths(Collection<YearMonth> months);
+
+    /**
+     * Obtém os meses com reservas que podem satisfazer uma consulta, sem carregar as
+     * reservas dos meses. O resultado pode incluir meses que não satisfazem o filtro
+     * (por exemplo, os já carregados em memória, cujas chaves não são calculadas), mas
+     * nunca omite um mês que o satisfaça.
+     * @param filter Verifica se as chaves de um mês podem conter o resultado da consulta.
+     * @return Um novo conjunto com os meses, em ordem crescente.
+     */
+    NavigableSet<YearMonth> findReservationMonths(Predicate<MonthKeys> filter);
+
+    /**
+     * Adiciona uma reserva.
+     * @param reservation A reserva.
+     */
+    void addReservation(Reservation reservation);
+
+    /**
+     * Persiste a alteração de status ou de observação de uma reserva.
+     * @param reservation A reserva alterada.
+     */
+    void updateReservation(Reservation reservation);
+
+    /**
+     * Exclui uma reserva.
+     * @param reservation A reserva.
+     */
+    void deleteReservation(Reservation reservation);
+
+    /**
+     * Obtém o maior ID de reserva armazenado.
+     * @return O ID, ou 0 se não houver reservas.
+     */
+    int getMaxReservationId();
+
+    /**
+     * Obtém um future concluído quando todas as alterações feitas até agora estiverem gravadas em disco.
+     * @return O future, que falha se alguma das gravações falhar.
+     */
+    CompletableFuture<Void> flush();
+
+    /**
+     * Obtém o número de sequência da última alteração enviada para gravação, a ser passado
+     * para {@link #flush(long)}.
+     * @return O número de sequência.
+     */
+    long getWriteSequence();
+
+    /**
+     * Obtém um future concluído quando todas as alterações feitas até agora estiverem gravadas
+     * em disco, e que falha se falhar a gravação de alguma alteração feita depois do número de
+     * sequência indicado, ainda que outro flush já tenha sido informado da falha.
+     * @param sinceSequence O número de sequência obtido por {@link #getWriteSequence()} antes
+     *                      das alterações a verificar.
+     * @return O future.
+     */
+    CompletableFuture<Void> flush(long sinceSequence);
+
+    /**
+     * Grava todos os dados em disco.
+     * @throws java.io.UncheckedIOException Se os dados não puderem ser gravados.
+     */
+    void save();
+
+    /**
+     * Grava as alterações pendentes e libera os recursos do repositório.
+     */
+    void close();
+
+    /**
+     * Obtém o número de bytes gravados no último salvamento.
+     * @return O número de bytes.
+     */
+    long getLastSaveBytes();
+
+    /**
+     * Obtém o número total de bytes gravados em salvamentos desde a inicialização.
+     * @return O número de bytes.
+     */
+    long getTotalSaveBytes();
+}
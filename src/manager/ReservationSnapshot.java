@@ -0,0 +1,286 @@
+package manager;
+
+import model.Reservation;
+import model.ReservationState;
+
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * Versão imutável das reservas, publicada pelo {@link ReservationManager} a cada
+ * inclusão, exclusão ou mudança de status. As reservas são guardadas por mês, cada mês
+ * em vetores que nunca são alterados: uma nova versão copia apenas os vetores do mês
+ * alterado e compartilha os demais meses com a versão anterior, de modo que publicar uma
+ * versão custa o tamanho do mês, e não o do histórico. Os elementos seguem os meses em
+ * ordem crescente e, dentro de cada mês, a ordem em que as reservas foram indexadas.
+ *
+ * Os elementos são os próprios objetos {@link Reservation}, cujo status continua
+ * mudando depois da publicação; o estado (status e observação) de cada reserva nesta
+ * versão é guardado à parte e obtido por {@link #getState(int)}.
+ */
+public class ReservationSnapshot extends Snapshot<Reservation> {
+    private final NavigableMap<YearMonth, MonthVersion> months;
+    private final MonthsView view;
+
+    /**
+     * Reservas de um mês em uma versão, com o estado de cada uma. Os vetores nunca são alterados.
+     */
+    private static final class MonthVersion {
+        private final Reservation[] reservations;
+        private final ReservationState[] states;
+
+        /**
+         * Construtor.
+         * @param reservations As reservas.
+         * @param states O estado de cada reserva, na mesma posição.
+         */
+        private MonthVersion(Reservation[] reservations, ReservationState[] states) {
+            this.reservations = reservations;
+            this.states = states;
+        }
+
+        /**
+         * Cria a versão de um mês com o estado atual das reservas.
+         * @param monthReservations As reservas do mês.
+         * @return A versão.
+         */
+        private static MonthVersion of(List<Reservation> monthReservations) {
+            Reservation[] reservations = monthReservations.toArray(new Reservation[0]);
+            ReservationState[] states = new ReservationState[reservations.length];
+            for (int i = 0; i < reservations.length; i++) {
+                states[i] = reservations[i].getState();
+            }
+            return new MonthVersion(reservations, states);
+        }
+
+        /**
+         * Obtém a posição de uma reserva no mês.
+         * @param reservation A reserva.
+         * @return A posição, ou -1 se a reserva não estiver no mês.
+         */
+        private int indexOf(Reservation reservation) {
+            for (int i = 0; i < reservations.length; i++) {
+                if (reservations[i].equals(reservation)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Lista somente leitura que percorre as reservas dos meses como uma única lista.
+     */
+    private static final class MonthsView extends AbstractList<Reservation> implements RandomAccess {
+        private final MonthVersion[] parts;
+        private final int[] ends;
+
+        /**
+         * Construtor.
+         * @param parts Os meses, nenhum deles vazio.
+         */
+        private MonthsView(MonthVersion[] parts) {
+            this.parts = parts;
+            this.ends = new int[parts.length];
+            int end = 0;
+            for (int i = 0; i < parts.length; i++) {
+                end += parts[i].reservations.length;
+                ends[i] = end;
+            }
+        }
+
+        /**
+         * Obtém o mês que contém uma posição da lista.
+         * @param index A posição.
+         * @return O índice do mês em {@link #parts}.
+         */
+        private int partOf(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Posição " + index + " fora da lista de " + size() + ".");
+            }
+            int position = Arrays.binarySearch(ends, index);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+
+        /**
+         * Obtém a posição, dentro do seu mês, de uma posição da lista.
+         * @param part O índice do mês.
+         * @param index A posição na lista.
+         * @return A posição no mês.
+         */
+        private int offsetIn(int part, int index) {
+            return part == 0 ? index : index - ends[part - 1];
+        }
+
+        /**
+         * Obtém a reserva de uma posição.
+         * @param index A posição.
+         * @return A reserva.
+         */
+        @Override
+        public Reservation get(int index) {
+            int part = partOf(index);
+            return parts[part].reservations[offsetIn(part, index)];
+        }
+
+        /**
+         * Obtém o estado, nesta versão, da reserva de uma posição.
+         * @param index A posição.
+         * @return O estado.
+         */
+        private ReservationState getState(int index) {
+            int part = partOf(index);
+            return parts[part].states[offsetIn(part, index)];
+        }
+
+        /**
+         * Obtém o número de reservas.
+         * @return O número de reservas.
+         */
+        @Override
+        public int size() {
+            return ends.length == 0 ? 0 : ends[ends.length - 1];
+        }
+    }
+
+    /**
+     * Construtor da versão.
+     * @param version A versão.
+     * @param months As reservas de cada mês; o mapa não é alterado depois.
+     */
+    private ReservationSnapshot(long version, NavigableMap<YearMonth, MonthVersion> months) {
+        this(version, months, new MonthsView(months.values().toArray(new MonthVersion[0])));
+    }
+
+    /**
+     * Construtor da versão.
+     * @param version A versão.
+     * @param months As reservas de cada mês.
+     * @param view A lista das reservas dos meses.
+     */
+    private ReservationSnapshot(long version, NavigableMap<YearMonth, MonthVersion> months, MonthsView view) {
+        super(version, view);
+        this.months = months;
+        this.view = view;
+    }
+
+    /**
+     * Cria uma versão sem reservas.
+     * @param version A versão.
+     * @return A versão.
+     */
+    static ReservationSnapshot empty(long version) {
+        return new ReservationSnapshot(version, new TreeMap<>());
+    }
+
+    /**
+     * Obtém o estado (status e observação) de uma reserva nesta versão.
+     * @param index A posição da reserva em {@link #getItems()}.
+     * @return O estado.
+     * @throws IndexOutOfBoundsException Se a posição for inválida.
+     */
+    public ReservationState getState(int index) {
+        return view.getState(index);
+    }
+
+    /**
+     * Cria uma nova versão com as reservas de meses recém-indexados.
+     * @param version A nova versão.
+     * @param added As reservas de cada mês, que ainda não está nesta versão.
+     * @return A nova versão.
+     */
+    ReservationSnapshot withMonths(long version, Map<YearMonth, List<Reservation>> added) {
+        NavigableMap<YearMonth, MonthVersion> changed = new TreeMap<>(months);
+        added.forEach((month, monthReservations) -> {
+            if (!monthReservations.isEmpty()) {
+                changed.put(month, MonthVersion.of(monthReservations));
+            }
+        });
+        return new ReservationSnapshot(version, changed);
+    }
+
+    /**
+     * Cria uma nova versão com uma reserva incluída no fim do seu mês.
+     * @param version A nova versão.
+     * @param reservation A reserva.
+     * @return A nova versão.
+     */
+    ReservationSnapshot withReservation(long version, Reservation reservation) {
+        YearMonth month = YearMonth.from(reservation.getDate());
+        MonthVersion current = months.get(month);
+        Reservation[] reservations = current != null
+                ? Arrays.copyOf(current.reservations, current.reservations.length + 1) : new Reservation[1];
+        ReservationState[] states = current != null
+                ? Arrays.copyOf(current.states, current.states.length + 1) : new ReservationState[1];
+        reservations[reservations.length - 1] = reservation;
+        states[states.length - 1] = reservation.getState();
+        NavigableMap<YearMonth, MonthVersion> changed = new TreeMap<>(months);
+        changed.put(month, new MonthVersion(reservations, states));
+        return new ReservationSnapshot(version, changed);
+    }
+
+    /**
+     * Cria uma nova versão sem uma reserva.
+     * @param version A nova versão.
+     * @param reservation A reserva.
+     * @return A nova versão, ou esta, se a reserva não estiver nela.
+     */
+    ReservationSnapshot withoutReservation(long version, Reservation reservation) {
+        YearMonth month = YearMonth.from(reservation.getDate());
+        MonthVersion current = months.get(month);
+        int position = current != null ? current.indexOf(reservation) : -1;
+        if (position < 0) {
+            return this;
+        }
+        NavigableMap<YearMonth, MonthVersion> changed = new TreeMap<>(months);
+        if (current.reservations.length == 1) {
+            changed.remove(month);
+        } else {
+            changed.put(month, new MonthVersion(remove(current.reservations, position, new Reservation[0]),
+                    remove(current.states, position, new ReservationState[0])));
+        }
+        return new ReservationSnapshot(version, changed);
+    }
+
+    /**
+     * Cria uma nova versão com o estado atual de uma reserva. Apenas os estados do mês
+     * são copiados; o vetor de reservas do mês é compartilhado.
+     * @param version A nova versão.
+     * @param reservation A reserva, já com o novo estado.
+     * @return A nova versão, ou esta, se a reserva não estiver nela.
+     */
+    ReservationSnapshot withState(long version, Reservation reservation) {
+        YearMonth month = YearMonth.from(reservation.getDate());
+        MonthVersion current = months.get(month);
+        int position = current != null ? current.indexOf(reservation) : -1;
+        if (position < 0) {
+            return this;
+        }
+        ReservationState[] states = current.states.clone();
+        states[position] = reservation.getState();
+        NavigableMap<YearMonth, MonthVersion> changed = new TreeMap<>(months);
+        changed.put(month, new MonthVersion(current.reservations, states));
+        return new ReservationSnapshot(version, changed);
+    }
+
+    /**
+     * Copia um vetor sem um dos elementos.
+     * @param array O vetor.
+     * @param position A posição do elemento removido.
+     * @param empty Um vetor vazio do tipo do resultado.
+     * @param <T> O tipo dos elementos.
+     * @return A cópia.
+     */
+    private static <T> T[] remove(T[] array, int position, T[] empty) {
+        T[] copy = Arrays.copyOf(empty, array.length - 1);
+        System.arraycopy(array, 0, copy, 0, position);
+        System.arraycopy(array, position + 1, copy, position, array.length - position - 1);
+        return copy;
+    }
+}
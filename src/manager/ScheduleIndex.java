@@ -0,0 +1,438 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice das reservas confirmadas por data e sala, com os horários de cada sala em um
+ * dia ordenados pelo início. A verificação de conflito consulta apenas as reservas da
+ * sala naquele dia, em O(log k), com a mesma regra de {@link Reservation#conflictsWith}:
+ * uma reserva existente [S, E] conflita com o intervalo [s, e] se S &lt;= e e s &lt; E.
+ *
+ * Cada dia de cada sala também mantém uma grade de ocupação em bitsets de faixas de
+ * horário de tamanho fixo: uma faixa é "cheia" se alguma reserva a cobre inteira e
+ * "parcial" se alguma reserva a cobre em parte. Na busca de salas disponíveis, uma
+ * faixa cheia no intervalo consultado já indica conflito e a ausência de faixas
+ * marcadas indica sala livre, com algumas operações por palavra de 64 bits; só as
+ * salas com faixas apenas parciais no intervalo (horários fora da grade) passam pela
+ * verificação exata dos intervalos.
+ *
+ * As salas de cada dia ficam na ordem da primeira reserva confirmada, e o índice também
+ * resume as reservas de um mês para o calendário (ver {@link #summarize}).
+ *
+ * Os mapas de datas e de salas são concorrentes, e as inclusões e remoções são atômicas
+ * por data; assim, reservas de salas diferentes podem ser incluídas ao mesmo tempo. Os
+ * horários de cada sala em um dia são sincronizados no próprio objeto, de forma que as
+ * consultas que percorrem várias salas ({@link #findOccupiedClassrooms},
+ * {@link #getReservations} e {@link #summarize}) podem ser feitas durante as inclusões,
+ * vendo cada sala antes ou depois de cada alteração.
+ */
+public class ScheduleIndex {
+    /** Tamanho padrão das faixas da grade de ocupação, em minutos. */
+    public static final int DEFAULT_SLOT_MINUTES = 5;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final ConcurrentMap<LocalDate, Map<Classroom, DaySchedule>> days = new ConcurrentHashMap<>();
+    private final AtomicLong nextOrder = new AtomicLong();
+    private final int slotSeconds;
+    private final int words;
+
+    /**
+     * Construtor do índice com faixas de {@link #DEFAULT_SLOT_MINUTES} minutos.
+     */
+    public ScheduleIndex() {
+        this(DEFAULT_SLOT_MINUTES);
+    }
+
+    /**
+     * Construtor do índice.
+     * @param slotMinutes O tamanho das faixas da grade de ocupação, em minutos (qualquer valor positivo).
+     */
+    public ScheduleIndex(int slotMinutes) {
+        if (slotMinutes <= 0) {
+            throw new IllegalArgumentException("O tamanho das faixas deve ser positivo.");
+        }
+        this.slotSeconds = slotMinutes * 60;
+        int slots = (SECONDS_PER_DAY + slotSeconds - 1) / slotSeconds;
+        this.words = (slots + 63) / 64;
+    }
+
+    /**
+     * Horários confirmados de uma sala em um dia.
+     */
+    private class DaySchedule {
+        private final Classroom classroom;
+        private final long order = nextOrder.getAndIncrement();
+        private final TreeMap<LocalTime, List<Reservation>> byStart = new TreeMap<>();
+        private final long[] full = new long[words];
+        private final long[] partial = new long[words];
+        private boolean overlapping;
+        private boolean irregular;
+        private int size;
+
+        /**
+         * Construtor dos horários, sem reservas.
+         * @param classroom A sala.
+         */
+        DaySchedule(Classroom classroom) {
+            this.classroom = classroom;
+        }
+
+        /**
+         * Adiciona uma reserva. Se ela se sobrepõe a uma reserva já presente (o que só
+         * ocorre com dados antigos), o dia passa a ser consultado sem o atalho de
+         * intervalos disjuntos.
+         * @param reservation A reserva.
+         */
+        synchronized void add(Reservation reservation) {
+            LocalTime start = reservation.getStartTime();
+            Map.Entry<LocalTime, List<Reservation>> lower = byStart.floorEntry(start);
+            Map.Entry<LocalTime, List<Reservation>> higher = byStart.higherEntry(start);
+            if ((lower != null && (lower.getKey().equals(start) || endsAfter(lower.getValue(), start)))
+                    || (higher != null && higher.getKey().isBefore(reservation.getEndTime()))) {
+                overlapping = true;
+            }
+            byStart.computeIfAbsent(start, key -> new ArrayList<>(1)).add(reservation);
+            size++;
+            mark(reservation);
+        }
+
+        /**
+         * Marca na grade as faixas ocupadas por uma reserva.
+         * @param reservation A reserva.
+         */
+        private void mark(Reservation reservation) {
+            int start = reservation.getStartTime().toSecondOfDay();
+            int end = reservation.getEndTime().toSecondOfDay();
+            if (end <= start) {
+                irregular = true;
+                return;
+            }
+            int first = start / slotSeconds;
+            int last = (end - 1) / slotSeconds;
+            int firstFull = start % slotSeconds == 0 ? first : first + 1;
+            int lastFull = (last + 1) * slotSeconds <= end ? last : last - 1;
+            if (firstFull <= lastFull) {
+                setRange(full, firstFull, lastFull);
+            }
+            if (firstFull != first) {
+                setRange(partial, first, first);
+            }
+            if (lastFull != last) {
+                setRange(partial, last, last);
+            }
+        }
+
+        /**
+         * Refaz a grade a partir das reservas presentes.
+         */
+        private void remark() {
+            Arrays.fill(full, 0);
+            Arrays.fill(partial, 0);
+            irregular = false;
+            for (List<Reservation> sameStart : byStart.values()) {
+                for (Reservation reservation : sameStart) {
+                    mark(reservation);
+                }
+            }
+        }
+
+        /**
+         * Verifica pela grade se o dia está ocupado em um intervalo, recorrendo à
+         * verificação exata quando a grade não decide.
+         * @param mask As faixas do intervalo consultado (ver {@link #slotMask}).
+         * @param start A hora de início do intervalo.
+         * @param end A hora de término do intervalo.
+         * @return true se alguma reserva conflitar com o intervalo.
+         */
+        synchronized boolean isOccupied(long[] mask, LocalTime start, LocalTime end) {
+            if (mask == null || irregular) {
+                return findConflict(start, end) != null;
+            }
+            boolean touched = false;
+            for (int i = 0; i < words; i++) {
+                if ((full[i] & mask[i]) != 0) {
+                    return true;
+                }
+                touched |= (partial[i] & mask[i]) != 0;
+            }
+            return touched && findConflict(start, end) != null;
+        }
+
+        /**
+         * Remove uma reserva.
+         * @param reservation A reserva.
+         * @return true se a reserva estava presente.
+         */
+        synchronized boolean remove(Reservation reservation) {
+            List<Reservation> sameStart = byStart.get(reservation.getStartTime());
+            if (sameStart == null || !sameStart.remove(reservation)) {
+                return false;
+            }
+            if (sameStart.isEmpty()) {
+                byStart.remove(reservation.getStartTime());
+            }
+            size--;
+            remark();
+            return true;
+        }
+
+        /**
+         * Procura uma reserva que conflite com o intervalo.
+         * @param start A hora de início do intervalo.
+         * @param end A hora de término do intervalo.
+         * @return A reserva em conflito, ou null se não houver.
+         */
+        synchronized Reservation findConflict(LocalTime start, LocalTime end) {
+            // Reservas que começam em (start, end]: conflitam se terminam depois de start.
+            if (!end.isBefore(start)) {
+                for (List<Reservation> sameStart : byStart.subMap(start, false, end, true).values()) {
+                    for (Reservation reservation : sameStart) {
+                        if (reservation.getEndTime().isAfter(start)) {
+                            return reservation;
+                        }
+                    }
+                }
+            }
+            // Reservas que começam até start: com intervalos disjuntos, só a última pode terminar depois de start.
+            NavigableMap<LocalTime, List<Reservation>> before = byStart.headMap(start, true).descendingMap();
+            for (Map.Entry<LocalTime, List<Reservation>> entry : before.entrySet()) {
+                if (!entry.getKey().isAfter(end)) {
+                    for (Reservation reservation : entry.getValue()) {
+                        if (reservation.getEndTime().isAfter(start)) {
+                            return reservation;
+                        }
+                    }
+                }
+                if (!overlapping) {
+                    break;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Obtém o número de reservas.
+         * @return O número de reservas.
+         */
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Copia as reservas, ordenadas pela hora de início.
+         * @param target A lista que recebe as reservas.
+         */
+        synchronized void copyTo(List<Reservation> target) {
+            for (List<Reservation> sameStart : byStart.values()) {
+                target.addAll(sameStart);
+            }
+        }
+
+        /**
+         * Verifica se alguma das reservas termina depois de um horário.
+         * @param reservations As reservas.
+         * @param time O horário.
+         * @return true se alguma reserva terminar depois do horário.
+         */
+        private static boolean endsAfter(List<Reservation> reservations, LocalTime time) {
+            for (Reservation reservation : reservations) {
+                if (reservation.getEndTime().isAfter(time)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Adiciona uma reserva confirmada ao índice.
+     * @param reservation A reserva.
+     */
+    public void add(Reservation reservation) {
+        days.compute(reservation.getDate(), (date, rooms) -> {
+            if (rooms == null) {
+                rooms = new ConcurrentHashMap<>();
+            }
+            rooms.computeIfAbsent(reservation.getClassroom(), DaySchedule::new).add(reservation);
+            return rooms;
+        });
+    }
+
+    /**
+     * Remove uma reserva do índice, se presente.
+     * @param reservation A reserva.
+     */
+    public void remove(Reservation reservation) {
+        days.computeIfPresent(reservation.getDate(), (date, rooms) -> {
+            DaySchedule schedule = rooms.get(reservation.getClassroom());
+            if (schedule != null && schedule.remove(reservation) && schedule.size() == 0) {
+                rooms.remove(reservation.getClassroom());
+            }
+            return rooms.isEmpty() ? null : rooms;
+        });
+    }
+
+    /**
+     * Procura uma reserva confirmada que conflite com um intervalo em uma sala.
+     * @param classroom A sala.
+     * @param date A data.
+     * @param start A hora de início do intervalo.
+     * @param end A hora de término do intervalo.
+     * @return A reserva em conflito, ou null se não houver.
+     */
+    public Reservation findConflict(Classroom classroom, LocalDate date, LocalTime start, LocalTime end) {
+        Map<Classroom, DaySchedule> rooms = days.get(date);
+        DaySchedule schedule = rooms != null ? rooms.get(classroom) : null;
+        return schedule != null ? schedule.findConflict(start, end) : null;
+    }
+
+    /**
+     * Verifica se uma sala tem alguma reserva confirmada em conflito com um intervalo.
+     * @param classroom A sala.
+     * @param date A data.
+     * @param start A hora de início do intervalo.
+     * @param end A hora de término do intervalo.
+     * @return true se a sala estiver ocupada.
+     */
+    public boolean isOccupied(Classroom classroom, LocalDate date, LocalTime start, LocalTime end) {
+        Map<Classroom, DaySchedule> rooms = days.get(date);
+        DaySchedule schedule = rooms != null ? rooms.get(classroom) : null;
+        return schedule != null && schedule.isOccupied(slotMask(start, end), start, end);
+    }
+
+    /**
+     * Obtém as salas com alguma reserva confirmada em conflito com um intervalo.
+     * @param date A data.
+     * @param start A hora de início do intervalo.
+     * @param end A hora de término do intervalo.
+     * @return As salas ocupadas.
+     */
+    public List<Classroom> findOccupiedClassrooms(LocalDate date, LocalTime start, LocalTime end) {
+        List<Classroom> occupied = new ArrayList<>();
+        Map<Classroom, DaySchedule> rooms = days.get(date);
+        if (rooms != null) {
+            long[] mask = slotMask(start, end);
+            rooms.forEach((classroom, schedule) -> {
+                if (schedule.isOccupied(mask, start, end)) {
+                    occupied.add(classroom);
+                }
+            });
+        }
+        return occupied;
+    }
+
+    /**
+     * Obtém as reservas confirmadas de um dia.
+     * @param date A data.
+     * @return As reservas, ordenadas pela hora de início.
+     */
+    public List<Reservation> getReservations(LocalDate date) {
+        List<Reservation> reservations = new ArrayList<>();
+        Map<Classroom, DaySchedule> rooms = days.get(date);
+        if (rooms != null) {
+            for (DaySchedule schedule : inOrder(rooms)) {
+                schedule.copyTo(reservations);
+            }
+            reservations.sort(Comparator.comparing(Reservation::getStartTime));
+        }
+        return reservations;
+    }
+
+    /**
+     * Resume as reservas confirmadas de um mês, com uma consulta por dia.
+     * @param month O mês.
+     * @return O resumo.
+     */
+    public MonthSummary summarize(YearMonth month) {
+        MonthSummary summary = new MonthSummary(month);
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            LocalDate date = month.atDay(day);
+            Map<Classroom, DaySchedule> rooms = days.get(date);
+            if (rooms != null) {
+                int count = 0;
+                List<String> names = new ArrayList<>(rooms.size());
+                for (DaySchedule schedule : inOrder(rooms)) {
+                    int size = schedule.size();
+                    if (size > 0) {
+                        count += size;
+                        names.add(schedule.classroom.getName());
+                    }
+                }
+                if (count > 0) {
+                    summary.setDay(date, count, names);
+                }
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Ordena os horários das salas de um dia pela primeira reserva confirmada.
+     * @param rooms Os horários das salas do dia.
+     * @return Os horários, em ordem.
+     */
+    private List<DaySchedule> inOrder(Map<Classroom, DaySchedule> rooms) {
+        List<DaySchedule> schedules = new ArrayList<>(rooms.values());
+        schedules.sort(Comparator.comparingLong(schedule -> schedule.order));
+        return schedules;
+    }
+
+    /**
+     * Monta o bitset das faixas que contêm algum instante do intervalo fechado [start, end].
+     * @param start A hora de início do intervalo.
+     * @param end A hora de término do intervalo.
+     * @return O bitset, ou null se o intervalo for invertido.
+     */
+    private long[] slotMask(LocalTime start, LocalTime end) {
+        if (end.isBefore(start)) {
+            return null;
+        }
+        long[] mask = new long[words];
+        setRange(mask, start.toSecondOfDay() / slotSeconds, end.toSecondOfDay() / slotSeconds);
+        return mask;
+    }
+
+    /**
+     * Liga os bits de um intervalo de faixas.
+     * @param bits O bitset.
+     * @param from A primeira faixa.
+     * @param to A última faixa (inclusive).
+     */
+    private static void setRange(long[] bits, int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        long firstMask = -1L << (from & 63);
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (firstWord == lastWord) {
+            bits[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        bits[firstWord] |= firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            bits[i] = -1L;
+        }
+        bits[lastWord] |= lastMask;
+    }
+
+    /**
+     * Remove todas as reservas do índice.
+     */
+    public void clear() {
+        days.clear();
+    }
+}
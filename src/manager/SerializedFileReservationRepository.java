@@ -0,0 +1,191 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.User;
+import util.FileUtil;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Repositório no formato original: as três listas são gravadas com serialização Java
+ * em {@code classrooms.txt}, {@code users.txt} e {@code reservations.txt}, e todos os
+ * arquivos são regravados a cada alteração.
+ */
+public class SerializedFileReservationRepository extends InMemoryReservationRepository {
+    private final String classroomsFile;
+    private final String usersFile;
+    private final String reservationsFile;
+    private long lastSaveBytes;
+    private long totalSaveBytes;
+    private CompletableFuture<Void> loaded = CompletableFuture.completedFuture(null);
+
+    /**
+     * Construtor do repositório.
+     * @param dataDir O diretório dos arquivos de dados.
+     */
+    public SerializedFileReservationRepository(String dataDir) {
+        this.classroomsFile = dataDir + "/classrooms.txt";
+        this.usersFile = dataDir + "/users.txt";
+        this.reservationsFile = dataDir + "/reservations.txt";
+    }
+
+    /**
+     * Carrega as três listas dos arquivos de dados, em paralelo.
+     * @param executor O executor das leituras.
+     * @return O andamento do carregamento.
+     */
+    @Override
+    public synchronized DataLoading load(Executor executor) {
+        CompletableFuture<Void> classroomsLoaded = CompletableFuture.runAsync(() -> {
+            List<Classroom> loadedClassrooms = read(classroomsFile);
+            if (loadedClassrooms != null) {
+                this.classrooms = loadedClassrooms;
+                System.out.println("Salas carregadas: " + loadedClassrooms.size());
+            }
+        }, executor);
+        CompletableFuture<Void> usersLoaded = CompletableFuture.runAsync(() -> {
+            List<User> loadedUsers = read(usersFile);
+            if (loadedUsers != null) {
+                this.users = loadedUsers;
+                System.out.println("Usuários carregados: " + loadedUsers.size());
+            }
+        }, executor);
+        CompletableFuture<Void> reservationsRead = CompletableFuture.runAsync(() -> {
+            List<Reservation> loadedReservations = read(reservationsFile);
+            if (loadedReservations != null) {
+                setReservations(loadedReservations);
+                System.out.println("Reservas carregadas: " + loadedReservations.size());
+            }
+        }, executor);
+        loaded = CompletableFuture.allOf(classroomsLoaded, usersLoaded, reservationsRead);
+        return new DataLoading(classroomsLoaded, usersLoaded, loaded);
+    }
+
+    /**
+     * Lê uma lista de um arquivo de dados, registrando o erro se a leitura falhar.
+     * @param filename O nome do arquivo.
+     * @param <T> O tipo dos objetos na lista.
+     * @return A lista, ou null se o arquivo não existir ou não puder ser lido.
+     */
+    private static <T extends Serializable> List<T> read(String filename) {
+        try {
+            return FileUtil.readObjectFromFile(filename);
+        } catch (Exception e) {
+            System.err.println("Erro ao carregar dados de " + filename + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Adiciona uma sala de aula e regrava os arquivos.
+     * @param classroom A sala.
+     */
+    @Override
+    public synchronized void addClassroom(Classroom classroom) {
+        super.addClassroom(classroom);
+        save();
+    }
+
+    /**
+     * Remove uma sala de aula e regrava os arquivos.
+     * @param classroom A sala.
+     */
+    @Override
+    public synchronized void removeClassroom(Classroom classroom) {
+        super.removeClassroom(classroom);
+        save();
+    }
+
+    /**
+     * Adiciona um usuário e regrava os arquivos.
+     * @param user O usuário.
+     */
+    @Override
+    public synchronized void addUser(User user) {
+        super.addUser(user);
+        save();
+    }
+
+    /**
+     * Altera a senha de um usuário e regrava os arquivos.
+     * @param user O usuário.
+     * @param newPassword A nova senha.
+     */
+    @Override
+    public synchronized void updateUserPassword(User user, String newPassword) {
+        super.updateUserPassword(user, newPassword);
+        save();
+    }
+
+    /**
+     * Adiciona uma reserva e regrava os arquivos.
+     * @param reservation A reserva.
+     */
+    @Override
+    public synchronized void addReservation(Reservation reservation) {
+        super.addReservation(reservation);
+        save();
+    }
+
+    /**
+     * Regrava os arquivos com a reserva alterada.
+     * @param reservation A reserva alterada.
+     */
+    @Override
+    public synchronized void updateReservation(Reservation reservation) {
+        save();
+    }
+
+    /**
+     * Exclui uma reserva e regrava os arquivos.
+     * @param reservation A reserva.
+     */
+    @Override
+    public synchronized void deleteReservation(Reservation reservation) {
+        super.deleteReservation(reservation);
+        save();
+    }
+
+    /**
+     * Grava as três listas nos arquivos de dados, esperando o fim do carregamento para
+     * não sobrescrever um arquivo ainda não lido.
+     */
+    @Override
+    public synchronized void save() {
+        loaded.join();
+        try {
+            FileUtil.writeObjectToFile(classrooms, classroomsFile);
+            FileUtil.writeObjectToFile(users, usersFile);
+            FileUtil.writeObjectToFile(reservations, reservationsFile);
+            lastSaveBytes = new File(classroomsFile).length() + new File(usersFile).length()
+                    + new File(reservationsFile).length();
+            totalSaveBytes += lastSaveBytes;
+            System.out.println("Dados salvos com sucesso.");
+        } catch (Exception e) {
+            System.err.println("Erro ao salvar dados: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Obtém o número de bytes gravados no último salvamento.
+     * @return O número de bytes.
+     */
+    @Override
+    public synchronized long getLastSaveBytes() {
+        return lastSaveBytes;
+    }
+
+    /**
+     * Obtém o número total de bytes gravados em salvamentos desde a inicialização.
+     * @return O número de bytes.
+     */
+    @Override
+    public synchronized long getTotalSaveBytes() {
+        return totalSaveBytes;
+    }
+}
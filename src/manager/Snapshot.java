@@ -0,0 +1,88 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Cópia imutável de uma coleção do {@link ReservationManager}, com um número de versão.
+ * O gerenciador publica uma nova cópia a cada alteração da coleção, e os leitores
+ * obtêm a cópia atual sem copiar a coleção e a percorrem sem bloqueios; uma cópia
+ * nunca mostra uma alteração pela metade. As versões crescem a cada publicação, de modo
+ * que uma tela pode comparar a versão com a que está exibindo e evitar recarregar dados
+ * que não mudaram.
+ *
+ * A cópia guarda os mesmos objetos da coleção: alterações nos próprios objetos (como o
+ * status de uma reserva) são vistas por todas as versões. A versão das reservas guarda
+ * também o estado de cada reserva na versão (ver {@link ReservationSnapshot}).
+ *
+ * @param <T> O tipo dos elementos.
+ */
+public class Snapshot<T> implements Iterable<T> {
+    private final long version;
+    private final List<T> items;
+
+    /**
+     * Construtor da cópia.
+     * @param version A versão.
+     * @param items Os elementos: uma lista somente leitura que nunca é alterada.
+     */
+    Snapshot(long version, List<T> items) {
+        this.version = version;
+        this.items = items;
+    }
+
+    /**
+     * Copia uma coleção em uma nova cópia.
+     * @param version A versão.
+     * @param items Os elementos.
+     * @param <T> O tipo dos elementos.
+     * @return A cópia.
+     */
+    static <T> Snapshot<T> copyOf(long version, Collection<T> items) {
+        return new Snapshot<>(version, Collections.unmodifiableList(new ArrayList<>(items)));
+    }
+
+    /**
+     * Obtém a versão da cópia.
+     * @return A versão.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Obtém os elementos.
+     * @return Uma lista somente leitura dos elementos.
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Obtém o número de elementos.
+     * @return O número de elementos.
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Verifica se a cópia está vazia.
+     * @return true se não houver elementos.
+     */
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * Percorre os elementos.
+     * @return Um iterador somente leitura.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return items.iterator();
+    }
+}
@@ -0,0 +1,530 @@
+package manager;
+
+import model.Classroom;
+import model.Reservation;
+import model.User;
+import util.BinaryCodec;
+import util.FileUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Armazena snapshots completos dos dados em gerações.
+ *
+ * Cada geração é gravada em um diretório próprio ({@code snapshot-N}), com os arquivos
+ * de dados (no formato de {@link BinaryCodec}) forçados em disco e, por último, um marcador {@code COMPLETE}
+ * com o LSN do diário contido no snapshot e o maior ID de reserva. As reservas são
+ * particionadas por mês ({@code reservations/AAAA-MM.txt}), de forma que cada mês
+ * pode ser lido sob demanda; ao lado de cada partição ficam as chaves do mês
+ * ({@code AAAA-MM.keys}, ver {@link MonthKeys}), lidas sem carregar as reservas. A geração
+ * atual só é publicada depois
+ * disso, substituindo o arquivo {@code MANIFEST} por renomeação atômica. Assim, uma
+ * queda no meio da gravação nunca deixa um conjunto de dados inconsistente: na
+ * recuperação, vale a geração apontada pelo manifesto ou, se ele estiver ausente
+ * ou inválido, a geração completa mais recente.
+ *
+ * Coleções que não mudaram desde a geração anterior não são regravadas: o arquivo
+ * da geração anterior, que nunca é alterado depois de publicado, é reaproveitado
+ * por um link físico.
+ */
+public class SnapshotStore {
+    private static final String MANIFEST_FILE = "MANIFEST";
+    private static final String COMPLETE_FILE = "COMPLETE";
+    private static final String GENERATION_PREFIX = "snapshot-";
+    static final String CLASSROOMS_FILE = "classrooms.txt";
+    static final String USERS_FILE = "users.txt";
+    static final String RESERVATIONS_FILE = "reservations.txt";
+    static final String RESERVATIONS_DIR = "reservations";
+    private static final String PARTITION_SUFFIX = ".txt";
+    private static final String KEYS_SUFFIX = ".keys";
+
+    private final Path dataDir;
+    private long currentGeneration;
+    private long lastBytesWritten;
+    private long totalBytesWritten;
+
+    /**
+     * Snapshot recuperado. As coleções são lidas por {@link #readClassrooms()},
+     * {@link #readUsers()} e {@link #readReservations()}, que leem arquivos distintos
+     * de uma geração publicada (nunca alterada) e podem ser chamados em paralelo.
+     */
+    public static class Snapshot {
+        private final Path dir;
+        private final NavigableSet<YearMonth> reservationMonths;
+        private final long lsn;
+        private final int maxReservationId;
+        private final boolean mappedReservations;
+
+        /**
+         * Construtor do snapshot.
+         * @param dir O diretório da geração, ou o diretório de dados no formato antigo.
+         * @param reservationMonths Os meses com reservas gravadas em partições.
+         * @param lsn O LSN do diário contido no snapshot.
+         * @param maxReservationId O maior ID de reserva, ou -1 se desconhecido.
+         * @param mappedReservations Se true, as reservas estão no {@link MappedReservationStore}.
+         */
+        Snapshot(Path dir, NavigableSet<YearMonth> reservationMonths, long lsn, int maxReservationId,
+                boolean mappedReservations) {
+            this.dir = dir;
+            this.reservationMonths = reservationMonths;
+            this.lsn = lsn;
+            this.maxReservationId = maxReservationId;
+            this.mappedReservations = mappedReservations;
+        }
+
+        /**
+         * Lê as salas.
+         * @return As salas, ou null se não houver.
+         * @throws IOException Se ocorrer um erro de I/O.
+         */
+        public List<Classroom> readClassrooms() throws IOException {
+            return BinaryCodec.readClassrooms(dir.resolve(CLASSROOMS_FILE).toString());
+        }
+
+        /**
+         * Lê os usuários.
+         * @return Os usuários, ou null se não houver.
+         * @throws IOException Se ocorrer um erro de I/O.
+         */
+        public List<User> readUsers() throws IOException {
+            return BinaryCodec.readUsers(dir.resolve(USERS_FILE).toString());
+        }
+
+        /**
+         * Lê todas as reservas, quando gravadas em um arquivo não particionado (formato anterior).
+         * @param users Obtém o usuário carregado a partir do nome de usuário, ou null se não existir.
+         * @return As reservas, ou null se as reservas estiverem particionadas por mês.
+         * @throws IOException Se ocorrer um erro de I/O.
+         */
+        public List<Reservation> readReservations(Function<String, User> users) throws IOException {
+            Path file = dir.resolve(RESERVATIONS_FILE);
+            return Files.exists(file) ? BinaryCodec.readReservations(file.toString(), users) : null;
+        }
+
+        /**
+         * Obtém os meses com reservas gravadas em partições.
+         * @return Os meses, em ordem crescente.
+         */
+        public NavigableSet<YearMonth> getReservationMonths() {
+            return reservationMonths;
+        }
+
+        /**
+         * Obtém o maior ID de reserva contido no snapshot.
+         * @return O ID, ou -1 se desconhecido.
+         */
+        public int getMaxReservationId() {
+            return maxReservationId;
+        }
+
+        /**
+         * Verifica se as reservas deste snapshot estão no {@link MappedReservationStore},
+         * e não em partições da geração.
+         * @return true se as reservas estiverem no armazenamento mapeado.
+         */
+        public boolean isMappedReservations() {
+            return mappedReservations;
+        }
+
+        /**
+         * Obtém o LSN do diário contido no snapshot.
+         * @return O LSN.
+         */
+        public long getLsn() {
+            return lsn;
+        }
+    }
+
+    /**
+     * Construtor do armazenamento de snapshots.
+     * @param dataDir O diretório de dados.
+     */
+    public SnapshotStore(String dataDir) {
+        this.dataDir = Paths.get(dataDir);
+    }
+
+    /**
+     * Recupera o último snapshot completo, sem ler as coleções. Gerações incompletas
+     * (posteriores à escolhida) são apagadas. Se não houver nenhuma geração, o snapshot
+     * aponta para os arquivos do formato antigo, gravados diretamente no diretório de dados.
+     * @return O snapshot recuperado.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public Snapshot recover() throws IOException {
+        long generation = readManifest();
+        if (generation < 0 || readCompleteMarker(generation) < 0) {
+            if (generation >= 0) {
+                System.err.println("Geração " + generation + " do manifesto está incompleta; procurando a anterior.");
+            }
+            generation = -1;
+            List<Long> generations = listGenerations();
+            for (int i = generations.size() - 1; i >= 0; i--) {
+                if (readCompleteMarker(generations.get(i)) >= 0) {
+                    generation = generations.get(i);
+                    break;
+                }
+            }
+        }
+
+        for (long existing : listGenerations()) {
+            if (existing > generation) {
+                FileUtil.deleteDirectory(generationDir(existing));
+            }
+        }
+
+        if (generation < 0) {
+            currentGeneration = 0;
+            return new Snapshot(dataDir, new TreeSet<>(), 0, -1, false);
+        }
+
+        currentGeneration = generation;
+        Path dir = generationDir(generation);
+        System.out.println("Carregando snapshot da geração " + generation + ".");
+        return new Snapshot(dir,
+                listPartitions(dir),
+                readCompleteMarker(generation),
+                readMaxReservationId(generation),
+                readMarkerValue(generation, "mappedReservations") == 1);
+    }
+
+    /**
+     * Lê as reservas de um mês da geração atual. Pode ser chamado em paralelo para meses distintos.
+     * @param month O mês.
+     * @param users Obtém o usuário carregado a partir do nome de usuário, ou null se não existir.
+     * @return As reservas do mês (vazia se não houver).
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public List<Reservation> readMonth(YearMonth month, Function<String, User> users) throws IOException {
+        Path file;
+        synchronized (this) {
+            file = partitionFile(generationDir(currentGeneration), month);
+        }
+        List<Reservation> reservations = Files.exists(file)
+                ? BinaryCodec.readReservations(file.toString(), users) : null;
+        return reservations != null ? reservations : new ArrayList<>();
+    }
+
+    /**
+     * Lê as chaves das reservas de um mês da geração atual.
+     * @param month O mês.
+     * @return As chaves; vazias se o mês não tiver partição, ou null se a partição tiver
+     *         sido gravada sem as chaves (formato anterior).
+     * @throws IOException Se ocorrer um erro de I/O ou o arquivo for inválido.
+     */
+    public MonthKeys readMonthKeys(YearMonth month) throws IOException {
+        Path dir;
+        synchronized (this) {
+            dir = generationDir(currentGeneration);
+        }
+        if (!Files.exists(partitionFile(dir, month))) {
+            return MonthKeys.EMPTY;
+        }
+        return MonthKeys.read(keysFile(dir, month));
+    }
+
+    /**
+     * Verifica se a partição de um mês da geração atual foi gravada com as chaves do mês.
+     * @param month O mês.
+     * @return true se a partição tiver as chaves, ou se o mês não tiver partição.
+     */
+    public synchronized boolean hasMonthKeys(YearMonth month) {
+        Path dir = generationDir(currentGeneration);
+        return !Files.exists(partitionFile(dir, month)) || Files.exists(keysFile(dir, month));
+    }
+
+    /**
+     * Verifica se há uma geração publicada, da qual coleções inalteradas podem ser reaproveitadas.
+     * @return true se houver uma geração.
+     */
+    public synchronized boolean hasGeneration() {
+        return currentGeneration > 0;
+    }
+
+    /**
+     * Grava um novo snapshot em uma nova geração e a publica no manifesto.
+     * Uma coleção null, ou um mês ausente de {@code changedMonths}, não mudou e é
+     * reaproveitado da geração anterior; cada mês alterado é gravado com as suas chaves.
+     * @param classrooms As salas, ou null se não mudaram.
+     * @param users Os usuários, ou null se não mudaram.
+     * @param changedMonths As reservas de cada mês alterado.
+     * @param reservationMonths Todos os meses com reservas.
+     * @param lsn O LSN do diário contido no snapshot.
+     * @param maxReservationId O maior ID de reserva.
+     * @param mappedReservations Se true, as reservas estão no {@link MappedReservationStore}
+     *                           e a geração não tem partições.
+     * @return O número de bytes gravados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public synchronized long write(List<Classroom> classrooms, List<User> users,
+            Map<YearMonth, List<Reservation>> changedMonths, Set<YearMonth> reservationMonths,
+            long lsn, int maxReservationId, boolean mappedReservations) throws IOException {
+        long generation = currentGeneration + 1;
+        Path dir = generationDir(generation);
+        Path previousDir = generationDir(currentGeneration);
+        FileUtil.deleteDirectory(dir);
+        Files.createDirectories(dir);
+
+        long bytes = 0;
+        bytes += classrooms != null
+                ? BinaryCodec.writeClassrooms(classrooms, dir.resolve(CLASSROOMS_FILE).toString())
+                : carryOver(previousDir, dir, CLASSROOMS_FILE);
+        bytes += users != null
+                ? BinaryCodec.writeUsers(users, dir.resolve(USERS_FILE).toString())
+                : carryOver(previousDir, dir, USERS_FILE);
+
+        Path partitionsDir = dir.resolve(RESERVATIONS_DIR);
+        Files.createDirectories(partitionsDir);
+        Set<YearMonth> months = new TreeSet<>(reservationMonths);
+        months.addAll(changedMonths.keySet());
+        for (YearMonth month : months) {
+            List<Reservation> monthReservations = changedMonths.get(month);
+            if (monthReservations == null) {
+                Path source = partitionFile(previousDir, month);
+                if (Files.exists(source)) {
+                    bytes += FileUtil.linkOrCopy(source, partitionFile(dir, month));
+                }
+                Path keys = keysFile(previousDir, month);
+                if (Files.exists(keys)) {
+                    bytes += FileUtil.linkOrCopy(keys, keysFile(dir, month));
+                }
+            } else if (!monthReservations.isEmpty()) {
+                bytes += BinaryCodec.writeReservations(monthReservations, partitionFile(dir, month).toString());
+                bytes += MonthKeys.of(monthReservations).write(keysFile(dir, month));
+            }
+        }
+        FileUtil.forceDirectory(partitionsDir);
+
+        FileUtil.writeTextToFileAtomically("lsn=" + lsn + "\nmaxReservationId=" + maxReservationId
+                + "\nmappedReservations=" + (mappedReservations ? 1 : 0) + "\n", dir.resolve(COMPLETE_FILE).toString());
+        FileUtil.forceDirectory(dataDir);
+
+        writeManifest(generation);
+        currentGeneration = generation;
+
+        for (long existing : listGenerations()) {
+            if (existing < generation - 1) {
+                FileUtil.deleteDirectory(generationDir(existing));
+            }
+        }
+        for (String legacy : new String[] { CLASSROOMS_FILE, USERS_FILE, RESERVATIONS_FILE }) {
+            Files.deleteIfExists(dataDir.resolve(legacy));
+        }
+
+        lastBytesWritten = bytes;
+        totalBytesWritten += bytes;
+        return bytes;
+    }
+
+    /**
+     * Obtém o número de bytes de dados gravados no último snapshot.
+     * @return O número de bytes.
+     */
+    public synchronized long getLastBytesWritten() {
+        return lastBytesWritten;
+    }
+
+    /**
+     * Obtém o número total de bytes de dados gravados em snapshots desde a inicialização.
+     * @return O número de bytes.
+     */
+    public synchronized long getTotalBytesWritten() {
+        return totalBytesWritten;
+    }
+
+    /**
+     * Reaproveita na nova geração o arquivo de uma coleção que não mudou.
+     * @param previousDir O diretório da geração anterior.
+     * @param dir O diretório da nova geração.
+     * @param filename O nome do arquivo da coleção.
+     * @return O número de bytes copiados (0 se foi criado um link).
+     * @throws IOException Se ocorrer um erro de I/O ou se não houver geração anterior.
+     */
+    private long carryOver(Path previousDir, Path dir, String filename) throws IOException {
+        Path source = previousDir.resolve(filename);
+        if (currentGeneration <= 0 || !Files.exists(source)) {
+            throw new IOException("Não há geração anterior com o arquivo " + filename + ".");
+        }
+        return FileUtil.linkOrCopy(source, dir.resolve(filename));
+    }
+
+    /**
+     * Obtém o diretório de uma geração.
+     * @param generation O número da geração.
+     * @return O caminho do diretório.
+     */
+    private Path generationDir(long generation) {
+        return dataDir.resolve(GENERATION_PREFIX + generation);
+    }
+
+    /**
+     * Obtém o arquivo da partição de um mês.
+     * @param dir O diretório da geração.
+     * @param month O mês.
+     * @return O caminho do arquivo.
+     */
+    private static Path partitionFile(Path dir, YearMonth month) {
+        return dir.resolve(RESERVATIONS_DIR).resolve(month + PARTITION_SUFFIX);
+    }
+
+    /**
+     * Obtém o arquivo das chaves da partição de um mês.
+     * @param dir O diretório da geração.
+     * @param month O mês.
+     * @return O caminho do arquivo.
+     */
+    private static Path keysFile(Path dir, YearMonth month) {
+        return dir.resolve(RESERVATIONS_DIR).resolve(month + KEYS_SUFFIX);
+    }
+
+    /**
+     * Lista os meses com partição de reservas em uma geração.
+     * @param dir O diretório da geração.
+     * @return Os meses, em ordem crescente.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private static NavigableSet<YearMonth> listPartitions(Path dir) throws IOException {
+        NavigableSet<YearMonth> months = new TreeSet<>();
+        Path partitionsDir = dir.resolve(RESERVATIONS_DIR);
+        if (!Files.isDirectory(partitionsDir)) {
+            return months;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(partitionsDir, "*" + PARTITION_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    months.add(YearMonth.parse(name.substring(0, name.length() - PARTITION_SUFFIX.length())));
+                } catch (DateTimeParseException e) {
+                    // Não é uma partição.
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Lista as gerações existentes, em ordem crescente.
+     * @return Os números das gerações.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private List<Long> listGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        if (!Files.isDirectory(dataDir)) {
+            return generations;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dataDir, GENERATION_PREFIX + "*")) {
+            for (Path dir : stream) {
+                try {
+                    generations.add(Long.parseLong(dir.getFileName().toString().substring(GENERATION_PREFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Não é um diretório de geração.
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Lê o marcador de conclusão de uma geração.
+     * @param generation O número da geração.
+     * @return O LSN gravado no marcador, ou -1 se a geração estiver incompleta.
+     */
+    private long readCompleteMarker(long generation) {
+        return readMarkerValue(generation, "lsn");
+    }
+
+    /**
+     * Lê o maior ID de reserva gravado no marcador de conclusão de uma geração.
+     * @param generation O número da geração.
+     * @return O ID, ou -1 se o marcador não o contiver.
+     */
+    private int readMaxReservationId(long generation) {
+        return (int) readMarkerValue(generation, "maxReservationId");
+    }
+
+    /**
+     * Lê um valor do marcador de conclusão de uma geração. O marcador do formato
+     * anterior contém apenas o LSN.
+     * @param generation O número da geração.
+     * @param key A chave do valor.
+     * @return O valor, ou -1 se ausente ou inválido.
+     */
+    private long readMarkerValue(long generation, String key) {
+        try {
+            String content = FileUtil.readTextFromFile(generationDir(generation).resolve(COMPLETE_FILE).toString());
+            if (content == null) {
+                return -1;
+            }
+            if (!content.contains("=")) {
+                return key.equals("lsn") ? Long.parseLong(content.trim()) : -1;
+            }
+            for (String line : content.split("\n")) {
+                if (line.startsWith(key + "=")) {
+                    return Long.parseLong(line.substring(key.length() + 1).trim());
+                }
+            }
+            return -1;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Lê a geração publicada no manifesto.
+     * @return O número da geração, ou -1 se o manifesto estiver ausente ou inválido.
+     */
+    private long readManifest() {
+        try {
+            String content = FileUtil.readTextFromFile(dataDir.resolve(MANIFEST_FILE).toString());
+            if (content == null) {
+                return -1;
+            }
+            String[] lines = content.split("\n");
+            if (lines.length < 2 || !lines[1].equals("checksum=" + checksum(lines[0]))) {
+                System.err.println("Manifesto inválido; ignorando.");
+                return -1;
+            }
+            return Long.parseLong(lines[0].substring("generation=".length()));
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Publica uma geração no manifesto.
+     * @param generation O número da geração.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private void writeManifest(long generation) throws IOException {
+        String line = "generation=" + generation;
+        FileUtil.writeTextToFileAtomically(line + "\nchecksum=" + checksum(line) + "\n",
+                dataDir.resolve(MANIFEST_FILE).toString());
+    }
+
+    /**
+     * Calcula o CRC32 de uma linha do manifesto.
+     * @param line A linha.
+     * @return O CRC32.
+     */
+    private static long checksum(String line) {
+        CRC32 crc = new CRC32();
+        crc.update(line.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
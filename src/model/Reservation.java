@@ -1,5 +1,9 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -7,10 +11,24 @@ import java.util.Objects;
 
 /**
  * Representa uma reserva.
+ *
+ * O status e a observação ficam juntos em um {@link ReservationState} imutável, trocado
+ * em uma única escrita; quem lê a reserva sem bloqueio e precisa dos dois deve usar
+ * {@link #getState()}.
  */
 public class Reservation implements Serializable {
     private static final long serialVersionUID = 1L;
-    private static int nextReservationId = 1;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", int.class),
+            new ObjectStreamField("classroom", Classroom.class),
+            new ObjectStreamField("reservedBy", User.class),
+            new ObjectStreamField("date", LocalDate.class),
+            new ObjectStreamField("startTime", LocalTime.class),
+            new ObjectStreamField("endTime", LocalTime.class),
+            new ObjectStreamField("purpose", String.class),
+            new ObjectStreamField("status", ReservationStatus.class),
+            new ObjectStreamField("observation", String.class)
+    };
 
     private int id;
     private Classroom classroom;
@@ -19,11 +37,12 @@ public class Reservation implements Serializable {
     private LocalTime startTime;
     private LocalTime endTime;
     private String purpose;
-    private ReservationStatus status;
-    private String observation;
+    private volatile ReservationState state;
 
     /**
-     * Construtor para uma reserva.
+     * Construtor para uma nova reserva, pendente. O ID é gerado pelo
+     * {@link manager.ReservationManager}.
+     * @param id O ID da reserva.
      * @param classroom A sala de aula.
      * @param reservedBy O usuário que reservou.
      * @param date A data da reserva.
@@ -31,40 +50,39 @@ public class Reservation implements Serializable {
      * @param endTime A hora de término.
      * @param purpose O propósito da reserva.
      */
-    public Reservation(Classroom classroom, User reservedBy, LocalDate date, LocalTime startTime, LocalTime endTime, String purpose) {
-        this.id = generateNextId();
+    public Reservation(int id, Classroom classroom, User reservedBy, LocalDate date, LocalTime startTime, LocalTime endTime, String purpose) {
+        this.id = id;
         this.classroom = classroom;
         this.reservedBy = reservedBy;
         this.date = date;
         this.startTime = startTime;
         this.endTime = endTime;
         this.purpose = purpose;
-        this.status = ReservationStatus.PENDING;
-        this.observation = "";
+        this.state = new ReservationState(ReservationStatus.PENDING, "");
     }
 
     /**
-     * Gera o próximo ID de reserva.
-     * @return O próximo ID de reserva.
-     */
-    private static synchronized int generateNextId() {
-        return nextReservationId++;
-    }
-
-    /**
-     * Define o próximo ID de reserva.
-     * @param newId O novo ID.
-     */
-    public static synchronized void setNextReservationId(int newId) {
-        nextReservationId = newId;
-    }
-
-    /**
-     * Obtém o próximo ID de reserva.
-     * @return O próximo ID de reserva.
+     * Construtor para restaurar uma reserva já existente, preservando o ID e o estado.
+     * @param id O ID da reserva.
+     * @param classroom A sala de aula.
+     * @param reservedBy O usuário que reservou.
+     * @param date A data da reserva.
+     * @param startTime A hora de início.
+     * @param endTime A hora de término.
+     * @param purpose O propósito da reserva.
+     * @param status O status da reserva.
+     * @param observation A observação da reserva.
      */
-    public static synchronized int getNextId() {
-        return nextReservationId;
+    public Reservation(int id, Classroom classroom, User reservedBy, LocalDate date, LocalTime startTime, LocalTime endTime,
+            String purpose, ReservationStatus status, String observation) {
+        this.id = id;
+        this.classroom = classroom;
+        this.reservedBy = reservedBy;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.purpose = purpose;
+        this.state = new ReservationState(status, observation);
     }
 
     /**
@@ -128,15 +146,32 @@ public class Reservation implements Serializable {
      * @return O status.
      */
     public ReservationStatus getStatus() {
-        return status;
+        return state.getStatus();
+    }
+
+    /**
+     * Obtém o status e a observação da reserva, lidos de uma só vez.
+     * @return O estado.
+     */
+    public ReservationState getState() {
+        return state;
     }
 
     /**
-     * Define o status da reserva.
+     * Define o status da reserva, mantendo a observação.
      * @param status O novo status.
      */
     public void setStatus(ReservationStatus status) {
-        this.status = status;
+        this.state = new ReservationState(status, state.getObservation());
+    }
+
+    /**
+     * Define o status e a observação da reserva em uma única escrita.
+     * @param status O novo status.
+     * @param observation A nova observação.
+     */
+    public void changeStatus(ReservationStatus status, String observation) {
+        this.state = new ReservationState(status, observation);
     }
 
     /**
@@ -176,15 +211,15 @@ public class Reservation implements Serializable {
      * @return A observação.
      */
     public String getObservation() {
-        return observation != null ? observation : "";
+        return state.getObservation();
     }
 
     /**
-     * Define a observação da reserva.
+     * Define a observação da reserva, mantendo o status.
      * @param observation A nova observação.
      */
     public void setObservation(String observation) {
-        this.observation = observation;
+        this.state = new ReservationState(state.getStatus(), observation);
     }
 
     /**
@@ -210,6 +245,7 @@ public class Reservation implements Serializable {
      */
     @Override
     public String toString() {
+        ReservationState current = state;
         return "Reservation{" +
                "id=" + id +
                ", classroom=" + classroom.getName() +
@@ -218,11 +254,52 @@ public class Reservation implements Serializable {
                ", startTime=" + startTime +
                ", endTime=" + endTime +
                ", purpose='" + purpose + '\'' +
-               ", status=" + status.getName() +
-               ", observation='" + observation + '\'' + 
+               ", status=" + current.getStatus().getName() +
+               ", observation='" + current.getObservation() + '\'' +
                '}';
     }
 
+    /**
+     * Grava a reserva com os mesmos campos de antes do {@link ReservationState}, para que os
+     * arquivos serializados continuem compatíveis.
+     * @param out O fluxo de saída.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ReservationState current = state;
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", id);
+        fields.put("classroom", classroom);
+        fields.put("reservedBy", reservedBy);
+        fields.put("date", date);
+        fields.put("startTime", startTime);
+        fields.put("endTime", endTime);
+        fields.put("purpose", purpose);
+        fields.put("status", current.getStatus());
+        fields.put("observation", current.getObservation());
+        out.writeFields();
+    }
+
+    /**
+     * Lê a reserva gravada por {@link #writeObject(ObjectOutputStream)}.
+     * @param in O fluxo de entrada.
+     * @throws IOException Se ocorrer um erro de I/O.
+     * @throws ClassNotFoundException Se uma classe não for encontrada.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = fields.get("id", 0);
+        classroom = (Classroom) fields.get("classroom", null);
+        reservedBy = (User) fields.get("reservedBy", null);
+        date = (LocalDate) fields.get("date", null);
+        startTime = (LocalTime) fields.get("startTime", null);
+        endTime = (LocalTime) fields.get("endTime", null);
+        purpose = (String) fields.get("purpose", null);
+        ReservationStatus status = (ReservationStatus) fields.get("status", null);
+        state = new ReservationState(status != null ? status : ReservationStatus.PENDING,
+                (String) fields.get("observation", null));
+    }
+
     /**
      * Verifica se dois objetos Reservation são iguais.
      * @param o O objeto a ser comparado.
@@ -0,0 +1,39 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * Representa o status de uma reserva junto com a sua observação. É imutável: a reserva
+ * troca o estado inteiro de uma vez, de modo que quem lê o estado sem bloqueio nunca vê
+ * a observação nova com o status antigo.
+ */
+public final class ReservationState {
+    private final ReservationStatus status;
+    private final String observation;
+
+    /**
+     * Construtor.
+     * @param status O status.
+     * @param observation A observação; nula é tratada como vazia.
+     */
+    public ReservationState(ReservationStatus status, String observation) {
+        this.status = Objects.requireNonNull(status, "status");
+        this.observation = observation != null ? observation : "";
+    }
+
+    /**
+     * Obtém o status.
+     * @return O status.
+     */
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Obtém a observação.
+     * @return A observação, nunca nula.
+     */
+    public String getObservation() {
+        return observation;
+    }
+}
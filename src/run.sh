@@ -24,4 +24,5 @@ if [ -d "resources" ]; then
 fi
 
 # Executa a classe principal, adicionando o diretório 'out' e as bibliotecas ao classpath
-java -cp "out:$CP_LIBS" Main
\ No newline at end of file
+# e repassando os argumentos do script (ex.: ./run.sh --server 8080)
+java -cp "out:$CP_LIBS" Main "$@"
\ No newline at end of file
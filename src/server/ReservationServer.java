@@ -0,0 +1,565 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exception.ReservationConflictException;
+import manager.ReservationCommandQueue;
+import manager.ReservationManager;
+import model.Classroom;
+import model.Reservation;
+import model.ReservationState;
+import model.User;
+import util.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * API HTTP local do sistema de reservas, para uso por scripts e outras ferramentas.
+ *
+ * O servidor usa o {@link HttpServer} do JDK, escuta apenas no endereço local e atende
+ * cada requisição em uma thread virtual; as alterações são aplicadas pela
+ * {@link ReservationCommandQueue}, e cada resposta é enviada depois de a alteração
+ * estar gravada. Os corpos das requisições e das respostas são JSON.
+ *
+ * <ul>
+ *     <li>{@code POST /api/login} {@code {"username", "password"}}: abre uma sessão e
+ *     devolve o token a enviar nas demais requisições, no cabeçalho
+ *     {@code Authorization: Bearer <token>}. A sessão expira após
+ *     {@value #SESSION_TIMEOUT_MINUTES} minutos sem uso.</li>
+ *     <li>{@code POST /api/logout}: encerra a sessão do token enviado.</li>
+ *     <li>{@code GET /api/classrooms/available?date=&start=&end=}, com os parâmetros
+ *     opcionais {@code minCapacity}, {@code projector}, {@code location} e
+ *     {@code feature} (repetível): salas disponíveis no horário.</li>
+ *     <li>{@code POST /api/reservations} {@code {"classroom", "date", "start", "end",
+ *     "purpose"}}: faz uma reserva, pendente, em nome do usuário da sessão.</li>
+ *     <li>{@code POST /api/reservations/<id>/confirm} e {@code .../reject}
+ *     {@code {"observation"}}: confirmam ou rejeitam uma reserva (administradores).</li>
+ *     <li>{@code POST /api/reservations/<id>/cancel} {@code {"observation"}}: cancela
+ *     uma reserva (administradores ou o autor da reserva).</li>
+ * </ul>
+ *
+ * Os erros são devolvidos como {@code {"erro": "<mensagem>"}}, com o status 400 (dados
+ * inválidos), 401 (sem sessão), 403 (sem permissão), 404, 405, 409 (conflito de reserva)
+ * ou 500 (falha interna, inclusive da gravação).
+ */
+public class ReservationServer {
+    /** Porta padrão do servidor. */
+    public static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String ADMIN_ROLE = "Administrator";
+    /** Tempo sem uso, em minutos, após o qual uma sessão expira. */
+    public static final int SESSION_TIMEOUT_MINUTES = 30;
+    private static final long SESSION_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(SESSION_TIMEOUT_MINUTES);
+    private static final long SESSION_SWEEP_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ReservationManager manager;
+    private final ReservationCommandQueue commands;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionSweep = new AtomicLong(System.nanoTime() + SESSION_SWEEP_NANOS);
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Uma sessão aberta, com o usuário e o instante em que expira.
+     */
+    private static class Session {
+        private final User user;
+        private volatile long expiresAt;
+
+        /**
+         * Construtor da sessão, que expira após o tempo sem uso.
+         * @param user O usuário.
+         * @param now O instante atual, de {@link System#nanoTime()}.
+         */
+        Session(User user, long now) {
+            this.user = user;
+            this.expiresAt = now + SESSION_TIMEOUT_NANOS;
+        }
+
+        /**
+         * Verifica se a sessão expirou.
+         * @param now O instante atual, de {@link System#nanoTime()}.
+         * @return true se a sessão expirou.
+         */
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+
+        /**
+         * Adia a expiração da sessão, contando o tempo sem uso a partir de agora.
+         * @param now O instante atual, de {@link System#nanoTime()}.
+         */
+        void touch(long now) {
+            expiresAt = now + SESSION_TIMEOUT_NANOS;
+        }
+    }
+
+    /**
+     * Erro de uma requisição, com o status HTTP da resposta.
+     */
+    private static class ApiException extends RuntimeException {
+        private final int status;
+
+        /**
+         * Construtor do erro.
+         * @param status O status HTTP.
+         * @param message A mensagem.
+         */
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Tratamento de uma rota, que devolve o corpo da resposta.
+     */
+    private interface Route {
+        /**
+         * Trata a requisição.
+         * @param exchange A requisição.
+         * @return O corpo da resposta, a ser escrito em JSON.
+         * @throws Exception Se a requisição falhar.
+         */
+        Object handle(HttpExchange exchange) throws Exception;
+    }
+
+    /**
+     * Construtor do servidor. O servidor só atende depois de {@link #start()}.
+     * @param manager O gerenciador.
+     * @param port A porta (0 para uma porta livre qualquer).
+     * @throws IOException Se a porta não puder ser aberta.
+     */
+    public ReservationServer(ReservationManager manager, int port) throws IOException {
+        this.manager = manager;
+        this.commands = new ReservationCommandQueue(manager);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/api/login", exchange -> respond(exchange, this::login));
+        server.createContext("/api/logout", exchange -> respond(exchange, this::logout));
+        server.createContext("/api/classrooms/available", exchange -> respond(exchange, this::findAvailableClassrooms));
+        server.createContext("/api/reservations", exchange -> respond(exchange, this::reservations));
+    }
+
+    /**
+     * Inicia o atendimento das requisições.
+     */
+    public void start() {
+        server.start();
+        System.out.println("API HTTP em http://" + server.getAddress().getHostString() + ":" + getPort() + "/api");
+    }
+
+    /**
+     * Encerra o servidor, esperando até um segundo pelas requisições em andamento, e
+     * aplica as alterações pendentes.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        commands.shutdown();
+    }
+
+    /**
+     * Obtém a porta em que o servidor escuta.
+     * @return A porta.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Executa o servidor sem interface gráfica, até o encerramento do processo.
+     * @param port A porta.
+     * @throws IOException Se a porta não puder ser aberta.
+     */
+    public static void runHeadless(int port) throws IOException {
+        ReservationManager manager = new ReservationManager();
+        manager.initializeDefaultData();
+        ReservationServer server = new ReservationServer(manager, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            manager.shutdown();
+        }, "server-shutdown"));
+        server.start();
+    }
+
+    /**
+     * Abre uma sessão. As sessões expiradas são removidas aqui, no máximo uma vez por minuto.
+     * @param exchange A requisição.
+     * @return O token e os dados do usuário.
+     * @throws IOException Se o corpo não puder ser lido.
+     */
+    private Object login(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "POST");
+        Map<String, Object> body = readBody(exchange);
+        User user = manager.getUserByUsername(requireString(body, "username"));
+        if (user == null || !user.authenticate(requireString(body, "password"))) {
+            throw new ApiException(401, "Usuário ou senha inválidos.");
+        }
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long now = System.nanoTime();
+        sweepExpiredSessions(now);
+        sessions.put(token, new Session(user, now));
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("token", token);
+        response.put("username", user.getUsername());
+        response.put("role", user.getRole());
+        response.put("expiresInSeconds", TimeUnit.NANOSECONDS.toSeconds(SESSION_TIMEOUT_NANOS));
+        return response;
+    }
+
+    /**
+     * Encerra a sessão do token enviado.
+     * @param exchange A requisição.
+     * @return Um objeto vazio.
+     */
+    private Object logout(HttpExchange exchange) {
+        requireMethod(exchange, "POST");
+        String token = bearerToken(exchange);
+        if (token == null || sessions.remove(token) == null) {
+            throw new ApiException(401, "Sessão inválida. Faça login em /api/login.");
+        }
+        return new LinkedHashMap<>();
+    }
+
+    /**
+     * Remove as sessões expiradas, se a última remoção foi há mais de um minuto.
+     * @param now O instante atual, de {@link System#nanoTime()}.
+     */
+    private void sweepExpiredSessions(long now) {
+        long next = nextSessionSweep.get();
+        if (now - next >= 0 && nextSessionSweep.compareAndSet(next, now + SESSION_SWEEP_NANOS)) {
+            sessions.values().removeIf(session -> session.isExpired(now));
+        }
+    }
+
+    /**
+     * Busca as salas disponíveis em um horário.
+     * @param exchange A requisição.
+     * @return As salas.
+     */
+    private Object findAvailableClassrooms(HttpExchange exchange) {
+        requireMethod(exchange, "GET");
+        requireUser(exchange);
+        Map<String, List<String>> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        LocalDate date = LocalDate.parse(requireParameter(query, "date"));
+        LocalTime start = LocalTime.parse(requireParameter(query, "start"));
+        LocalTime end = LocalTime.parse(requireParameter(query, "end"));
+        String minCapacity = firstParameter(query, "minCapacity");
+        List<String> features = query.get("feature");
+        List<Classroom> available = manager.findAvailableClassrooms(date, start, end,
+                minCapacity != null ? Integer.parseInt(minCapacity) : 0,
+                Boolean.parseBoolean(firstParameter(query, "projector")),
+                firstParameter(query, "location"), features);
+        List<Object> response = new ArrayList<>(available.size());
+        for (Classroom classroom : available) {
+            response.add(toJson(classroom));
+        }
+        return response;
+    }
+
+    /**
+     * Trata as rotas de reservas: criação e mudanças de status.
+     * @param exchange A requisição.
+     * @return A reserva criada ou alterada.
+     * @throws IOException Se o corpo não puder ser lido.
+     */
+    private Object reservations(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "POST");
+        User user = requireUser(exchange);
+        String route = exchange.getRequestURI().getPath().substring("/api/reservations".length());
+        if (route.isEmpty() || route.equals("/")) {
+            Map<String, Object> body = readBody(exchange);
+            Classroom classroom = manager.getClassroomByName(requireString(body, "classroom"));
+            if (classroom == null) {
+                throw new ApiException(404, "Sala não encontrada.");
+            }
+            Reservation reservation = commands.makeReservation(classroom, user,
+                    LocalDate.parse(requireString(body, "date")), LocalTime.parse(requireString(body, "start")),
+                    LocalTime.parse(requireString(body, "end")), optionalString(body, "purpose")).join();
+            exchange.getResponseHeaders().set("Location", "/api/reservations/" + reservation.getId());
+            return toJson(reservation);
+        }
+        String[] path = route.split("/");
+        if (path.length != 3 || !path[0].isEmpty()) {
+            throw new ApiException(404, "Rota não encontrada.");
+        }
+        Reservation reservation;
+        try {
+            reservation = manager.getReservationById(Integer.parseInt(path[1]));
+        } catch (NumberFormatException e) {
+            reservation = null;
+        }
+        if (reservation == null) {
+            throw new ApiException(404, "Reserva não encontrada.");
+        }
+        boolean admin = ADMIN_ROLE.equals(user.getRole());
+        switch (path[2]) {
+            case "confirm":
+                requireAdmin(admin);
+                commands.confirmReservation(reservation).join();
+                break;
+            case "reject":
+                requireAdmin(admin);
+                commands.rejectReservation(reservation, optionalString(readBody(exchange), "observation")).join();
+                break;
+            case "cancel":
+                if (!admin && !reservation.getReservedBy().equals(user)) {
+                    throw new ApiException(403, "Apenas administradores ou o autor podem cancelar a reserva.");
+                }
+                commands.cancelReservation(reservation, optionalString(readBody(exchange), "observation")).join();
+                break;
+            default:
+                throw new ApiException(404, "Rota não encontrada.");
+        }
+        return toJson(reservation);
+    }
+
+    /**
+     * Trata uma requisição e escreve a resposta, convertendo as falhas em respostas de erro.
+     * @param exchange A requisição.
+     * @param route A rota.
+     * @throws IOException Se a resposta não puder ser escrita.
+     */
+    private void respond(HttpExchange exchange, Route route) throws IOException {
+        int status;
+        Object body;
+        try {
+            body = route.handle(exchange);
+            status = exchange.getResponseHeaders().containsKey("Location") ? 201 : 200;
+        } catch (Throwable e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            status = statusOf(cause);
+            if (status == 500) {
+                System.err.println("Erro na API: " + cause);
+            }
+            body = Map.of("erro", String.valueOf(cause.getMessage()));
+        }
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Obtém o status HTTP de uma falha.
+     * @param error A falha.
+     * @return O status.
+     */
+    private static int statusOf(Throwable error) {
+        if (error instanceof ApiException) {
+            return ((ApiException) error).status;
+        }
+        if (error instanceof ReservationConflictException) {
+            return 409;
+        }
+        if (error instanceof IllegalArgumentException || error instanceof DateTimeParseException) {
+            return 400;
+        }
+        return 500;
+    }
+
+    /**
+     * Verifica o método HTTP da requisição.
+     * @param exchange A requisição.
+     * @param method O método esperado.
+     */
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new ApiException(405, "Método não permitido.");
+        }
+    }
+
+    /**
+     * Obtém o token do cabeçalho {@code Authorization}.
+     * @param exchange A requisição.
+     * @return O token, ou null se não houver.
+     */
+    private static String bearerToken(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        return authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring("Bearer ".length()).trim() : null;
+    }
+
+    /**
+     * Obtém o usuário da sessão indicada no cabeçalho {@code Authorization}. Uma sessão
+     * expirada é removida e recusada; as demais têm a expiração adiada.
+     * @param exchange A requisição.
+     * @return O usuário.
+     */
+    private User requireUser(HttpExchange exchange) {
+        String token = bearerToken(exchange);
+        Session session = token != null ? sessions.get(token) : null;
+        long now = System.nanoTime();
+        if (session != null && session.isExpired(now)) {
+            sessions.remove(token, session);
+            session = null;
+        }
+        if (session == null) {
+            throw new ApiException(401, "Sessão inválida ou expirada. Faça login em /api/login.");
+        }
+        session.touch(now);
+        return session.user;
+    }
+
+    /**
+     * Verifica se o usuário da sessão é administrador.
+     * @param admin Se o usuário é administrador.
+     */
+    private static void requireAdmin(boolean admin) {
+        if (!admin) {
+            throw new ApiException(403, "Apenas administradores podem confirmar ou rejeitar reservas.");
+        }
+    }
+
+    /**
+     * Lê o corpo JSON da requisição.
+     * @param exchange A requisição.
+     * @return O objeto lido, vazio se não houver corpo.
+     * @throws IOException Se o corpo não puder ser lido.
+     */
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Corpo da requisição muito grande.");
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return text.isBlank() ? new HashMap<>() : Json.parseObject(text);
+    }
+
+    /**
+     * Obtém um campo de texto obrigatório.
+     * @param body O corpo da requisição.
+     * @param field O nome do campo.
+     * @return O valor.
+     */
+    private static String requireString(Map<String, Object> body, String field) {
+        String value = optionalString(body, field);
+        if (value == null) {
+            throw new ApiException(400, "Campo obrigatório: " + field + ".");
+        }
+        return value;
+    }
+
+    /**
+     * Obtém um campo de texto opcional.
+     * @param body O corpo da requisição.
+     * @param field O nome do campo.
+     * @return O valor, ou null se ausente.
+     */
+    private static String optionalString(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Separa os parâmetros de uma query string.
+     * @param rawQuery A query string, sem decodificação (pode ser null).
+     * @return Os valores de cada parâmetro.
+     */
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals >= 0 ? pair.substring(0, equals) : pair, StandardCharsets.UTF_8);
+            String value = equals >= 0 ? URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8) : "";
+            parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+        return parameters;
+    }
+
+    /**
+     * Obtém um parâmetro obrigatório da query string.
+     * @param query Os parâmetros.
+     * @param name O nome do parâmetro.
+     * @return O primeiro valor.
+     */
+    private static String requireParameter(Map<String, List<String>> query, String name) {
+        String value = firstParameter(query, name);
+        if (value == null) {
+            throw new ApiException(400, "Parâmetro obrigatório: " + name + ".");
+        }
+        return value;
+    }
+
+    /**
+     * Obtém o primeiro valor de um parâmetro da query string.
+     * @param query Os parâmetros.
+     * @param name O nome do parâmetro.
+     * @return O valor, ou null se ausente.
+     */
+    private static String firstParameter(Map<String, List<String>> query, String name) {
+        List<String> values = query.get(name);
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    /**
+     * Monta a representação JSON de uma sala.
+     * @param classroom A sala.
+     * @return Os campos.
+     */
+    private static Map<String, Object> toJson(Classroom classroom) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("name", classroom.getName());
+        json.put("capacity", classroom.getCapacity());
+        json.put("location", classroom.getLocation());
+        json.put("projector", classroom.hasProjector());
+        json.put("features", classroom.getFeatures());
+        return json;
+    }
+
+    /**
+     * Monta a representação JSON de uma reserva.
+     * @param reservation A reserva.
+     * @return Os campos.
+     */
+    private static Map<String, Object> toJson(Reservation reservation) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", reservation.getId());
+        json.put("classroom", reservation.getClassroom().getName());
+        json.put("user", reservation.getReservedBy().getUsername());
+        json.put("date", reservation.getDate().toString());
+        json.put("start", reservation.getStartTime().toString());
+        json.put("end", reservation.getEndTime().toString());
+        json.put("purpose", reservation.getPurpose());
+        ReservationState state = reservation.getState();
+        json.put("status", state.getStatus().name());
+        json.put("observation", state.getObservation());
+        return json;
+    }
+}
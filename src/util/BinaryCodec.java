@@ -0,0 +1,531 @@
+package util;
+
+import model.Administrator;
+import model.Classroom;
+import model.Reservation;
+import model.ReservationState;
+import model.ReservationStatus;
+import model.Student;
+import model.User;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Formato binário compacto e versionado para os dados do sistema, gravado com
+ * {@link DataOutputStream} no lugar da serialização Java.
+ *
+ * Cada arquivo começa com um cabeçalho (assinatura, versão e tipo de conteúdo).
+ * Nas reservas, as datas são gravadas como dia da época (int) e os horários como
+ * minuto do dia (short); salas e nomes de usuário são gravados uma única vez em um
+ * dicionário no início do arquivo e referenciados por índice em cada reserva. Os dados
+ * dos usuários (inclusive a senha) ficam apenas no arquivo de usuários: na leitura, cada
+ * nome é resolvido para o usuário carregado desse arquivo.
+ *
+ * A leitura reconhece também os arquivos antigos, gravados com serialização Java.
+ */
+public class BinaryCodec {
+    private static final int MAGIC = 0x53414C41; // "SALA"
+    private static final short VERSION = 2;
+    private static final short VERSION_WITH_USER_RECORDS = 1;
+    private static final int SERIALIZATION_MAGIC = 0xACED;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte KIND_CLASSROOMS = 1;
+    private static final byte KIND_USERS = 2;
+    private static final byte KIND_RESERVATIONS = 3;
+
+    private static final byte ROLE_ADMINISTRATOR = 0;
+    private static final byte ROLE_STUDENT = 1;
+
+    private static final int STATUS_MASK = 0x0F;
+    private static final int FLAG_SECONDS = 0x80;
+
+    /**
+     * Interface para gravar o conteúdo de um arquivo.
+     */
+    private interface Writer {
+        /**
+         * Grava o conteúdo.
+         * @param out O fluxo de saída.
+         * @throws IOException Se ocorrer um erro de I/O.
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Interface para ler o conteúdo de um arquivo.
+     * @param <T> O tipo dos objetos lidos.
+     */
+    private interface Reader<T> {
+        /**
+         * Lê o conteúdo.
+         * @param in O fluxo de entrada.
+         * @param version A versão do arquivo.
+         * @return A lista de objetos lida.
+         * @throws IOException Se ocorrer um erro de I/O.
+         */
+        List<T> read(DataInputStream in, short version) throws IOException;
+    }
+
+    /**
+     * Grava uma lista de salas de aula, forçando a gravação em disco.
+     * @param classrooms As salas.
+     * @param filename O nome do arquivo.
+     * @return O número de bytes gravados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static long writeClassrooms(List<Classroom> classrooms, String filename) throws IOException {
+        return writeFile(filename, KIND_CLASSROOMS, out -> {
+            out.writeInt(classrooms.size());
+            for (Classroom classroom : classrooms) {
+                writeClassroom(out, classroom);
+            }
+        });
+    }
+
+    /**
+     * Grava uma lista de usuários, forçando a gravação em disco.
+     * @param users Os usuários.
+     * @param filename O nome do arquivo.
+     * @return O número de bytes gravados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static long writeUsers(List<User> users, String filename) throws IOException {
+        return writeFile(filename, KIND_USERS, out -> {
+            out.writeInt(users.size());
+            for (User user : users) {
+                writeUser(out, user);
+            }
+        });
+    }
+
+    /**
+     * Grava uma lista de reservas, forçando a gravação em disco.
+     * @param reservations As reservas.
+     * @param filename O nome do arquivo.
+     * @return O número de bytes gravados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static long writeReservations(List<Reservation> reservations, String filename) throws IOException {
+        return writeFile(filename, KIND_RESERVATIONS, out -> writeReservationList(out, reservations));
+    }
+
+    /**
+     * Lê uma lista de salas de aula.
+     * @param filename O nome do arquivo.
+     * @return A lista, ou null se o arquivo não existir ou estiver vazio.
+     * @throws IOException Se ocorrer um erro de I/O ou o arquivo for inválido.
+     */
+    public static List<Classroom> readClassrooms(String filename) throws IOException {
+        return readFile(filename, KIND_CLASSROOMS, (in, version) -> {
+            int count = in.readInt();
+            List<Classroom> classrooms = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                classrooms.add(readClassroom(in));
+            }
+            return classrooms;
+        });
+    }
+
+    /**
+     * Lê uma lista de usuários.
+     * @param filename O nome do arquivo.
+     * @return A lista, ou null se o arquivo não existir ou estiver vazio.
+     * @throws IOException Se ocorrer um erro de I/O ou o arquivo for inválido.
+     */
+    public static List<User> readUsers(String filename) throws IOException {
+        return readFile(filename, KIND_USERS, (in, version) -> {
+            int count = in.readInt();
+            List<User> users = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                users.add(readUser(in));
+            }
+            return users;
+        });
+    }
+
+    /**
+     * Lê uma lista de reservas.
+     * @param filename O nome do arquivo.
+     * @param users Obtém o usuário carregado a partir do nome de usuário, ou null se não existir.
+     * @return A lista, ou null se o arquivo não existir ou estiver vazio.
+     * @throws IOException Se ocorrer um erro de I/O, o arquivo for inválido ou um usuário não existir.
+     */
+    public static List<Reservation> readReservations(String filename, Function<String, User> users)
+            throws IOException {
+        return readFile(filename, KIND_RESERVATIONS, (in, version) -> readReservationList(in, version, users));
+    }
+
+    /**
+     * Grava uma sala de aula.
+     * @param out O fluxo de saída.
+     * @param classroom A sala.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static void writeClassroom(DataOutput out, Classroom classroom) throws IOException {
+        out.writeUTF(classroom.getName());
+        out.writeInt(classroom.getCapacity());
+        out.writeUTF(classroom.getLocation());
+        out.writeBoolean(classroom.hasProjector());
+        List<String> features = classroom.getFeatures();
+        out.writeInt(features.size());
+        for (String feature : features) {
+            out.writeUTF(feature);
+        }
+    }
+
+    /**
+     * Lê uma sala de aula.
+     * @param in O fluxo de entrada.
+     * @return A sala.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static Classroom readClassroom(DataInput in) throws IOException {
+        String name = in.readUTF();
+        int capacity = in.readInt();
+        String location = in.readUTF();
+        boolean hasProjector = in.readBoolean();
+        Classroom classroom = new Classroom(name, capacity, location, hasProjector);
+        int featureCount = in.readInt();
+        for (int i = 0; i < featureCount; i++) {
+            classroom.addFeature(in.readUTF());
+        }
+        return classroom;
+    }
+
+    /**
+     * Grava um usuário.
+     * @param out O fluxo de saída.
+     * @param user O usuário.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static void writeUser(DataOutput out, User user) throws IOException {
+        out.writeByte(user instanceof Student ? ROLE_STUDENT : ROLE_ADMINISTRATOR);
+        out.writeUTF(user.getUsername());
+        out.writeUTF(user.getPassword());
+        out.writeUTF(user.getName());
+        out.writeUTF(user.getEmail());
+        if (user instanceof Student) {
+            out.writeUTF(((Student) user).getStudentId());
+        }
+    }
+
+    /**
+     * Lê um usuário.
+     * @param in O fluxo de entrada.
+     * @return O usuário.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static User readUser(DataInput in) throws IOException {
+        byte role = in.readByte();
+        String username = in.readUTF();
+        String password = in.readUTF();
+        String name = in.readUTF();
+        String email = in.readUTF();
+        if (role == ROLE_STUDENT) {
+            return new Student(username, password, name, email, in.readUTF());
+        }
+        return new Administrator(username, password, name, email);
+    }
+
+    /**
+     * Grava uma reserva isolada, com a sala e o usuário completos.
+     * @param out O fluxo de saída.
+     * @param reservation A reserva.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static void writeReservation(DataOutput out, Reservation reservation) throws IOException {
+        writeClassroom(out, reservation.getClassroom());
+        writeUser(out, reservation.getReservedBy());
+        writeReservationFields(out, reservation, 0, 0);
+    }
+
+    /**
+     * Lê uma reserva isolada, gravada por {@link #writeReservation(DataOutput, Reservation)}.
+     * @param in O fluxo de entrada.
+     * @return A reserva.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static Reservation readReservation(DataInput in) throws IOException {
+        Classroom classroom = readClassroom(in);
+        User user = readUser(in);
+        return readReservationFields(in, new Classroom[] { classroom }, new User[] { user });
+    }
+
+    /**
+     * Obtém o código gravado em disco para um status.
+     * @param status O status.
+     * @return O código.
+     */
+    public static int statusCode(ReservationStatus status) {
+        switch (status) {
+            case PENDING:
+                return 1;
+            case CONFIRMED:
+                return 2;
+            case CANCELLED:
+                return 3;
+            case REJECTED:
+                return 4;
+            default:
+                throw new IllegalArgumentException("Status desconhecido: " + status);
+        }
+    }
+
+    /**
+     * Obtém o status a partir do código gravado em disco.
+     * @param code O código.
+     * @return O status.
+     * @throws IOException Se o código for desconhecido.
+     */
+    public static ReservationStatus statusFromCode(int code) throws IOException {
+        switch (code) {
+            case 1:
+                return ReservationStatus.PENDING;
+            case 2:
+                return ReservationStatus.CONFIRMED;
+            case 3:
+                return ReservationStatus.CANCELLED;
+            case 4:
+                return ReservationStatus.REJECTED;
+            default:
+                throw new IOException("Código de status inválido: " + code);
+        }
+    }
+
+    /**
+     * Grava uma lista de reservas com o dicionário de salas e nomes de usuário.
+     * @param out O fluxo de saída.
+     * @param reservations As reservas.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private static void writeReservationList(DataOutputStream out, List<Reservation> reservations) throws IOException {
+        Map<String, Integer> classroomIds = new HashMap<>();
+        Map<String, Integer> userIds = new HashMap<>();
+        List<Classroom> classroomDictionary = new ArrayList<>();
+        List<User> userDictionary = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            if (classroomIds.putIfAbsent(reservation.getClassroom().getName(), classroomDictionary.size()) == null) {
+                classroomDictionary.add(reservation.getClassroom());
+            }
+            if (userIds.putIfAbsent(reservation.getReservedBy().getUsername(), userDictionary.size()) == null) {
+                userDictionary.add(reservation.getReservedBy());
+            }
+        }
+
+        out.writeInt(classroomDictionary.size());
+        for (Classroom classroom : classroomDictionary) {
+            writeClassroom(out, classroom);
+        }
+        out.writeInt(userDictionary.size());
+        for (User user : userDictionary) {
+            out.writeUTF(user.getUsername());
+        }
+
+        out.writeInt(reservations.size());
+        for (Reservation reservation : reservations) {
+            writeReservationFields(out, reservation,
+                    classroomIds.get(reservation.getClassroom().getName()),
+                    userIds.get(reservation.getReservedBy().getUsername()));
+        }
+    }
+
+    /**
+     * Lê uma lista de reservas com o dicionário de salas e usuários. Na versão 1 o
+     * dicionário tem o registro completo de cada usuário; mesmo assim vale o usuário
+     * carregado do arquivo de usuários, para que uma senha antiga não seja restaurada.
+     * @param in O fluxo de entrada.
+     * @param version A versão do arquivo.
+     * @param users Obtém o usuário carregado a partir do nome de usuário, ou null se não existir.
+     * @return As reservas.
+     * @throws IOException Se ocorrer um erro de I/O ou um usuário não existir.
+     */
+    private static List<Reservation> readReservationList(DataInputStream in, short version,
+            Function<String, User> users) throws IOException {
+        Classroom[] classroomDictionary = new Classroom[in.readInt()];
+        for (int i = 0; i < classroomDictionary.length; i++) {
+            classroomDictionary[i] = readClassroom(in);
+        }
+        User[] userDictionary = new User[in.readInt()];
+        for (int i = 0; i < userDictionary.length; i++) {
+            if (version == VERSION_WITH_USER_RECORDS) {
+                User stored = readUser(in);
+                User loaded = users.apply(stored.getUsername());
+                userDictionary[i] = loaded != null ? loaded : stored;
+            } else {
+                String username = in.readUTF();
+                userDictionary[i] = users.apply(username);
+                if (userDictionary[i] == null) {
+                    throw new IOException("Usuário " + username + " não encontrado.");
+                }
+            }
+        }
+
+        int count = in.readInt();
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reservations.add(readReservationFields(in, classroomDictionary, userDictionary));
+        }
+        return reservations;
+    }
+
+    /**
+     * Grava os campos de uma reserva, com a sala e o usuário referenciados por índice.
+     * Horários com segundos são gravados como segundo do dia (int) em vez de minuto do dia.
+     * @param out O fluxo de saída.
+     * @param reservation A reserva.
+     * @param classroomId O índice da sala no dicionário.
+     * @param userId O índice do usuário no dicionário.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private static void writeReservationFields(DataOutput out, Reservation reservation, int classroomId, int userId)
+            throws IOException {
+        LocalTime start = reservation.getStartTime();
+        LocalTime end = reservation.getEndTime();
+        boolean withSeconds = start.getSecond() != 0 || end.getSecond() != 0;
+        ReservationState state = reservation.getState();
+
+        out.writeInt(reservation.getId());
+        out.writeInt(classroomId);
+        out.writeInt(userId);
+        out.writeInt((int) reservation.getDate().toEpochDay());
+        out.writeByte(statusCode(state.getStatus()) | (withSeconds ? FLAG_SECONDS : 0));
+        if (withSeconds) {
+            out.writeInt(start.toSecondOfDay());
+            out.writeInt(end.toSecondOfDay());
+        } else {
+            out.writeShort(start.getHour() * 60 + start.getMinute());
+            out.writeShort(end.getHour() * 60 + end.getMinute());
+        }
+        out.writeUTF(reservation.getPurpose() != null ? reservation.getPurpose() : "");
+        out.writeUTF(state.getObservation());
+    }
+
+    /**
+     * Lê os campos de uma reserva.
+     * @param in O fluxo de entrada.
+     * @param classrooms O dicionário de salas.
+     * @param users O dicionário de usuários.
+     * @return A reserva.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private static Reservation readReservationFields(DataInput in, Classroom[] classrooms, User[] users)
+            throws IOException {
+        int id = in.readInt();
+        int classroomId = in.readInt();
+        int userId = in.readInt();
+        LocalDate date = LocalDate.ofEpochDay(in.readInt());
+        int statusByte = in.readUnsignedByte();
+        LocalTime start;
+        LocalTime end;
+        if ((statusByte & FLAG_SECONDS) != 0) {
+            start = LocalTime.ofSecondOfDay(in.readInt());
+            end = LocalTime.ofSecondOfDay(in.readInt());
+        } else {
+            start = LocalTime.ofSecondOfDay(in.readShort() * 60L);
+            end = LocalTime.ofSecondOfDay(in.readShort() * 60L);
+        }
+        String purpose = in.readUTF();
+        String observation = in.readUTF();
+        if (classroomId < 0 || classroomId >= classrooms.length || userId < 0 || userId >= users.length) {
+            throw new IOException("Referência inválida na reserva " + id + ".");
+        }
+        return new Reservation(id, classrooms[classroomId], users[userId], date, start, end, purpose,
+                statusFromCode(statusByte & STATUS_MASK), observation);
+    }
+
+    /**
+     * Grava um arquivo com cabeçalho e força a gravação em disco.
+     * @param filename O nome do arquivo.
+     * @param kind O tipo de conteúdo.
+     * @param writer O gravador do conteúdo.
+     * @return O número de bytes gravados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private static long writeFile(String filename, byte kind, Writer writer) throws IOException {
+        Path filePath = Paths.get(filename);
+        Files.createDirectories(filePath.toAbsolutePath().getParent());
+
+        try (FileOutputStream fos = new FileOutputStream(filename);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(kind);
+            writer.write(out);
+            out.flush();
+            fos.getChannel().force(true);
+            return fos.getChannel().size();
+        }
+    }
+
+    /**
+     * Lê um arquivo, no formato binário ou no formato antigo (serialização Java).
+     * @param filename O nome do arquivo.
+     * @param kind O tipo de conteúdo esperado.
+     * @param reader O leitor do conteúdo.
+     * @param <T> O tipo dos objetos lidos.
+     * @return A lista, ou null se o arquivo não existir ou estiver vazio.
+     * @throws IOException Se ocorrer um erro de I/O ou o arquivo for inválido.
+     */
+    private static <T> List<T> readFile(String filename, byte kind, Reader<T> reader) throws IOException {
+        File file = new File(filename);
+        if (!file.exists() || file.length() == 0) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            in.mark(4);
+            if (in.readUnsignedShort() == SERIALIZATION_MAGIC) {
+                return readLegacy(filename);
+            }
+            in.reset();
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Arquivo em formato desconhecido: " + filename);
+            }
+            short version = in.readShort();
+            if (version > VERSION) {
+                throw new IOException("Versão " + version + " do arquivo " + filename + " não é suportada.");
+            }
+            if (in.readByte() != kind) {
+                throw new IOException("Conteúdo inesperado no arquivo " + filename);
+            }
+            return reader.read(in, version);
+        }
+    }
+
+    /**
+     * Lê um arquivo no formato antigo, gravado com serialização Java.
+     * @param filename O nome do arquivo.
+     * @param <T> O tipo dos objetos lidos.
+     * @return A lista lida.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> readLegacy(String filename) throws IOException {
+        try {
+            return (List<T>) (List<?>) FileUtil.readObjectFromFile(filename);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Arquivo antigo inválido: " + filename, e);
+        }
+    }
+}
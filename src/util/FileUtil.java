@@ -1,10 +1,19 @@
 package util;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Classe utilitária para operações de arquivo.
@@ -48,4 +57,101 @@ public class FileUtil {
             return (List<T>) ois.readObject();
         }
     }
+
+    /**
+     * Grava um texto em um arquivo de forma atômica: o texto é gravado em um arquivo
+     * temporário, forçado em disco e então renomeado sobre o arquivo de destino.
+     * Após uma queda, o arquivo contém o conteúdo antigo ou o novo, nunca uma mistura.
+     *
+     * @param text O texto a ser gravado.
+     * @param filename O nome do arquivo.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static void writeTextToFileAtomically(String text, String filename) throws IOException {
+        Path filePath = Paths.get(filename);
+        Files.createDirectories(filePath.getParent());
+        Path tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        try {
+            Files.move(tempPath, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(filePath.getParent());
+    }
+
+    /**
+     * Força em disco as alterações de um diretório (criação e renomeação de arquivos).
+     * Em sistemas que não permitem abrir diretórios (como o Windows), não faz nada.
+     *
+     * @param directory O diretório.
+     */
+    public static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Não suportado nesta plataforma.
+        }
+    }
+
+    /**
+     * Apaga um diretório e todo o seu conteúdo.
+     *
+     * @param directory O diretório.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<Path> ordered = paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : ordered) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Reaproveita um arquivo imutável em outro caminho, criando um link físico.
+     * Se o sistema de arquivos não suportar links, copia o arquivo e o força em disco.
+     *
+     * @param source O arquivo de origem.
+     * @param target O caminho de destino.
+     * @return O número de bytes copiados (0 se foi criado um link).
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static long linkOrCopy(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+            return 0;
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source, target);
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            return Files.size(target);
+        }
+    }
+
+    /**
+     * Lê o texto de um arquivo.
+     *
+     * @param filename O nome do arquivo.
+     * @return O texto lido, ou null se o arquivo não existir.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static String readTextFromFile(String filename) throws IOException {
+        Path filePath = Paths.get(filename);
+        if (!Files.exists(filePath)) {
+            return null;
+        }
+        return Files.readString(filePath);
+    }
 }
\ No newline at end of file
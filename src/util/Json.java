@@ -0,0 +1,366 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura e escrita de JSON para a API HTTP, sem dependências externas.
+ *
+ * Objetos são lidos como {@link Map} (na ordem do texto), listas como {@link List},
+ * números como {@link Long} ou {@link Double}, e os demais valores como {@link String},
+ * {@link Boolean} ou null. Na escrita são aceitos os mesmos tipos, além de qualquer
+ * {@link Number}.
+ *
+ * A leitura é recursiva, então textos com mais de {@value #MAX_DEPTH} objetos ou listas
+ * aninhados são recusados como inválidos, em vez de esgotarem a pilha.
+ */
+public class Json {
+    /** Profundidade máxima de objetos e listas aninhados aceita na leitura. */
+    public static final int MAX_DEPTH = 64;
+
+    private final String text;
+    private int position;
+    private int depth;
+
+    /**
+     * Construtor do leitor.
+     * @param text O texto.
+     */
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Lê um valor JSON.
+     * @param text O texto.
+     * @return O valor.
+     * @throws IllegalArgumentException Se o texto não for um JSON válido.
+     */
+    public static Object parse(String text) {
+        Json reader = new Json(text);
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position != text.length()) {
+            throw reader.error("conteúdo após o fim do valor");
+        }
+        return value;
+    }
+
+    /**
+     * Lê um objeto JSON.
+     * @param text O texto.
+     * @return O objeto.
+     * @throws IllegalArgumentException Se o texto não for um objeto JSON válido.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("JSON inválido: era esperado um objeto.");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Escreve um valor em JSON.
+     * @param value O valor.
+     * @return O texto.
+     */
+    public static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(value, out);
+        return out.toString();
+    }
+
+    /**
+     * Escreve um valor em JSON.
+     * @param value O valor.
+     * @param out O destino.
+     */
+    private static void write(Object value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            quote((String) value, out);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                quote(String.valueOf(entry.getKey()), out);
+                out.append(':');
+                write(entry.getValue(), out);
+            }
+            out.append('}');
+        } else if (value instanceof Iterable) {
+            out.append('[');
+            boolean first = true;
+            for (Object item : (Iterable<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(item, out);
+            }
+            out.append(']');
+        } else {
+            quote(value.toString(), out);
+        }
+    }
+
+    /**
+     * Escreve um texto entre aspas, com os caracteres especiais escapados.
+     * @param value O texto.
+     * @param out O destino.
+     */
+    private static void quote(String value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Lê um valor na posição atual.
+     * @return O valor.
+     */
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("fim inesperado");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    /**
+     * Lê um objeto na posição atual.
+     * @return O objeto.
+     */
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        enter();
+        skipWhitespace();
+        if (consume('}')) {
+            depth--;
+            return object;
+        }
+        do {
+            skipWhitespace();
+            if (position >= text.length() || text.charAt(position) != '"') {
+                throw error("era esperado o nome de um campo");
+            }
+            String key = readString();
+            skipWhitespace();
+            if (!consume(':')) {
+                throw error("era esperado ':'");
+            }
+            object.put(key, readValue());
+            skipWhitespace();
+        } while (consume(','));
+        if (!consume('}')) {
+            throw error("era esperado '}'");
+        }
+        depth--;
+        return object;
+    }
+
+    /**
+     * Lê uma lista na posição atual.
+     * @return A lista.
+     */
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        enter();
+        skipWhitespace();
+        if (consume(']')) {
+            depth--;
+            return array;
+        }
+        do {
+            array.add(readValue());
+            skipWhitespace();
+        } while (consume(','));
+        if (!consume(']')) {
+            throw error("era esperado ']'");
+        }
+        depth--;
+        return array;
+    }
+
+    /**
+     * Entra em um objeto ou lista, avançando após o delimitador de abertura.
+     * @throws IllegalArgumentException Se a profundidade máxima for ultrapassada.
+     */
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("mais de " + MAX_DEPTH + " níveis aninhados");
+        }
+        position++;
+    }
+
+    /**
+     * Lê um texto entre aspas na posição atual.
+     * @return O texto, sem os escapes.
+     */
+    private String readString() {
+        StringBuilder value = new StringBuilder();
+        position++;
+        while (position < text.length()) {
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                break;
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("escape \\u incompleto");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("escape \\u inválido");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+        throw error("texto sem aspas de fechamento");
+    }
+
+    /**
+     * Lê um número na posição atual.
+     * @return O número, como {@link Long} se for inteiro ou {@link Double} caso contrário.
+     */
+    private Number readNumber() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        String number = text.substring(start, position);
+        try {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                return Long.parseLong(number);
+            }
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("valor inválido");
+        }
+    }
+
+    /**
+     * Consome uma palavra reservada.
+     * @param word A palavra.
+     */
+    private void expect(String word) {
+        if (!text.startsWith(word, position)) {
+            throw error("valor inválido");
+        }
+        position += word.length();
+    }
+
+    /**
+     * Consome um caractere, se for o esperado.
+     * @param c O caractere.
+     * @return true se o caractere foi consumido.
+     */
+    private boolean consume(char c) {
+        if (position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Avança sobre espaços em branco.
+     */
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * Cria o erro de leitura da posição atual.
+     * @param message A descrição do erro.
+     * @return O erro.
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("JSON inválido na posição " + position + ": " + message + ".");
+    }
+}